@@ -0,0 +1,604 @@
+package com.cqueltech.linkedlist;
+
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * A custom linked list class. This class denotes a bounded blocking queue built from a doubly
+ * linked chain of DNodes, for passing work between producer and consumer threads. Elements are
+ * added at the tail and normally taken from the head (FIFO), but can also be taken from the
+ * tail (LIFO).
+ *
+ * As in java.util.concurrent.LinkedBlockingQueue the queue uses two locks: producers hold the
+ * tail lock ('putLock') and consumers the head lock ('takeLock'), so a producer and a consumer
+ * never wait for each other. The chain starts with a dummy node, whose successor holds the
+ * first element, so that the head and the tail are never the same node while the queue has an
+ * element. The number of elements is held in an atomic counter that both sides can read.
+ * Operations which touch both ends, or the whole chain (pollTail(), takeTail(), indexOf() and
+ * peekTail()), hold both locks.
+ *
+ * Null elements are not permitted, as null is returned by poll() when the queue is empty.
+ *
+ * Class variables: head - Stores the dummy node preceding the first element in the queue.
+ *                  last - Stores the last node in the queue.
+ *                  count - Stores the current number of elements in the queue.
+ *                  capacity - Maximum number of elements the queue can hold.
+ *
+ * Public methods:
+ *    put(Object object) : Add an element to the tail, waiting for space if necessary.
+ *    offer(Object object) : Add an element to the tail if there is space, returns false if not.
+ *    offer(Object object, long timeout, TimeUnit unit) : Add an element to the tail, waiting up
+ *                 to the timeout for space.
+ *    take() : Remove and return the head element, waiting for one if necessary.
+ *    poll() : Remove and return the head element, returns null if the queue is empty.
+ *    poll(long timeout, TimeUnit unit) : Remove and return the head element, waiting up to the
+ *                 timeout for one.
+ *    takeTail() : Remove and return the tail element, waiting for one if necessary.
+ *    pollTail() : Remove and return the tail element, returns null if the queue is empty.
+ *    drainTo(Collection c, int max) : Remove up to max elements from the head and add them to
+ *                 the collection.
+ *    remainingCapacity() : Return the number of elements that can be added without waiting.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public class BlockingDLinkedQueue<T> implements ILinkedList<T> {
+
+  private final int capacity;
+  private final AtomicInteger count;
+  private DNode<T> head;
+  private DNode<T> last;
+
+  private final ReentrantLock takeLock;
+  private final Condition notEmpty;
+  private final ReentrantLock putLock;
+  private final Condition notFull;
+
+  public BlockingDLinkedQueue() {
+    this(Integer.MAX_VALUE);
+  }
+
+  /*
+   * @param   capacity : maximum number of elements the queue can hold.
+   */
+  public BlockingDLinkedQueue(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be greater than 0: " + capacity);
+    }
+    this.capacity = capacity;
+    this.count = new AtomicInteger();
+    this.head = new DNode<>(null);
+    this.last = head;
+    this.takeLock = new ReentrantLock();
+    this.notEmpty = takeLock.newCondition();
+    this.putLock = new ReentrantLock();
+    this.notFull = putLock.newCondition();
+  }
+
+  /*
+   * Returns the node holding the first element in the queue, or null if the queue is empty.
+   */
+  public SNode<T> getHead() {
+    takeLock.lock();
+    try {
+      return head.getNext();
+    } finally {
+      takeLock.unlock();
+    }
+  }
+
+  /*
+   * Returns the node holding the last element in the queue, or null if the queue is empty.
+   */
+  public SNode<T> getTail() {
+    fullyLock();
+    try {
+      return last == head ? null : last;
+    } finally {
+      fullyUnlock();
+    }
+  }
+
+  public int getSize() {
+    return count.get();
+  }
+
+  public boolean isEmpty() {
+    return count.get() == 0;
+  }
+
+  public int size() {
+    return count.get();
+  }
+
+  /*
+   * Return the number of elements that can be added to the queue without waiting.
+   */
+  public int remainingCapacity() {
+    return capacity - count.get();
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element to the tail of the queue. Throws an IllegalStateException if the queue is
+   * full.
+   *
+   * @param object : Parameter of type 'object' which will be stored in the new node
+   * instance.
+   *
+   */
+  public void add(T object) {
+    if (!offer(object)) {
+      throw new IllegalStateException("Queue full");
+    }
+  }
+
+  /*
+   * @Overloaded method
+   * Positional insertion is not supported, elements can only be added to the tail of the
+   * queue.
+   */
+  public void add(T object, int idx) {
+    throw new UnsupportedOperationException("Positional insertion is not supported by "
+        + "BlockingDLinkedQueue");
+  }
+
+  /*
+   * Add an element to the tail of the queue, waiting if necessary for space to become
+   * available.
+   *
+   * @param   object : item to be added to the queue.
+   */
+  public void put(T object) throws InterruptedException {
+    if (object == null) {
+      throw new NullPointerException();
+    }
+    DNode<T> node = new DNode<>(object);
+    int c;
+    putLock.lockInterruptibly();
+    try {
+      while (count.get() == capacity) {
+        notFull.await();
+      }
+      enqueue(node);
+      c = count.getAndIncrement();
+      if (c + 1 < capacity) {
+        // Still room, pass the signal on to another waiting producer.
+        notFull.signal();
+      }
+    } finally {
+      putLock.unlock();
+    }
+    if (c == 0) {
+      signalNotEmpty();
+    }
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element to the tail of the queue if there is space. Returns true if the element was
+   * added, false if the queue is full.
+   *
+   * @param   object : item to be added to the queue.
+   */
+  public boolean offer(T object) {
+    if (object == null) {
+      throw new NullPointerException();
+    }
+    if (count.get() == capacity) {
+      return false;
+    }
+    DNode<T> node = new DNode<>(object);
+    int c = -1;
+    putLock.lock();
+    try {
+      if (count.get() < capacity) {
+        enqueue(node);
+        c = count.getAndIncrement();
+        if (c + 1 < capacity) {
+          notFull.signal();
+        }
+      }
+    } finally {
+      putLock.unlock();
+    }
+    if (c == 0) {
+      signalNotEmpty();
+    }
+    return c >= 0;
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element to the tail of the queue, waiting up to the specified time for space to
+   * become available. Returns true if the element was added, false if the time ran out.
+   *
+   * @param   object : item to be added to the queue.
+   * @param   timeout : how long to wait before giving up.
+   * @param   unit : unit of the timeout.
+   */
+  public boolean offer(T object, long timeout, TimeUnit unit) throws InterruptedException {
+    if (object == null) {
+      throw new NullPointerException();
+    }
+    long nanos = unit.toNanos(timeout);
+    DNode<T> node = new DNode<>(object);
+    int c;
+    putLock.lockInterruptibly();
+    try {
+      while (count.get() == capacity) {
+        if (nanos <= 0L) {
+          return false;
+        }
+        nanos = notFull.awaitNanos(nanos);
+      }
+      enqueue(node);
+      c = count.getAndIncrement();
+      if (c + 1 < capacity) {
+        notFull.signal();
+      }
+    } finally {
+      putLock.unlock();
+    }
+    if (c == 0) {
+      signalNotEmpty();
+    }
+    return true;
+  }
+
+  /*
+   * Remove and return the element at the head of the queue, waiting if necessary for one to
+   * become available.
+   */
+  public T take() throws InterruptedException {
+    T object;
+    int c;
+    takeLock.lockInterruptibly();
+    try {
+      while (count.get() == 0) {
+        notEmpty.await();
+      }
+      object = dequeue();
+      c = count.getAndDecrement();
+      if (c > 1) {
+        // Elements remain, pass the signal on to another waiting consumer.
+        notEmpty.signal();
+      }
+    } finally {
+      takeLock.unlock();
+    }
+    if (c == capacity) {
+      signalNotFull();
+    }
+    return object;
+  }
+
+  /*
+   * @Overloaded method
+   * Retrieves and removes the head (first element) of this queue. Returns null if the queue
+   * is empty.
+   */
+  public T poll() {
+    if (count.get() == 0) {
+      return null;
+    }
+    T object = null;
+    int c = -1;
+    takeLock.lock();
+    try {
+      if (count.get() > 0) {
+        object = dequeue();
+        c = count.getAndDecrement();
+        if (c > 1) {
+          notEmpty.signal();
+        }
+      }
+    } finally {
+      takeLock.unlock();
+    }
+    if (c == capacity) {
+      signalNotFull();
+    }
+    return object;
+  }
+
+  /*
+   * @Overloaded method
+   * Retrieves and removes the head (first element) of this queue, waiting up to the specified
+   * time for an element to become available. Returns null if the time ran out.
+   *
+   * @param   timeout : how long to wait before giving up.
+   * @param   unit : unit of the timeout.
+   */
+  public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    T object;
+    int c;
+    takeLock.lockInterruptibly();
+    try {
+      while (count.get() == 0) {
+        if (nanos <= 0L) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      object = dequeue();
+      c = count.getAndDecrement();
+      if (c > 1) {
+        notEmpty.signal();
+      }
+    } finally {
+      takeLock.unlock();
+    }
+    if (c == capacity) {
+      signalNotFull();
+    }
+    return object;
+  }
+
+  /*
+   * Remove and return the element at the tail of the queue, waiting if necessary for one to
+   * become available.
+   */
+  public T takeTail() throws InterruptedException {
+    T object;
+    int c;
+    takeLock.lockInterruptibly();
+    try {
+      while (count.get() == 0) {
+        notEmpty.await();
+      }
+      putLock.lock();
+      try {
+        object = dequeueLast();
+        c = count.getAndDecrement();
+        if (c == capacity) {
+          notFull.signal();
+        }
+      } finally {
+        putLock.unlock();
+      }
+      if (c > 1) {
+        notEmpty.signal();
+      }
+    } finally {
+      takeLock.unlock();
+    }
+    return object;
+  }
+
+  /*
+   * Retrieves and removes the tail (last element) of this queue. Returns null if the queue is
+   * empty.
+   */
+  public T pollTail() {
+    if (count.get() == 0) {
+      return null;
+    }
+    T object = null;
+    fullyLock();
+    try {
+      if (count.get() > 0) {
+        object = dequeueLast();
+        int c = count.getAndDecrement();
+        if (c == capacity) {
+          notFull.signal();
+        }
+        if (c > 1) {
+          notEmpty.signal();
+        }
+      }
+    } finally {
+      fullyUnlock();
+    }
+    return object;
+  }
+
+  /*
+   * Retrieves, but does not remove, the head (first element) of this queue. Returns null if
+   * the queue is empty.
+   */
+  public T peek() {
+    if (count.get() == 0) {
+      return null;
+    }
+    takeLock.lock();
+    try {
+      SNode<T> first = head.getNext();
+      return first == null ? null : first.getObject();
+    } finally {
+      takeLock.unlock();
+    }
+  }
+
+  /*
+   * Retrieves, but does not remove, the tail (last element) of this queue. Returns null if
+   * the queue is empty.
+   */
+  public T peekTail() {
+    fullyLock();
+    try {
+      return last == head ? null : last.getObject();
+    } finally {
+      fullyUnlock();
+    }
+  }
+
+  /*
+   * Return the index of node that contains specified data item, counting from the head of the
+   * queue. Returns -1 if not found.
+   *
+   * @param   object : item that is being searched for.
+   */
+  public int indexOf(T object) {
+    if (object == null) {
+      return -1;
+    }
+    fullyLock();
+    try {
+      int idx = 0;
+      for (SNode<T> n = head.getNext(); n != null; n = n.getNext()) {
+        if (object.equals(n.getObject())) {
+          return idx;
+        }
+        idx++;
+      }
+      return -1;
+    } finally {
+      fullyUnlock();
+    }
+  }
+
+  /*
+   * @Overloaded method
+   * Remove every element from the head of the queue and add them, in order, to the collection.
+   * Returns the number of elements moved.
+   *
+   * @param   c : collection the elements are added to.
+   */
+  public int drainTo(Collection<? super T> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  /*
+   * @Overloaded method
+   * Remove up to the specified number of elements from the head of the queue and add them, in
+   * order, to the collection, holding the head lock once for the whole batch. Returns the
+   * number of elements moved.
+   *
+   * @param   c : collection the elements are added to.
+   * @param   maxElements : maximum number of elements to move.
+   */
+  public int drainTo(Collection<? super T> c, int maxElements) {
+    if (c == null) {
+      throw new NullPointerException();
+    }
+    if (maxElements <= 0) {
+      return 0;
+    }
+    boolean signalNotFull = false;
+    takeLock.lock();
+    try {
+      int n = Math.min(maxElements, count.get());
+      int i = 0;
+      try {
+        while (i < n) {
+          T object = dequeue();
+          i++;
+          c.add(object);
+        }
+        return n;
+      } finally {
+        // Account for the elements removed, even if the collection threw.
+        if (i > 0) {
+          signalNotFull = count.getAndAdd(-i) == capacity;
+        }
+      }
+    } finally {
+      takeLock.unlock();
+      if (signalNotFull) {
+        signalNotFull();
+      }
+    }
+  }
+
+  /*
+   * Returns a Spliterator over a copy of the elements in the queue, taken while holding both
+   * locks, so it is not affected by later changes to the queue.
+   */
+  public Spliterator<T> spliterator() {
+    fullyLock();
+    try {
+      Object[] objects = new Object[count.get()];
+      int i = 0;
+      for (SNode<T> n = head.getNext(); n != null; n = n.getNext()) {
+        objects[i++] = n.getObject();
+      }
+      return Spliterators.spliterator(objects, Spliterator.ORDERED | Spliterator.NONNULL);
+    } finally {
+      fullyUnlock();
+    }
+  }
+
+  /*
+   * Link a node to the tail of the queue. Must hold the put lock.
+   */
+  private void enqueue(DNode<T> node) {
+    node.setPrev(last);
+    last.setNext(node);
+    last = node;
+  }
+
+  /*
+   * Unlink the first element of the queue, its node becomes the new dummy node. Must hold the
+   * take lock and the queue must not be empty.
+   */
+  private T dequeue() {
+    DNode<T> h = head;
+    DNode<T> first = (DNode<T>) h.getNext();
+    // Link the old dummy to itself so that it does not keep the rest of the queue reachable.
+    h.setNext(h);
+    head = first;
+    first.setPrev(null);
+    T object = first.getObject();
+    first.setData(null);
+    return object;
+  }
+
+  /*
+   * Unlink the last element of the queue. Must hold both locks and the queue must not be
+   * empty.
+   */
+  private T dequeueLast() {
+    DNode<T> node = last;
+    DNode<T> pred = node.getPrev();
+    pred.setNext(null);
+    last = pred;
+    node.setPrev(null);
+    T object = node.getObject();
+    node.setData(null);
+    return object;
+  }
+
+  /*
+   * Wake a consumer waiting for an element. Called by producers after releasing the put lock.
+   */
+  private void signalNotEmpty() {
+    takeLock.lock();
+    try {
+      notEmpty.signal();
+    } finally {
+      takeLock.unlock();
+    }
+  }
+
+  /*
+   * Wake a producer waiting for space. Called by consumers after releasing the take lock.
+   */
+  private void signalNotFull() {
+    putLock.lock();
+    try {
+      notFull.signal();
+    } finally {
+      putLock.unlock();
+    }
+  }
+
+  /*
+   * Acquire both locks, always in the same order (take lock first) to avoid deadlock.
+   */
+  private void fullyLock() {
+    takeLock.lock();
+    putLock.lock();
+  }
+
+  private void fullyUnlock() {
+    putLock.unlock();
+    takeLock.unlock();
+  }
+}
@@ -0,0 +1,424 @@
+package com.cqueltech.linkedlist;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * A custom linked list class. This class denotes a singly linked list that can be shared between
+ * any number of producer and consumer threads without external synchronisation. It is a
+ * Michael-Scott queue: nodes are appended at the tail and removed at the head using
+ * compare-and-set on the nodes' 'next' references, so add(), poll(), peek() and isEmpty() are
+ * lock-free. Uses the SNode class to generate elements for the list.
+ *
+ * The list always contains a dummy node at its head. The first element is stored in the node
+ * following the dummy, and when that element is polled its node becomes the new dummy. The tail
+ * reference is allowed to lag one node behind the real last node, any thread that notices this
+ * helps to move it along before continuing.
+ *
+ * Operations that traverse the list (indexOf(), contains(), peekTail()) are weakly consistent.
+ * They never fail because of concurrent changes but may or may not reflect elements added or
+ * removed while they run. Positional insertion is not supported.
+ *
+ * The bulk methods add or remove a whole chain of elements with a single compare-and-set, so
+ * a batch of n elements costs one synchronisation point rather than n. The elements of a batch
+ * are added, or removed, together and in order, without elements of other threads between them.
+ *
+ * Class variables: head - Stores the dummy node preceding the first element in the list.
+ *                  tail - Stores the last node, or a node close to the end, of the list.
+ *                  listSize - Striped counter holding the current size of the list.
+ *
+ * Public methods:
+ *    add(Object object) : Add an element to the end of the list.
+ *    poll() : Retrieves and removes the head (first element) of this list.
+ *    addAll(Object[] objects) : Add each of the objects to the end of the list.
+ *    addAll(Iterable objects) : Add each of the objects to the end of the list.
+ *    drainTo(Collection c, int max) : Remove up to max elements from the head of the list and
+ *                 add them to the collection.
+ *    pollBatch(int n) : Remove up to n elements from the head of the list, returned as a list.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public class ConcurrentSLinkedList<T> implements ILinkedList<T> {
+
+  private static final VarHandle HEAD;
+  private static final VarHandle TAIL;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      HEAD = lookup.findVarHandle(ConcurrentSLinkedList.class, "head", SNode.class);
+      TAIL = lookup.findVarHandle(ConcurrentSLinkedList.class, "tail", SNode.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private volatile SNode<T> head;
+  private volatile SNode<T> tail;
+  // A striped counter is used so that producers and consumers do not all contend on a
+  // single size field.
+  private final LongAdder listSize;
+
+  public ConcurrentSLinkedList() {
+    SNode<T> dummy = new SNode<>(null);
+    this.head = dummy;
+    this.tail = dummy;
+    this.listSize = new LongAdder();
+  }
+
+  /*
+   * Returns the node holding the first element in the list, or null if the list is empty.
+   */
+  public SNode<T> getHead() {
+    return head.getNextAcquire();
+  }
+
+  /*
+   * Returns the node holding the last element in the list, or null if the list is empty.
+   */
+  public SNode<T> getTail() {
+    SNode<T> t = tail;
+    for (SNode<T> n = t.getNextAcquire(); n != null; n = t.getNextAcquire()) {
+      // A node linked to itself has been polled, carry on from the current head.
+      t = n == t ? head : n;
+    }
+    return t == head ? null : t;
+  }
+
+  /*
+   * Returns the current size of the list. The value is exact when no other thread is modifying
+   * the list, otherwise it is an estimate.
+   */
+  public int getSize() {
+    long size = listSize.sum();
+    return size < 0 ? 0 : (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element to the end of the list.
+   *
+   * @param object : Parameter of type 'object' which will be stored in the new node
+   * instance.
+   *
+   */
+  public void add(T object) {
+    SNode<T> newNode = new SNode<>(object);
+    for (;;) {
+      SNode<T> t = tail;
+      SNode<T> next = t.getNextAcquire();
+      if (t != tail) {
+        // Tail moved while we were reading it, start again.
+        continue;
+      }
+      if (next == null) {
+        // The node we read really is the last node, try to link the new node after it.
+        if (t.casNext(null, newNode)) {
+          // Swing the tail to the new node. If this fails another thread has already
+          // helped to move it along.
+          TAIL.compareAndSet(this, t, newNode);
+          listSize.increment();
+          return;
+        }
+      } else {
+        // Tail is lagging behind, help move it along and try again.
+        TAIL.compareAndSet(this, t, next);
+      }
+    }
+  }
+
+  /*
+   * Add each of the objects to the end of the list, in order. The new nodes are chained
+   * together first and then linked to the list with a single compare-and-set.
+   *
+   * @param   objects : objects to be stored in the new nodes.
+   */
+  public void addAll(T[] objects) {
+    if (objects.length == 0) {
+      return;
+    }
+    SNode<T> first = new SNode<>(objects[0]);
+    SNode<T> last = first;
+    for (int i = 1; i < objects.length; i++) {
+      SNode<T> node = new SNode<>(objects[i]);
+      last.setNext(node);
+      last = node;
+    }
+    linkLast(first, last, objects.length);
+  }
+
+  /*
+   * Add each of the objects to the end of the list, in the order returned by the Iterable.
+   * The new nodes are chained together first and then linked to the list with a single
+   * compare-and-set.
+   *
+   * @param   objects : objects to be stored in the new nodes.
+   */
+  public void addAll(Iterable<? extends T> objects) {
+    SNode<T> first = null;
+    SNode<T> last = null;
+    int n = 0;
+    for (T object : objects) {
+      SNode<T> node = new SNode<>(object);
+      if (last == null) {
+        first = node;
+      } else {
+        last.setNext(node);
+      }
+      last = node;
+      n++;
+    }
+    if (n > 0) {
+      linkLast(first, last, n);
+    }
+  }
+
+  /*
+   * Link a chain of nodes, not yet visible to other threads, to the end of the list. The
+   * compare-and-set that links the first node publishes the whole chain.
+   */
+  private void linkLast(SNode<T> first, SNode<T> last, int n) {
+    for (;;) {
+      SNode<T> t = tail;
+      SNode<T> next = t.getNextAcquire();
+      if (t != tail) {
+        // Tail moved while we were reading it, start again.
+        continue;
+      }
+      if (next == null) {
+        // The node we read really is the last node, try to link the chain after it.
+        if (t.casNext(null, first)) {
+          TAIL.compareAndSet(this, t, last);
+          listSize.add(n);
+          return;
+        }
+      } else {
+        // Tail is lagging behind, help move it along and try again.
+        TAIL.compareAndSet(this, t, next);
+      }
+    }
+  }
+
+  /*
+   * @Overloaded method
+   * Positional insertion cannot be made lock-free, elements can only be added to the end
+   * of the list.
+   */
+  public void add(T object, int idx) {
+    throw new UnsupportedOperationException("Positional insertion is not supported by "
+        + "ConcurrentSLinkedList");
+  }
+
+  /*
+   * Retrieves and removes the head (first element) of this list. Returns null if list
+   * is empty
+   */
+  public T poll() {
+    for (;;) {
+      SNode<T> h = head;
+      SNode<T> t = tail;
+      SNode<T> first = h.getNextAcquire();
+      if (h != head) {
+        // Head moved while we were reading it, start again.
+        continue;
+      }
+      if (h == t) {
+        if (first == null) {
+          return null;
+        }
+        // Tail is lagging behind the element we are about to remove, help move it along.
+        TAIL.compareAndSet(this, t, first);
+      } else {
+        T object = first.getObjectAcquire();
+        if (HEAD.compareAndSet(this, h, first)) {
+          // The first node becomes the new dummy. Clear its object so the list holds no
+          // reference to it, and link the old dummy to itself so that it does not keep the
+          // rest of the list reachable.
+          first.setDataRelease(null);
+          h.setNextRelease(h);
+          listSize.decrement();
+          return object;
+        }
+      }
+    }
+  }
+
+  /*
+   * @Overloaded method
+   * Remove every element from the head of the list and add them, in order, to the collection.
+   * Returns the number of elements moved.
+   *
+   * @param   c : collection the elements are added to.
+   */
+  public int drainTo(Collection<? super T> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  /*
+   * @Overloaded method
+   * Remove up to the specified number of elements from the head of the list and add them, in
+   * order, to the collection. The elements are removed with a single compare-and-set of the
+   * head. Returns the number of elements moved.
+   *
+   * @param   c : collection the elements are added to.
+   * @param   maxElements : maximum number of elements to move.
+   */
+  @SuppressWarnings("unchecked")
+  public int drainTo(Collection<? super T> c, int maxElements) {
+    if (c == null) {
+      throw new NullPointerException();
+    }
+    Object[] objects = pollObjects(maxElements);
+    for (Object object : objects) {
+      c.add((T) object);
+    }
+    return objects.length;
+  }
+
+  /*
+   * Remove up to the specified number of elements from the head of the list, with a single
+   * compare-and-set of the head, and return them in a new SLinkedList.
+   *
+   * @param   n : maximum number of elements to remove.
+   */
+  @SuppressWarnings("unchecked")
+  public SLinkedList<T> pollBatch(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("Batch size must not be negative: " + n);
+    }
+    SLinkedList<T> list = new SLinkedList<>();
+    list.addAll((T[]) pollObjects(n));
+    return list;
+  }
+
+  /*
+   * Remove up to the specified number of elements from the head of the list and return them
+   * in an array. The node holding the last of them becomes the new dummy node.
+   */
+  private Object[] pollObjects(int max) {
+    for (;;) {
+      SNode<T> h = head;
+      SNode<T> t = tail;
+      // Walk forward from the dummy to the last node to be removed, noting whether the tail
+      // would be left behind the new head.
+      SNode<T> last = h;
+      int n = 0;
+      boolean passedTail = false;
+      while (n < max) {
+        SNode<T> next = last.getNextAcquire();
+        if (next == null || next == last) {
+          break;
+        }
+        passedTail |= last == t;
+        last = next;
+        n++;
+      }
+      if (h != head) {
+        // Head moved while we were walking, start again.
+        continue;
+      }
+      if (n == 0) {
+        return new Object[0];
+      }
+      if (passedTail) {
+        // Tail is lagging behind the elements we are about to remove, help move it along.
+        TAIL.compareAndSet(this, t, last);
+        continue;
+      }
+      if (HEAD.compareAndSet(this, h, last)) {
+        listSize.add(-n);
+        // The removed nodes now belong to this thread alone. Read their objects, then link
+        // each old node to itself and clear the object of the new dummy, as poll() does.
+        Object[] objects = new Object[n];
+        SNode<T> node = h;
+        for (int i = 0; i < n; i++) {
+          SNode<T> next = node.getNext();
+          objects[i] = next.getObjectAcquire();
+          node.setNextRelease(node);
+          node = next;
+        }
+        last.setDataRelease(null);
+        return objects;
+      }
+    }
+  }
+
+  /*
+   * Retrieves, but does not remove, the head (first element) of this list.
+   * Returns null if list is empty
+   */
+  public T peek() {
+    for (;;) {
+      SNode<T> h = head;
+      SNode<T> first = h.getNextAcquire();
+      if (first == null) {
+        return null;
+      }
+      T object = first.getObjectAcquire();
+      if (h == head) {
+        // The first node was still in the list after its object was read.
+        return object;
+      }
+    }
+  }
+
+  /*
+   * Retrieves, but does not remove, the tail (last element) of this list.
+   * Returns null if list is empty
+   */
+  public T peekTail() {
+    SNode<T> t = getTail();
+    return t == null ? null : t.getObjectAcquire();
+  }
+
+  /*
+   * Return boolean, true if list is empty, false if not.
+   */
+  public boolean isEmpty() {
+    return head.getNextAcquire() == null;
+  }
+
+  /*
+   * Return the index of node that contains specified data item. Weakly consistent, the index
+   * is relative to the head of the list at the time the search started.
+   *
+   * @param   object : item that is being searched for.
+   */
+  public int indexOf(T object) {
+    int idx = 0;
+    SNode<T> n = head.getNextAcquire();
+    while (n != null) {
+      T item = n.getObjectAcquire();
+      if (object == null ? item == null : object.equals(item)) {
+        return idx;
+      }
+      SNode<T> next = n.getNextAcquire();
+      if (next == n) {
+        // The node has been polled since we reached it, carry on from the current head.
+        next = head.getNextAcquire();
+      }
+      n = next;
+      idx++;
+    }
+    return -1;
+  }
+
+  /*
+   * Returns a Spliterator over the elements in the list, from head to tail. Weakly consistent,
+   * it may be used while other threads add and poll elements. Elements added after it has
+   * passed the tail of the list are not visited.
+   */
+  public Spliterator<T> spliterator() {
+    return new NodeSpliterator<T>(head.getNextAcquire()) {
+      SNode<T> successor(SNode<T> node) {
+        SNode<T> next = node.getNextAcquire();
+        // A node linked to itself has been polled, carry on from the current head.
+        return next == node ? head.getNextAcquire() : next;
+      }
+    };
+  }
+}
@@ -1,5 +1,13 @@
 package com.cqueltech.linkedlist;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
 /*
  * A custom linked list class. This class denotes a doubly linked list. Uses the Node class
  * to generate elements for the list.
@@ -7,15 +15,79 @@ package com.cqueltech.linkedlist;
  * Class variables: head - Stores the first node in the list.
  *                  tail - Stores the last node in the list.
  *                  listSize - Stores the current size of the list.
+ *                  pool - Stores nodes detached from the list, ready to be reused.
+ *                  poolSize - Stores the current number of nodes in the pool.
+ *                  poolCapacity - Maximum number of nodes kept in the pool.
+ *                  finger - Stores the node most recently reached by index.
+ *                  fingerIdx - Stores the index of the finger node.
+ *                  modCount - Stores the number of structural changes made to the list.
+ *                  snapshot - Stores the version of the elements read by snapshot iterators.
+ *                  snapshotting - Set once a snapshot iterator has been taken, after which the
+ *                                 version is kept up to date.
+ *                  metrics - Receives the latency of each operation, null unless attached.
+ * 
+ * Positional operations (add at an index, remove, get and set) walk to the node at the index
+ * from whichever of the head, the tail or the finger is closest, and then leave the finger on
+ * that node. Processing index i followed by i + 1 or i - 1 therefore takes a single step rather
+ * than a walk from the head.
+ * 
+ * addAll(), spliceAfter(), splitAt() and split() relink whole chains of nodes rather than
+ * copying elements, so they take constant time (splitAt() walks to the index as above). The
+ * list passed to addAll() and spliceAfter() is left empty, its nodes now belong to this list.
+ * 
+ * The bulk methods addAll(Object[]), addAll(Iterable), drainTo() and pollBatch() build or
+ * detach a whole chain of nodes and then update the head or tail of the list once.
+ * 
+ * The node pool is optional, by default it is disabled and every detached node is left for the
+ * garbage collector. When a pool capacity is given, nodes removed by remove(), poll(), pollTail()
+ * and the iterator's remove() are kept (up to the capacity) and reused by later additions, so a
+ * list whose size stays roughly constant adds and polls without allocating.
+ * 
+ * Iterators are fail-fast. Every change to the structure of the list (adding or removing
+ * nodes) is counted, and an iterator that finds the list has been changed other than through
+ * its own methods throws a ConcurrentModificationException rather than carry on with stale
+ * nodes. snapshotIterator() returns a read-only iterator over the elements at the time it was
+ * called, which can be used by another thread while the list continues to be changed. The
+ * first call builds a persistent version of the elements (see SnapshotTree), which every later
+ * change replaces with a new version in O(log n) time, so snapshots are handed out without
+ * copying the list. sort() rebuilds the version in O(n) time, and a removal through unlink()
+ * (as HashedDLinkedList.removeFirstOccurrence() does) first counts back to the node's index.
+ * 
+ * Operations can be instrumented by attaching a ListMetrics with setMetrics(). The list and
+ * its iterators then report the latency of add(), add(Object, int), remove(), get(), set(),
+ * poll(), pollTail(), indexOf() and the iterator's remove(), addBefore() and addAfter(), with
+ * the number of nodes walked over. Without metrics attached each costs one extra null check.
  * 
  * Public methods:
  *    add(Object object) : Add an element to the end of the list.
  *    add(Object object, int index) : Insert element into list at specified index.
  *    remove(int idx) : Remove an element from the list at the specified index.
+ *    get(int idx) : Retrieves the element at the specified index.
+ *    set(int idx, Object object) : Replaces the element at the specified index.
+ *    addAll(DLinkedList list) : Move all the nodes of another list to the end of this list.
+ *    addAll(Object[] objects) : Add each of the objects to the end of the list.
+ *    addAll(Iterable objects) : Add each of the objects to the end of the list.
+ *    drainTo(Collection c, int max) : Remove up to max elements from the head of the list and
+ *                 add them to the collection.
+ *    pollBatch(int n) : Remove up to n elements from the head of the list, returned as a list.
+ *    save(Path path, IElementCodec codec) : Write the elements of the list to a snapshot file.
+ *    load(Path path, IElementCodec codec) : Create a list from a snapshot file.
+ *    spliceAfter(IIterator iterator, DLinkedList list) : Move all the nodes of another list
+ *                 into this list after the iterator's current node.
+ *    splitAt(int idx) : Move the nodes from the specified index onwards to a new list.
+ *    split(IIterator iterator) : Move the nodes from the iterator's next node onwards to a
+ *                 new list.
  *    poll() : Retrieves and removes the head (first element) of this list.
  *    pollTail() : Retrieves and removes the tail (last element) of this list.
  *    iterator() : Return a ListIterator object to alow us to iterate through a list and
  *                 manipulate the nodes it contains.
+ *    snapshotIterator() : Return a read-only iterator over a snapshot of the list.
+ *    sort(Comparator c) : Sort the list by relinking its nodes.
+ *    parallelSort(Comparator c) : Sort the list by relinking its nodes, using several threads.
+ *    filtered(Predicate p) : Return a lazy view of the elements that match the predicate.
+ *    mapped(Function f) : Return a lazy view of the results of applying the function.
+ *    subList(int from, int to) : Return a lazy view of a range of the list.
+ *    setMetrics(ListMetrics metrics) : Attach metrics that record the list's operations.
  *
  * @author  Jonathan Bateman
  * @version 1.0.1
@@ -25,11 +97,41 @@ public class DLinkedList<T> implements ILinkedList<T> {
   private DNode<T> head;
   private DNode<T> tail;
   private int listSize;
+  private final int poolCapacity;
+  private DNode<T> pool;
+  private int poolSize;
+  private DNode<T> finger;
+  private int fingerIdx;
+  private int modCount;
+  private SnapshotTree<T> snapshot;
+  private boolean snapshotting;
+  private ListMetrics metrics;
+  // Number of nodes walked over by the last call to node(), reported to the metrics.
+  private int traversed;
 
   public DLinkedList() {
+    this(0);
+  };
+
+  /*
+   * @param   poolCapacity : maximum number of detached nodes kept for reuse, 0 disables the
+   *                         node pool.
+   */
+  public DLinkedList(int poolCapacity) {
+    if (poolCapacity < 0) {
+      throw new IllegalArgumentException("Pool capacity must not be negative: " + poolCapacity);
+    }
     this.head = null;
     this.tail = null;
     listSize = 0;
+    this.poolCapacity = poolCapacity;
+    this.pool = null;
+    this.poolSize = 0;
+    this.finger = null;
+    this.fingerIdx = 0;
+    this.modCount = 0;
+    this.snapshot = null;
+    this.snapshotting = false;
   };
 
   public DNode<T> getHead() {
@@ -44,6 +146,20 @@ public class DLinkedList<T> implements ILinkedList<T> {
     return listSize;
   }
 
+  public ListMetrics getMetrics() {
+    return metrics;
+  }
+
+  /*
+   * Attach metrics to the list, which then report the latency of each operation and the number
+   * of nodes it walked over. Pass null to detach them.
+   * 
+   * @param   metrics : metrics the list reports to, may be shared with other lists.
+   */
+  public void setMetrics(ListMetrics metrics) {
+    this.metrics = metrics;
+  }
+
   /*
    * @Overloaded method
    * Add an element to the end of the list.
@@ -53,8 +169,10 @@ public class DLinkedList<T> implements ILinkedList<T> {
    * 
    */
   public void add(T object) {
-    // Create a new node and assign the data object passed to it.
-    DNode<T> newNode = new DNode<>(object);
+    ListMetrics m = metrics;
+    long start = m == null ? 0 : System.nanoTime();
+    // Create a new node (or reuse a pooled one) and assign the data object passed to it.
+    DNode<T> newNode = newNode(object);
 
     // Check if any nodes have already been added to the list.
     if (listSize == 0) {
@@ -78,6 +196,14 @@ public class DLinkedList<T> implements ILinkedList<T> {
 
     // Increase the size of the list by 1.
     listSize++;
+    modCount++;
+    if (snapshotting) {
+      snapshot = SnapshotTree.insert(snapshot, listSize - 1, object);
+    }
+    linked(newNode);
+    if (m != null) {
+      m.record(ListMetrics.Operation.ADD, this, start, listSize - 1, 0, listSize);
+    }
   }
 
   /*
@@ -100,30 +226,35 @@ public class DLinkedList<T> implements ILinkedList<T> {
       add(object);
     } else {
       // Adding at the beginning of an initialised list or inserting at specified
-      // position.
-      DNode<T> newNode = new DNode<>(object);
+      // position. Find the node currently at the position, the new node goes before it.
+      ListMetrics m = metrics;
+      long start = m == null ? 0 : System.nanoTime();
+      checkPositionIndexValid(idx);
+      DNode<T> currNode = node(idx);
+      DNode<T> prevNode = currNode.getPrev();
+      DNode<T> newNode = newNode(object);
 
-      if (idx == 0) {
-        newNode.setNext(head);
-        head.setPrev(newNode);
+      if (prevNode == null) {
         head = newNode;
       } else {
-        checkPositionIndexValid(idx);
-        DNode<T> currNode = (DNode<T>) head.getNext();
-        DNode<T> prevNode = head;
-
-        for (int i = 1; i <= idx; i++) {
-          if (i == idx) {
-            prevNode.setNext(newNode);
-            newNode.setNext(currNode);
-            newNode.setPrev(prevNode);
-            currNode.setPrev(newNode);
-          }
-          prevNode = currNode;
-          currNode = (DNode<T>) currNode.getNext();
-        }
+        prevNode.setNext(newNode);
+        newNode.setPrev(prevNode);
       }
+      newNode.setNext(currNode);
+      currNode.setPrev(newNode);
       listSize++;
+      modCount++;
+      if (snapshotting) {
+        snapshot = SnapshotTree.insert(snapshot, idx, object);
+      }
+      linked(newNode);
+
+      // The new node now sits at the index, leave the finger on it.
+      finger = newNode;
+      fingerIdx = idx;
+      if (m != null) {
+        m.record(ListMetrics.Operation.ADD_AT, this, start, idx, traversed, listSize);
+      }
     }
   }
 
@@ -141,40 +272,69 @@ public class DLinkedList<T> implements ILinkedList<T> {
    * 
    */
   public void remove(int idx) {
-    DNode<T> currNode = head;
-    DNode<T> prevNode = null;
+    ListMetrics m = metrics;
+    long start = m == null ? 0 : System.nanoTime();
+    checkNodeIndexValid(idx);
 
+    // Find the node we want to remove, then leave the finger on the node that takes its
+    // place (or the node before it when removing the tail).
+    DNode<T> currNode = node(idx);
+    DNode<T> prevNode = currNode.getPrev();
+    DNode<T> nextNode = (DNode<T>) currNode.getNext();
+    unlink(currNode, idx);
+    if (nextNode != null) {
+      finger = nextNode;
+      fingerIdx = idx;
+    } else if (prevNode != null) {
+      finger = prevNode;
+      fingerIdx = idx - 1;
+    }
+    if (m != null) {
+      m.record(ListMetrics.Operation.REMOVE_AT, this, start, idx, traversed, listSize);
+    }
+  }
+
+  /*
+   * Retrieves, but does not remove, the element at the specified index.
+   *
+   * @param idx : Parameter of type 'int', position of the element to be retrieved.
+   *
+   */
+  public T get(int idx) {
+    ListMetrics m = metrics;
+    long start = m == null ? 0 : System.nanoTime();
     checkNodeIndexValid(idx);
-    for (int i = 0; i <= idx; i++) {
-      if (idx == 0) {
-        // We are trying to remove the head of the list so set the new head of the list
-        // to the current head's 'next' node reference.
-        head = (DNode<T>) currNode.getNext();
-        head.setPrev(null);
-        currNode.setNext(null);
-      } else if (i == idx) {
-        // Reached the node we want to remove. Set the 'next' reference of the previous
-        // node to the 'next' reference of the current node and
-        prevNode.setNext(currNode.getNext());
-
-        if (currNode.getNext() == null) {
-          // The 'next' reference of the current node is null as it is the tail node, set
-          // the previous node to now act as the list's tail node.
-          tail = prevNode;
-        } else {
-          // Set the 'prev' reference of the next node to the reference of the previous
-          // Node.
-          ((DNode<T>) currNode.getNext()).setPrev(prevNode);
-          // Clear the current node's next reference.
-          currNode.setNext(null);
-        }
-        // Clear the current node's prev reference.
-        currNode.setPrev(null);
-        prevNode = currNode;
-        currNode = (DNode<T>) currNode.getNext();
-      }
+    T object = node(idx).getObject();
+    if (m != null) {
+      m.record(ListMetrics.Operation.GET, this, start, idx, traversed, listSize);
     }
-    listSize--;
+    return object;
+  }
+
+  /*
+   * Replaces the element stored at the specified index. Returns the element previously
+   * stored at that position.
+   *
+   * @param idx : Parameter of type 'int', position of the element to be replaced.
+   *
+   * @param object : Parameter of type 'object' to be stored at the specified position.
+   *
+   */
+  public T set(int idx, T object) {
+    ListMetrics m = metrics;
+    long start = m == null ? 0 : System.nanoTime();
+    checkNodeIndexValid(idx);
+    DNode<T> node = node(idx);
+    T oldObject = node.getObject();
+    node.setData(object);
+    if (snapshotting) {
+      snapshot = SnapshotTree.set(snapshot, idx, object);
+    }
+    updated(node, oldObject);
+    if (m != null) {
+      m.record(ListMetrics.Operation.SET, this, start, idx, traversed, listSize);
+    }
+    return oldObject;
   }
 
   /*
@@ -182,13 +342,14 @@ public class DLinkedList<T> implements ILinkedList<T> {
    * is empty
    */
   public T poll() {
+    ListMetrics m = metrics;
+    long start = m == null ? 0 : System.nanoTime();
     T data = head == null ? null : head.getObject();
     if (head != null) {
-      DNode<T> oldHead = head;
-      head = (DNode<T>) head.getNext();
-      head.setPrev(null);
-      oldHead.setNext(null);
-      listSize--;
+      unlink(head, 0);
+    }
+    if (m != null) {
+      m.record(ListMetrics.Operation.POLL, this, start, 0, 0, listSize);
     }
     return data;
   }
@@ -198,17 +359,648 @@ public class DLinkedList<T> implements ILinkedList<T> {
    * null if list is empty.
    */
   public T pollTail() {
+    ListMetrics m = metrics;
+    long start = m == null ? 0 : System.nanoTime();
     T data = tail == null ? null : tail.getObject();
     if (tail != null) {
-      DNode<T> oldTail = tail;
-      tail = tail.getPrev();
-      tail.setNext(null);
-      oldTail.setPrev(null);
-      listSize--;
+      unlink(tail, listSize - 1);
+    }
+    if (m != null) {
+      m.record(ListMetrics.Operation.POLL_TAIL, this, start, listSize, 0, listSize);
     }
     return data;
   }
 
+  /*
+   * Return the index of node that contains specified data item, walking from the head of the
+   * list.
+   * 
+   * @param   object : item that is being searched for.
+   */
+  public int indexOf(T object) {
+    ListMetrics m = metrics;
+    long start = m == null ? 0 : System.nanoTime();
+    int idx = ILinkedList.super.indexOf(object);
+    if (m != null) {
+      m.record(ListMetrics.Operation.INDEX_OF, this, start, idx, idx < 0 ? listSize : idx + 1,
+          listSize);
+    }
+    return idx;
+  }
+
+  /*
+   * Move all the nodes of another list to the end of this list. The nodes are relinked rather
+   * than copied and the other list is left empty.
+   * 
+   * @param   list : list whose nodes are to be moved to this list.
+   */
+  public void addAll(DLinkedList<T> list) {
+    splice(tail, listSize, list);
+  }
+
+  /*
+   * Add each of the objects to the end of the list, in order. The new nodes are chained
+   * together first and then linked to the tail of the list in a single step.
+   * 
+   * @param   objects : objects to be stored in the new nodes.
+   */
+  public void addAll(T[] objects) {
+    if (objects.length == 0) {
+      return;
+    }
+    DNode<T> first = newNode(objects[0]);
+    DNode<T> last = first;
+    for (int i = 1; i < objects.length; i++) {
+      DNode<T> node = newNode(objects[i]);
+      node.setPrev(last);
+      last.setNext(node);
+      last = node;
+    }
+    link(tail, listSize, first, last, objects.length);
+  }
+
+  /*
+   * Add each of the objects to the end of the list, in the order returned by the Iterable.
+   * The new nodes are chained together first and then linked to the tail of the list in a
+   * single step.
+   * 
+   * @param   objects : objects to be stored in the new nodes.
+   */
+  public void addAll(Iterable<? extends T> objects) {
+    DNode<T> first = null;
+    DNode<T> last = null;
+    int n = 0;
+    for (T object : objects) {
+      DNode<T> node = newNode(object);
+      if (last == null) {
+        first = node;
+      } else {
+        node.setPrev(last);
+        last.setNext(node);
+      }
+      last = node;
+      n++;
+    }
+    if (n > 0) {
+      link(tail, listSize, first, last, n);
+    }
+  }
+
+  /*
+   * Move all the nodes of another list into this list, placed after the iterator's current
+   * node. The nodes are relinked rather than copied and the other list is left empty. As for
+   * IIterator.addAfter() the moved nodes are not visited when iterating forwards.
+   * Iterator.next() must be called in the current iteration prior to calling spliceAfter().
+   * 
+   * @param   iterator : iterator over this list, positioned on the node to splice after.
+   * @param   list : list whose nodes are to be moved to this list.
+   */
+  public void spliceAfter(IIterator<T> iterator, DLinkedList<T> list) {
+    ListIterator it = owned(iterator);
+    if (it.curr == null) {
+      throw new IllegalStateException("Iterator has no current node");
+    }
+    it.checkForComodification();
+    int n = list.listSize;
+    splice(it.curr, it.currIdx + 1, list);
+    it.nextIdx += n;
+    it.expectedModCount = modCount;
+  }
+
+  /*
+   * Split the list in two. The nodes from the specified index to the end of the list are moved,
+   * without copying, to a new list which is returned. This list keeps the nodes before the
+   * index.
+   * 
+   * @param   idx : index of the first node to be moved to the new list.
+   */
+  public DLinkedList<T> splitAt(int idx) {
+    checkPositionIndexValid(idx);
+    return idx == listSize ? createList() : cut(node(idx), idx);
+  }
+
+  /*
+   * Split the list in two at the position of the iterator. The iterator's next node and the
+   * nodes following it are moved, without copying, to a new list which is returned. Afterwards
+   * the iterator has no next node.
+   * 
+   * @param   iterator : iterator over this list, positioned where the list is to be split.
+   */
+  public DLinkedList<T> split(IIterator<T> iterator) {
+    ListIterator it = owned(iterator);
+    it.checkForComodification();
+    DLinkedList<T> list = it.next == null ? createList() : cut(it.next, it.nextIdx);
+    it.next = null;
+    it.nextIdx = listSize;
+    it.expectedModCount = modCount;
+    return list;
+  }
+
+  /*
+   * @Overloaded method
+   * Remove every element from the head of the list and add them, in order, to the collection.
+   * Returns the number of elements moved.
+   * 
+   * @param   c : collection the elements are added to.
+   */
+  public int drainTo(Collection<? super T> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  /*
+   * @Overloaded method
+   * Remove up to the specified number of elements from the head of the list and add them, in
+   * order, to the collection. The drained nodes are detached from the list with a single
+   * update of the head. Returns the number of elements moved.
+   * 
+   * @param   c : collection the elements are added to.
+   * @param   maxElements : maximum number of elements to move.
+   */
+  public int drainTo(Collection<? super T> c, int maxElements) {
+    if (c == null) {
+      throw new NullPointerException();
+    }
+    int n = 0;
+    DNode<T> node = head;
+    try {
+      while (node != null && n < maxElements) {
+        c.add(node.getObject());
+        node = (DNode<T>) node.getNext();
+        n++;
+      }
+    } finally {
+      // Detach the nodes whose elements were added, even if the collection threw.
+      if (n > 0) {
+        DNode<T> first = head;
+        DNode<T> last = node == null ? tail : node.getPrev();
+        unlinkPrefix(node, n);
+        unlinkedAll(first, last);
+        for (DNode<T> p = first; p != node; ) {
+          DNode<T> next = (DNode<T>) p.getNext();
+          recycle(p);
+          p = next;
+        }
+      }
+    }
+    return n;
+  }
+
+  /*
+   * Remove up to the specified number of elements from the head of the list. The nodes are
+   * detached with a single update of the head and returned, without copying, as a new list.
+   * 
+   * @param   n : maximum number of elements to remove.
+   */
+  public DLinkedList<T> pollBatch(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("Batch size must not be negative: " + n);
+    }
+    DLinkedList<T> list = createList();
+    if (n == 0 || listSize == 0) {
+      return list;
+    }
+    if (n > listSize) {
+      n = listSize;
+    }
+    DNode<T> first = head;
+    DNode<T> last = n == listSize ? tail : node(n - 1);
+    unlinkPrefix((DNode<T>) last.getNext(), n);
+    last.setNext(null);
+    unlinkedAll(first, last);
+
+    list.head = first;
+    list.tail = last;
+    list.listSize = n;
+    list.linkedAll(first, last);
+    return list;
+  }
+
+  /*
+   * Write the elements of the list, from head to tail, to a snapshot file which load() can
+   * read back. Any existing file is replaced. The elements are encoded in large blocks and
+   * written sequentially through a FileChannel, see ListSnapshot for the file format.
+   * 
+   * @param   path : file the snapshot is written to.
+   * @param   codec : converts each element to a fixed number of bytes.
+   */
+  public void save(Path path, IElementCodec<T> codec) throws IOException {
+    ListSnapshot.write(this, path, codec);
+  }
+
+  /*
+   * Create a list holding the elements of a snapshot file written by save(). The file is
+   * mapped into memory and the chain of nodes is built in a single pass over it, as for
+   * addAll(Iterable), without a read call per element.
+   * 
+   * @param   path : file the snapshot is read from.
+   * @param   codec : converts the bytes of each element back to an object, must have the same
+   *                  width as the codec the snapshot was saved with.
+   */
+  public static <T> DLinkedList<T> load(Path path, IElementCodec<T> codec) throws IOException {
+    DLinkedList<T> list = new DLinkedList<>();
+    list.addAll(ListSnapshot.read(path, codec));
+    return list;
+  }
+
+  /*
+   * Unlink the first n nodes of the list, making the specified node (the node following them)
+   * the new head.
+   */
+  private void unlinkPrefix(DNode<T> newHead, int n) {
+    head = newHead;
+    if (newHead == null) {
+      tail = null;
+    } else {
+      newHead.setPrev(null);
+    }
+    listSize -= n;
+    modCount++;
+    if (snapshotting) {
+      snapshot = SnapshotTree.drop(snapshot, n);
+    }
+    if (finger != null) {
+      fingerIdx -= n;
+      if (fingerIdx < 0) {
+        finger = null;
+      }
+    }
+  }
+
+  /*
+   * Move all the nodes of another list into this list after the specified node, or at the head
+   * of this list if the node is null. The other list is left empty.
+   * 
+   * @param   pred : node the nodes are linked after, null to link them at the head.
+   * @param   idx : index the first of the nodes will have.
+   * @param   list : list whose nodes are to be moved to this list.
+   */
+  private void splice(DNode<T> pred, int idx, DLinkedList<T> list) {
+    if (list == this) {
+      throw new IllegalArgumentException("A list cannot be spliced into itself");
+    }
+    if (list.listSize == 0) {
+      return;
+    }
+    DNode<T> first = list.head;
+    DNode<T> last = list.tail;
+    int n = list.listSize;
+    list.head = null;
+    list.tail = null;
+    list.listSize = 0;
+    list.modCount++;
+    list.finger = null;
+    if (list.snapshotting) {
+      list.snapshot = null;
+    }
+    list.unlinkedAll(first, last);
+    link(pred, idx, first, last, n);
+  }
+
+  /*
+   * Link a chain of nodes, from first to last, into the list after the specified node, or at the
+   * head of the list if the node is null. The first node of the chain takes the specified index.
+   */
+  private void link(DNode<T> pred, int idx, DNode<T> first, DNode<T> last, int n) {
+    DNode<T> succ = pred == null ? head : (DNode<T>) pred.getNext();
+    first.setPrev(pred);
+    last.setNext(succ);
+    if (pred == null) {
+      head = first;
+    } else {
+      pred.setNext(first);
+    }
+    if (succ == null) {
+      tail = last;
+    } else {
+      succ.setPrev(last);
+    }
+    listSize += n;
+    modCount++;
+    if (snapshotting) {
+      snapshot = SnapshotTree.insertAll(snapshot, idx, SnapshotTree.of(first, n));
+    }
+    if (succ != null) {
+      // Indexes after the spliced nodes have moved on.
+      finger = null;
+    }
+    linkedAll(first, last);
+  }
+
+  /*
+   * Move the specified node, which is at the specified index, and all the nodes following it
+   * to a new list.
+   */
+  private DLinkedList<T> cut(DNode<T> first, int idx) {
+    DLinkedList<T> list = createList();
+    DNode<T> last = tail;
+    DNode<T> pred = first.getPrev();
+    first.setPrev(null);
+    if (pred == null) {
+      head = null;
+    } else {
+      pred.setNext(null);
+    }
+    tail = pred;
+    list.listSize = listSize - idx;
+    listSize = idx;
+    modCount++;
+    if (snapshotting) {
+      snapshot = SnapshotTree.take(snapshot, idx);
+    }
+    if (finger != null && fingerIdx >= idx) {
+      finger = null;
+    }
+    unlinkedAll(first, last);
+
+    list.head = first;
+    list.tail = last;
+    list.linkedAll(first, last);
+    return list;
+  }
+
+  /*
+   * Replace a node in the list with another node, which takes its place in the chain.
+   */
+  void replace(DNode<T> node, DNode<T> with) {
+    DNode<T> prevNode = node.getPrev();
+    DNode<T> nextNode = (DNode<T>) node.getNext();
+    with.setPrev(prevNode);
+    with.setNext(nextNode);
+    if (prevNode == null) {
+      head = with;
+    } else {
+      prevNode.setNext(with);
+    }
+    if (nextNode == null) {
+      tail = with;
+    } else {
+      nextNode.setPrev(with);
+    }
+    if (finger == node) {
+      finger = with;
+    }
+    node.setPrev(null);
+    node.setNext(null);
+  }
+
+  /*
+   * Return the iterator cast to this list's iterator class. Throws an IllegalArgumentException
+   * if it is not an iterator over this list.
+   */
+  private ListIterator owned(IIterator<T> iterator) {
+    if (!(iterator instanceof DLinkedList.ListIterator)
+        || ((DLinkedList<?>.ListIterator) iterator).list() != this) {
+      throw new IllegalArgumentException("Iterator does not belong to this list");
+    }
+    return (ListIterator) iterator;
+  }
+
+  /*
+   * Return the node at the specified index, walking from whichever of the head, the tail and
+   * the finger is closest, and leave the finger on the node. Index must already have been
+   * validated.
+   */
+  private DNode<T> node(int idx) {
+    DNode<T> n;
+    int i;
+    // Start from the closer end of the list.
+    if (idx < listSize - 1 - idx) {
+      n = head;
+      i = 0;
+    } else {
+      n = tail;
+      i = listSize - 1;
+    }
+    // Start from the finger instead if it is closer still.
+    if (finger != null && Math.abs(idx - fingerIdx) < Math.abs(idx - i)) {
+      n = finger;
+      i = fingerIdx;
+    }
+    traversed = Math.abs(idx - i);
+    while (i < idx) {
+      n = (DNode<T>) n.getNext();
+      i++;
+    }
+    while (i > idx) {
+      n = n.getPrev();
+      i--;
+    }
+    finger = n;
+    fingerIdx = idx;
+    return n;
+  }
+
+  /*
+   * @Overloaded method
+   * Remove the specified node from the list, as unlink(DNode, int). Its index is only needed,
+   * and found by counting back to the head, once snapshot iterators have been taken.
+   * 
+   * @param   node : node in this list to be removed.
+   */
+  void unlink(DNode<T> node) {
+    int idx = -1;
+    if (snapshotting) {
+      for (DNode<T> n = node; n != null; n = n.getPrev()) {
+        idx++;
+      }
+    }
+    unlink(node, idx);
+  }
+
+  /*
+   * @Overloaded method
+   * Remove the specified node from the list. The 'next' reference of the previous node and the
+   * 'prev' reference of the next node are set to point to one another, the head and tail are
+   * moved on if the node was at either end, and the node is then recycled.
+   * 
+   * @param   node : node in this list to be removed.
+   * @param   idx : index of the node.
+   */
+  private void unlink(DNode<T> node, int idx) {
+    DNode<T> prevNode = node.getPrev();
+    DNode<T> nextNode = (DNode<T>) node.getNext();
+
+    if (prevNode == null) {
+      head = nextNode;
+    } else {
+      prevNode.setNext(nextNode);
+    }
+    if (nextNode == null) {
+      tail = prevNode;
+    } else {
+      nextNode.setPrev(prevNode);
+    }
+    if (finger != null) {
+      // Removing the head shifts every index down by one, removing the tail leaves them all in
+      // place. Anywhere else the index of the node is not known, so forget the finger.
+      if (finger == node || (prevNode != null && nextNode != null)) {
+        finger = null;
+      } else if (prevNode == null) {
+        fingerIdx--;
+      }
+    }
+    unlinked(node);
+    recycle(node);
+    listSize--;
+    modCount++;
+    if (snapshotting) {
+      snapshot = SnapshotTree.remove(snapshot, idx);
+    }
+  }
+
+  /*
+   * Return a node holding the specified object, taken from the node pool when it has one
+   * available, otherwise newly created.
+   */
+  private DNode<T> newNode(T object) {
+    DNode<T> node = pool;
+    if (node == null) {
+      return createNode(object);
+    }
+    pool = (DNode<T>) node.getNext();
+    poolSize--;
+    node.setNext(null);
+    node.setData(object);
+    return node;
+  }
+
+  /*
+   * Hooks allowing variants of this list to keep additional structures in step with the
+   * nodes of the list. createNode() is called whenever a new node object is required, linked()
+   * after a node has been added to the list, unlinked() after a node has been removed from the
+   * list (before it is recycled) and updated() after the object stored in a node has been
+   * replaced. linkedAll() and unlinkedAll() are called after a chain of nodes, from first to
+   * last, has been moved into or out of the list. createList() is called for the new list
+   * returned by a split.
+   */
+  DNode<T> createNode(T object) {
+    return new DNode<>(object);
+  }
+
+  void linked(DNode<T> node) {
+  }
+
+  void unlinked(DNode<T> node) {
+  }
+
+  void updated(DNode<T> node, T oldObject) {
+  }
+
+  void linkedAll(DNode<T> first, DNode<T> last) {
+  }
+
+  void unlinkedAll(DNode<T> first, DNode<T> last) {
+  }
+
+  DLinkedList<T> createList() {
+    return new DLinkedList<>();
+  }
+
+  /*
+   * Clear the references held by a node that has been detached from the list and, if the
+   * node pool has room, keep it for reuse.
+   */
+  private void recycle(DNode<T> node) {
+    node.setPrev(null);
+    if (poolSize < poolCapacity) {
+      node.setData(null);
+      node.setNext(pool);
+      pool = node;
+      poolSize++;
+    } else {
+      node.setNext(null);
+    }
+  }
+
+  /*
+   * Sort the list into the order defined by the comparator, or the natural ordering of the
+   * elements if it is null. The existing nodes are relinked by a bottom-up merge sort, which
+   * takes O(n log n) time and constant extra space and is stable, then a single walk restores
+   * the 'prev' references and the tail. No nodes are created or elements copied.
+   * 
+   * If the comparator throws an exception the list keeps all of its elements, in an
+   * unspecified order, and the exception is rethrown.
+   * 
+   * @param   comparator : defines the order of the elements, null for natural ordering.
+   */
+  public void sort(Comparator<? super T> comparator) {
+    sort(comparator, false);
+  }
+
+  /*
+   * Sort the list in the same way as sort(), but split the chain of nodes into runs which are
+   * sorted concurrently by fork/join tasks of the common pool and then merged by relinking.
+   * Lists too short to benefit are sorted on the calling thread.
+   * 
+   * @param   comparator : defines the order of the elements, null for natural ordering.
+   */
+  public void parallelSort(Comparator<? super T> comparator) {
+    sort(comparator, true);
+  }
+
+  private void sort(Comparator<? super T> comparator, boolean parallel) {
+    if (listSize < 2) {
+      return;
+    }
+    NodeSort<T> sorter = new NodeSort<>(comparator);
+    // Variants indexing the nodes by position in the list re-index them once they are sorted.
+    unlinkedAll(head, tail);
+    SNode<T> first = parallel ? sorter.parallelSort(head, listSize) : sorter.sort(head);
+    // The sort only relinks 'next' references, walk the chain to restore the 'prev' references.
+    DNode<T> prevNode = null;
+    for (DNode<T> node = (DNode<T>) first; node != null; node = (DNode<T>) node.getNext()) {
+      node.setPrev(prevNode);
+      prevNode = node;
+    }
+    head = (DNode<T>) first;
+    tail = prevNode;
+    linkedAll(head, tail);
+    // Every node may have moved, so the finger's index is no longer known.
+    finger = null;
+    modCount++;
+    if (snapshotting) {
+      snapshot = SnapshotTree.of(head, listSize);
+    }
+    sorter.rethrowFailure();
+  }
+
+  /*
+   * Return a lazy view of the elements that match the predicate. Nothing is evaluated until the
+   * view is iterated, and further filtered(), mapped() and subList() calls on the view are
+   * fused into the same single pass over the nodes. See ListView.
+   * 
+   * @param   predicate : test an element must pass to be included.
+   */
+  public ListView<T> filtered(Predicate<? super T> predicate) {
+    return ListView.of(head, listSize).filtered(predicate);
+  }
+
+  /*
+   * Return a lazy view of the results of applying the function to each element. Nothing is
+   * evaluated until the view is iterated. See ListView.
+   * 
+   * @param   mapper : function applied to each element.
+   */
+  public <R> ListView<R> mapped(Function<? super T, ? extends R> mapper) {
+    return ListView.of(head, listSize).mapped(mapper);
+  }
+
+  /*
+   * Return a lazy view of the elements from index 'from' (inclusive) to 'to' (exclusive). The
+   * view is anchored on the list's own nodes, walking to the node at 'from' in the same
+   * way as get(). No elements are copied.
+   * 
+   * @param   from : index of the first element of the view.
+   * @param   to : index after the last element of the view.
+   */
+  public ListView<T> subList(int from, int to) {
+    if (from < 0 || from > to || to > listSize) {
+      throw new IndexOutOfBoundsException("fromIndex: " + from + ", toIndex: " + to
+          + ". Collection size: " + listSize);
+    }
+    return ListView.of(from == to ? null : node(from), to - from);
+  }
+
   /*
    * Returns an object of interface Iterator, used to iterate through
    * a singly linked list
@@ -217,6 +1009,21 @@ public class DLinkedList<T> implements ILinkedList<T> {
     return new ListIterator(direction);
   }
 
+  /*
+   * Returns a read-only iterator over the elements in the list at the time of the call. Later
+   * changes to the list are not seen by the iterator, and it never throws a
+   * ConcurrentModificationException, so it may be handed to another thread while this list
+   * continues to be changed. The first call builds the persistent version of the elements,
+   * later calls hand out the current version without copying anything.
+   */
+  public ICursor<T> snapshotIterator(IIterator.IteratorDirection direction) {
+    if (!snapshotting) {
+      snapshot = SnapshotTree.of(head, listSize);
+      snapshotting = true;
+    }
+    return new SnapshotIterator<>(snapshot, direction);
+  }
+
   /*
    * Iterator class to allow list to be travesersed unidirectionally.
    * 
@@ -244,25 +1051,63 @@ public class DLinkedList<T> implements ILinkedList<T> {
    *                 iteration. Iterator.next() must be called in the current iteration
    *                 prior to calling addAfter().
    * 
-   *    Note: Only one instance of remove(), addBefore() or addAfter() should be invoked
-   *          per iteration.
+   *    Note: remove(), addBefore() and addAfter() throw an IllegalStateException when there
+   *          is no current node. Every method throws a ConcurrentModificationException if the
+   *          list has been structurally changed other than through this iterator.
    */
   private class ListIterator implements IIterator<T> {
 
     private DNode<T> prev;
     private DNode<T> curr;
     private DNode<T> next;
+    private int prevIdx;
+    private int currIdx;
+    private int nextIdx;
+    private int expectedModCount;
 
     private ListIterator(IteratorDirection direction) {
 
       if (direction == IteratorDirection.FORWARD) {
         this.prev = null;
         this.next = head;
+        this.prevIdx = -1;
+        this.nextIdx = 0;
       } else {
         this.prev = tail;
         this.next = null;
+        this.prevIdx = listSize - 1;
+        this.nextIdx = listSize;
       }
       this.curr = null;
+      this.currIdx = -1;
+      this.expectedModCount = modCount;
+    }
+
+    /*
+     * Return the list this iterator belongs to.
+     */
+    private DLinkedList<T> list() {
+      return DLinkedList.this;
+    }
+
+    /*
+     * Throw a ConcurrentModificationException if the list has been structurally changed other
+     * than through this iterator since it was created.
+     */
+    private void checkForComodification() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    /*
+     * Throw an IllegalStateException if there is no current node, because neither next() nor
+     * prev() has been called or the current node has been removed.
+     */
+    private void checkCurrent() {
+      if (curr == null) {
+        throw new IllegalStateException("Iterator has no current node");
+      }
     }
 
     public DNode<T> getPrev() {
@@ -289,6 +1134,20 @@ public class DLinkedList<T> implements ILinkedList<T> {
       next = (DNode<T>) node;
     }
 
+    /*
+     * Target the next node in the list. The next node then becomes the current node and is ready
+     * to be processed. The previous node is taken to be the node now linked before the next node,
+     * so any nodes added or spliced after the current node are not visited.
+     */
+    public void next() {
+      checkForComodification();
+      prev = next.getPrev();
+      prevIdx = nextIdx - 1;
+      curr = next;
+      next = (DNode<T>) curr.getNext();
+      currIdx = nextIdx++;
+    }
+
     /*
      * Returns true when there is another node before the current node or when no node has yet been
      * processed but there is at least one in the list. Otherwise returns false.
@@ -302,13 +1161,33 @@ public class DLinkedList<T> implements ILinkedList<T> {
      * to be processed.
      */
     public void prev() {
-      if (curr != null) {
-        // If curr node was null from previous iteration then curr was removed so
-        // next node will remain the same in this next iteration i.e. will not change.
-        next = curr;
-      }
+      checkForComodification();
+      // The next node is taken to be the node now linked after the previous node, so any node
+      // added before the current node is not visited. If curr was removed this is unchanged.
+      next = (DNode<T>) prev.getNext();
+      nextIdx = prevIdx + 1;
       curr = prev;
       prev = curr.getPrev();
+      currIdx = prevIdx--;
+    }
+
+    /*
+     * Set the data property of the current node. Checks that the current node has not been removed
+     * prior to setting the data property.
+     * 
+     * @param   data : object to replace the existing object in the current node.
+     */
+    public void set(T data) {
+      checkForComodification();
+      if (curr != null) {
+        // Current node has not been removed so we can set data property.
+        T oldData = curr.getObject();
+        curr.setData(data);
+        if (snapshotting) {
+          snapshot = SnapshotTree.set(snapshot, currIdx, data);
+        }
+        updated(curr, oldData);
+      }
     }
 
     /*
@@ -317,21 +1196,18 @@ public class DLinkedList<T> implements ILinkedList<T> {
      * have their 'next'/'prev' pointer variables set to point to one another.
      */
     public void remove() {
-      if (curr != head) {
-        prev.setNext(next);
-        if (next == null) {
-          tail = prev;
-        } else {
-          next.setPrev(prev);
-        }
-      } else {
-        head = next;
-        next.setPrev(null);
-      }
-      curr.setNext(null);
-      curr.setPrev(null);
+      ListMetrics m = metrics;
+      long start = m == null ? 0 : System.nanoTime();
+      checkForComodification();
+      checkCurrent();
+      unlink(curr, currIdx);
       curr = null;
-      listSize--;
+      nextIdx--;
+      expectedModCount = modCount;
+      if (m != null) {
+        m.record(ListMetrics.Operation.ITERATOR_REMOVE, DLinkedList.this, start, nextIdx, 0,
+            listSize);
+      }
     }
 
     /*
@@ -341,16 +1217,34 @@ public class DLinkedList<T> implements ILinkedList<T> {
      * @param   data : the object to be stored in the new node.
      */
     public void addBefore(T data) {
-      DNode<T> newNode = new DNode<>(data);
-      if (prev == null) {
+      ListMetrics m = metrics;
+      long start = m == null ? 0 : System.nanoTime();
+      checkForComodification();
+      checkCurrent();
+      DNode<T> newNode = newNode(data);
+      DNode<T> prevNode = curr.getPrev();
+      if (prevNode == null) {
         head = newNode;
       } else {
-        prev.setNext(newNode);
-        newNode.setPrev(prev);
+        prevNode.setNext(newNode);
+        newNode.setPrev(prevNode);
       }
       newNode.setNext(curr);
       curr.setPrev(newNode);
       listSize++;
+      nextIdx++;
+      expectedModCount = ++modCount;
+      if (snapshotting) {
+        snapshot = SnapshotTree.insert(snapshot, currIdx, data);
+      }
+      currIdx++;
+      linked(newNode);
+      // The index of the current node is not known, so forget the finger.
+      finger = null;
+      if (m != null) {
+        m.record(ListMetrics.Operation.ITERATOR_ADD, DLinkedList.this, start, nextIdx - 2, 0,
+            listSize);
+      }
     }
 
     /*
@@ -360,14 +1254,33 @@ public class DLinkedList<T> implements ILinkedList<T> {
      * @param   data : the object to be stored in the new node.
      */
     public void addAfter(T data) {
-      DNode<T> newNode = new DNode<>(data);
-      newNode.setNext(curr.getNext());
+      ListMetrics m = metrics;
+      long start = m == null ? 0 : System.nanoTime();
+      checkForComodification();
+      checkCurrent();
+      DNode<T> newNode = newNode(data);
+      DNode<T> nextNode = (DNode<T>) curr.getNext();
+      newNode.setNext(nextNode);
       newNode.setPrev(curr);
-      if (next == null) {
+      if (nextNode == null) {
         tail = newNode;
+      } else {
+        nextNode.setPrev(newNode);
       }
       curr.setNext(newNode);
       listSize++;
+      nextIdx++;
+      expectedModCount = ++modCount;
+      if (snapshotting) {
+        snapshot = SnapshotTree.insert(snapshot, currIdx + 1, data);
+      }
+      linked(newNode);
+      // The index of the current node is not known, so forget the finger.
+      finger = null;
+      if (m != null) {
+        m.record(ListMetrics.Operation.ITERATOR_ADD, DLinkedList.this, start, nextIdx - 1, 0,
+            listSize);
+      }
     }
   }
 }
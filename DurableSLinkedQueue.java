@@ -0,0 +1,620 @@
+package com.cqueltech.linkedlist;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/*
+ * A custom queue class. This class denotes a durable FIFO queue, an SLinkedList held in memory
+ * whose every add() and poll() is first appended to a write-ahead journal on disk. After a
+ * crash the queue is rebuilt by replaying the journal, so no acknowledged work is lost beyond
+ * the last sync.
+ *
+ * The journal is a sequence of segment files of a fixed size, each mapped into memory. A record
+ * is written by copying its bytes into the mapping, which costs no system call. Records are made
+ * durable by group commit: a background thread forces the newly written part of the segment to
+ * disk every sync interval, or sooner once a given number of bytes has been written, so many
+ * operations share each fsync. Only the operations since the last sync can be lost in a crash.
+ * sync() forces the journal immediately. A range is only counted as on disk once force() has
+ * returned for it, so a sync() running while the background thread is forcing part of the
+ * segment forces that part again rather than returning before it is written.
+ *
+ * Each record is a type byte (add or poll), for an add the element converted to bytes by an
+ * IElementCodec, and a CRC32C checksum. A record torn by a crash fails its checksum and ends the
+ * replay. When a segment is full the next one is started. Once the journal written since the
+ * last checkpoint is larger than twice the queue, the queue is compacted: the elements it held
+ * at the start of the new segment are saved to a checkpoint file (in the format of ListSnapshot)
+ * and the segments before it are deleted. Compaction runs on a background thread and does not
+ * touch the queue in memory. It rebuilds the elements from the last checkpoint and the full
+ * segments after it, which are no longer written to, so add() and poll() carry on while it
+ * runs at the cost of a second copy of the elements in memory. Recovery loads the newest
+ * checkpoint and replays the segments that follow it, then takes a new checkpoint. The cost of
+ * compaction is proportional to the journal written, so the disk used stays proportional to
+ * the size of the queue.
+ *
+ *    Note: The queue is thread safe, every operation holds a single lock. Only one queue may
+ *          use a directory at a time. Null elements are not permitted.
+ *
+ * Class variables: directory - Directory holding the journal segments and checkpoints.
+ *                  codec - Converts the elements to and from bytes.
+ *                  list - Stores the elements of the queue in memory.
+ *                  segment - Memory mapping of the segment being written.
+ *                  segmentNumber - Number of the segment being written.
+ *                  offset - Position in the segment at which the next record is written.
+ *                  forcingOffset - Position in the segment up to which records have been
+ *                                  passed to force().
+ *                  forcedOffset - Position in the segment up to which force() has returned,
+ *                                 so records are on disk.
+ *                  checkpointNumber - Number of the first segment after the last checkpoint.
+ *                  compactor - Background thread compacting the journal, null if none has run.
+ *
+ * Public methods:
+ *    add(Object object) : Journal and add an element to the tail of the queue.
+ *    poll() : Journal and remove the element at the head of the queue.
+ *    sync() : Force every journalled operation to disk.
+ *    close() : Sync the journal, stop the background sync thread and wait for any compaction.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public class DurableSLinkedQueue<T> implements IList<T>, AutoCloseable {
+
+  private static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+  private static final long DEFAULT_SYNC_INTERVAL_MILLIS = 10;
+  private static final int DEFAULT_SYNC_BYTES = 1 << 20;
+
+  private static final int SEGMENT_MAGIC = 0x43514A4C; // "CQJL"
+  private static final int SEGMENT_HEADER_BYTES = 8;
+  private static final byte ADD = 1;
+  private static final byte POLL = 2;
+  private static final int CRC_BYTES = 4;
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final String CHECKPOINT_PREFIX = "checkpoint-";
+  private static final String CHECKPOINT_SUFFIX = ".snap";
+
+  private final Path directory;
+  private final IElementCodec<T> codec;
+  private final int width;
+  private final int segmentBytes;
+  private final int syncBytes;
+  private final long syncIntervalNanos;
+
+  private final SLinkedList<T> list;
+  private final ReentrantLock lock;
+  private final CRC32C crc;
+  private final Thread flusher;
+
+  private MappedByteBuffer segment;
+  private long segmentNumber;
+  private int offset;
+  private int forcingOffset;
+  private int forcedOffset;
+  private long checkpointNumber;
+  private Thread compactor;
+  private volatile boolean closed;
+  private volatile Throwable syncFailure;
+  private volatile Throwable compactionFailure;
+
+  /*
+   * @param   directory : directory holding the journal, created if it does not exist.
+   * @param   codec : converts the elements to and from bytes.
+   */
+  public DurableSLinkedQueue(Path directory, IElementCodec<T> codec) throws IOException {
+    this(directory, codec, DEFAULT_SEGMENT_BYTES, DEFAULT_SYNC_INTERVAL_MILLIS,
+        DEFAULT_SYNC_BYTES);
+  }
+
+  /*
+   * @param   directory : directory holding the journal, created if it does not exist.
+   * @param   codec : converts the elements to and from bytes.
+   * @param   segmentBytes : size of each journal segment file.
+   * @param   syncIntervalMillis : longest time between a record being written and forced to
+   *                             disk.
+   * @param   syncBytes : number of bytes written after which the journal is forced to disk
+   *                      without waiting for the interval.
+   */
+  public DurableSLinkedQueue(Path directory, IElementCodec<T> codec, int segmentBytes,
+      long syncIntervalMillis, int syncBytes) throws IOException {
+    if (directory == null || codec == null) {
+      throw new NullPointerException();
+    }
+    this.directory = directory;
+    this.codec = codec;
+    this.width = codec.width();
+    if (segmentBytes < SEGMENT_HEADER_BYTES + 1 + width + CRC_BYTES) {
+      throw new IllegalArgumentException("Segment size too small: " + segmentBytes);
+    }
+    if (syncIntervalMillis <= 0 || syncBytes <= 0) {
+      throw new IllegalArgumentException("Sync interval and sync bytes must be greater than 0");
+    }
+    this.segmentBytes = segmentBytes;
+    this.syncBytes = syncBytes;
+    this.syncIntervalNanos = syncIntervalMillis * 1_000_000L;
+    this.list = new SLinkedList<>();
+    this.lock = new ReentrantLock();
+    this.crc = new CRC32C();
+
+    Files.createDirectories(directory);
+    recover();
+
+    this.flusher = new Thread(this::runFlusher, "DurableSLinkedQueue-sync");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+  }
+
+  public int getSize() {
+    lock.lock();
+    try {
+      return list.getSize();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /*
+   * @Overloaded method
+   * Append an add record to the journal, then add the element to the tail of the queue.
+   *
+   * @param object : Parameter of type 'object' to be added to the queue.
+   *
+   */
+  public void add(T object) {
+    if (object == null) {
+      throw new NullPointerException();
+    }
+    lock.lock();
+    try {
+      checkOpen();
+      append(ADD, object);
+      list.add(object);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /*
+   * @Overloaded method
+   * Positional insertion is not supported, elements can only be added to the tail.
+   */
+  public void add(T object, int idx) {
+    throw new UnsupportedOperationException("Positional insertion is not supported by "
+        + "DurableSLinkedQueue");
+  }
+
+  /*
+   * Append a poll record to the journal, then retrieve and remove the head (first element) of
+   * the queue. Returns null, and journals nothing, if the queue is empty.
+   */
+  public T poll() {
+    lock.lock();
+    try {
+      checkOpen();
+      if (list.isEmpty()) {
+        return null;
+      }
+      append(POLL, null);
+      return list.poll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /*
+   * Retrieves, but does not remove, the head (first element) of the queue. Returns null if
+   * the queue is empty.
+   */
+  public T peek() {
+    lock.lock();
+    try {
+      return list.peek();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /*
+   * Retrieves, but does not remove, the tail (last element) of the queue. Returns null if the
+   * queue is empty.
+   */
+  public T peekTail() {
+    lock.lock();
+    try {
+      return list.peekTail();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /*
+   * Returns a Spliterator over a copy of the elements in the queue, from head to tail.
+   */
+  public Spliterator<T> spliterator() {
+    Object[] objects;
+    lock.lock();
+    try {
+      objects = new Object[list.getSize()];
+      int i = 0;
+      for (SNode<T> node = list.getHead(); node != null; node = node.getNext()) {
+        objects[i++] = node.getObject();
+      }
+    } finally {
+      lock.unlock();
+    }
+    return Spliterators.spliterator(objects, Spliterator.ORDERED | Spliterator.NONNULL);
+  }
+
+  /*
+   * Force every operation journalled so far to disk, without waiting for the background sync.
+   */
+  public void sync() {
+    lock.lock();
+    try {
+      checkOpen();
+    } finally {
+      lock.unlock();
+    }
+    force();
+  }
+
+  /*
+   * Force the journal to disk, stop the background sync thread and wait for a compaction that
+   * is running to finish. The queue cannot be used once it has been closed.
+   */
+  public void close() {
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      segment.force();
+      forcingOffset = offset;
+      forcedOffset = offset;
+    } finally {
+      lock.unlock();
+    }
+    LockSupport.unpark(flusher);
+    boolean interrupted = false;
+    for (Thread thread : new Thread[] {flusher, compactor}) {
+      while (thread != null && thread.isAlive()) {
+        try {
+          thread.join();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("Queue is closed");
+    }
+    if (syncFailure != null) {
+      throw new IllegalStateException("Journal sync failed", syncFailure);
+    }
+    if (compactionFailure != null) {
+      throw new IllegalStateException("Journal compaction failed", compactionFailure);
+    }
+  }
+
+  /*
+   * Write a record to the end of the journal, starting a new segment if it does not fit in the
+   * current one. Wakes the sync thread once enough bytes are waiting to be forced to disk.
+   */
+  private void append(byte type, T object) {
+    int size = recordSize(type);
+    try {
+      if (offset + size > segment.capacity()) {
+        roll();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    segment.put(offset, type);
+    if (type == ADD) {
+      codec.write(segment, offset + 1, object);
+    }
+    segment.putInt(offset + size - CRC_BYTES, checksum(crc, segment, offset, size - CRC_BYTES));
+    offset += size;
+    if (offset - forcingOffset >= syncBytes) {
+      LockSupport.unpark(flusher);
+    }
+  }
+
+  private int recordSize(byte type) {
+    return type == ADD ? 1 + width + CRC_BYTES : 1 + CRC_BYTES;
+  }
+
+  private static int checksum(CRC32C crc, ByteBuffer buffer, int from, int length) {
+    crc.reset();
+    buffer.limit(from + length).position(from);
+    crc.update(buffer);
+    buffer.clear();
+    return (int) crc.getValue();
+  }
+
+  /*
+   * Force the full segment to disk and start the next one. Starts compacting the journal in the
+   * background when more has been written since the last checkpoint than twice the size of the
+   * queue, unless a compaction is still running.
+   */
+  private void roll() throws IOException {
+    segment.force();
+    openSegment(segmentNumber + 1);
+    long journalBytes = (segmentNumber - checkpointNumber) * (long) segmentBytes;
+    if (journalBytes >= 2L * list.getSize() * width
+        && (compactor == null || !compactor.isAlive())) {
+      long from = checkpointNumber;
+      long to = segmentNumber;
+      compactor = new Thread(() -> compact(from, to), "DurableSLinkedQueue-compact");
+      compactor.setDaemon(true);
+      compactor.start();
+    }
+  }
+
+  /*
+   * Create, map and start writing the segment with the specified number.
+   */
+  private void openSegment(long number) throws IOException {
+    try (FileChannel channel = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+    segment.putInt(0, SEGMENT_MAGIC);
+    segment.putInt(4, width);
+    segmentNumber = number;
+    offset = SEGMENT_HEADER_BYTES;
+    forcingOffset = 0;
+    forcedOffset = 0;
+  }
+
+  /*
+   * Save the elements of the queue as the checkpoint preceding the specified segment, then
+   * delete the segments and checkpoints before it. Must be called before any record is written
+   * to the segment.
+   */
+  private void checkpoint(long number) throws IOException {
+    ListSnapshot.write(list, checkpointPath(number), codec);
+    checkpointNumber = number;
+    deleteBefore(number);
+  }
+
+  /*
+   * Background compaction. Rebuilds the elements of the queue at the start of the segment 'to'
+   * from the checkpoint preceding segment 'from' and the segments in between, saves them as the
+   * checkpoint preceding segment 'to' and deletes the files before it. The segments replayed are
+   * full and already forced to disk, and nothing else reads or writes them, so the lock is only
+   * taken to record the new checkpoint.
+   *
+   * @param   from : number of the segment following the last checkpoint.
+   * @param   to : number of the segment following the new checkpoint.
+   */
+  private void compact(long from, long to) {
+    try {
+      SLinkedList<T> elements = new SLinkedList<>();
+      Path base = checkpointPath(from);
+      if (Files.exists(base)) {
+        elements.addAll(ListSnapshot.read(base, codec));
+      }
+      CRC32C checksum = new CRC32C();
+      for (long n = from; n < to; n++) {
+        replay(elements, checksum, segmentPath(n), false);
+      }
+      ListSnapshot.write(elements, checkpointPath(to), codec);
+      lock.lock();
+      try {
+        checkpointNumber = to;
+      } finally {
+        lock.unlock();
+      }
+      deleteBefore(to);
+    } catch (IOException | RuntimeException e) {
+      compactionFailure = e;
+    }
+  }
+
+  /*
+   * Delete the segments and checkpoints numbered before the specified number.
+   */
+  private void deleteBefore(long number) throws IOException {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        long n = Math.max(fileNumber(file, SEGMENT_PREFIX, SEGMENT_SUFFIX),
+            fileNumber(file, CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX));
+        if (n >= 0 && n < number) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+  }
+
+  /*
+   * Rebuild the queue from the newest checkpoint and the segments following it, then start a
+   * new segment. If any segments were replayed a new checkpoint is taken first, so each crash is
+   * recovered from only once.
+   */
+  private void recover() throws IOException {
+    long checkpoint = -1;
+    long[] segments = new long[0];
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        long n;
+        if (file.getFileName().toString().endsWith(".tmp")) {
+          // Left by a checkpoint that did not complete.
+          Files.deleteIfExists(file);
+        } else if ((n = fileNumber(file, CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX)) >= 0) {
+          checkpoint = Math.max(checkpoint, n);
+        } else if ((n = fileNumber(file, SEGMENT_PREFIX, SEGMENT_SUFFIX)) >= 0) {
+          segments = Arrays.copyOf(segments, segments.length + 1);
+          segments[segments.length - 1] = n;
+        }
+      }
+    }
+    Arrays.sort(segments);
+
+    long next = Math.max(checkpoint, 0);
+    if (checkpoint >= 0) {
+      list.addAll(ListSnapshot.read(checkpointPath(checkpoint), codec));
+    }
+    boolean replayed = false;
+    for (int i = 0; i < segments.length; i++) {
+      if (segments[i] >= next) {
+        replay(list, crc, segmentPath(segments[i]), i == segments.length - 1);
+        replayed = true;
+        next = segments[i] + 1;
+      }
+    }
+    checkpointNumber = Math.max(checkpoint, 0);
+    if (replayed) {
+      // Taken before the new segment is created. A crash in between would otherwise leave a
+      // segment with a torn tail that is no longer the last, and it could not be replayed.
+      checkpoint(next);
+    }
+    openSegment(next);
+  }
+
+  /*
+   * Apply the records of a segment to a list. A record which is incomplete or fails its
+   * checksum ends the journal if it is in the last segment, the tail of a write cut short by a
+   * crash. Elsewhere it means the journal is corrupt.
+   *
+   * @param   elements : list the records are applied to.
+   * @param   crc : checksum used to verify the records.
+   * @param   path : segment file to be replayed.
+   * @param   last : true if this is the last segment of the journal.
+   */
+  private void replay(SLinkedList<T> elements, CRC32C crc, Path path, boolean last)
+      throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.capacity() < SEGMENT_HEADER_BYTES || buffer.getInt(0) != SEGMENT_MAGIC
+        || buffer.getInt(4) != width) {
+      if (last && (buffer.capacity() < SEGMENT_HEADER_BYTES || buffer.getInt(0) == 0)) {
+        // Created but never written before the crash.
+        return;
+      }
+      throw new IOException("Not a journal segment for this codec: " + path);
+    }
+    int pos = SEGMENT_HEADER_BYTES;
+    while (pos < buffer.capacity()) {
+      byte type = buffer.get(pos);
+      if (type == 0) {
+        // Unused remainder of the segment.
+        return;
+      }
+      int size = type == ADD || type == POLL ? recordSize(type) : -1;
+      if (size < 0 || pos + size > buffer.capacity()
+          || buffer.getInt(pos + size - CRC_BYTES)
+              != checksum(crc, buffer, pos, size - CRC_BYTES)) {
+        if (last) {
+          return;
+        }
+        throw new IOException("Corrupt journal record at offset " + pos + ": " + path);
+      }
+      if (type == ADD) {
+        elements.add(codec.read(buffer, pos + 1));
+      } else {
+        elements.poll();
+      }
+      pos += size;
+    }
+  }
+
+  /*
+   * Background sync thread. Every interval, or when woken by append(), forces the records
+   * written since the last sync to disk.
+   */
+  private void runFlusher() {
+    while (!closed) {
+      LockSupport.parkNanos(this, syncIntervalNanos);
+      try {
+        force();
+      } catch (UncheckedIOException e) {
+        syncFailure = e.getCause();
+        return;
+      }
+    }
+  }
+
+  /*
+   * Force the records written to the current segment since the last completed force to disk,
+   * returning once they are written. Earlier segments were forced in full by roll(). The lock is
+   * only held to read and update the positions, so operations carry on while the disk is
+   * written. The forced position only advances once force() has returned, so two overlapping
+   * calls may both force the same range but neither returns before it is on disk.
+   */
+  private void force() {
+    MappedByteBuffer buffer;
+    int from;
+    int to;
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      buffer = segment;
+      from = forcedOffset;
+      to = offset;
+      forcingOffset = to;
+    } finally {
+      lock.unlock();
+    }
+    if (to > from) {
+      buffer.force(from, to - from);
+      lock.lock();
+      try {
+        if (segment == buffer && forcedOffset < to) {
+          forcedOffset = to;
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private Path segmentPath(long number) {
+    return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+  }
+
+  private Path checkpointPath(long number) {
+    return directory.resolve(String.format("%s%020d%s", CHECKPOINT_PREFIX, number,
+        CHECKPOINT_SUFFIX));
+  }
+
+  /*
+   * Return the number in the name of a journal file with the specified prefix and suffix, or
+   * -1 if the name does not match.
+   */
+  private static long fileNumber(Path file, String prefix, String suffix) {
+    String name = file.getFileName().toString();
+    if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,284 @@
+package com.cqueltech.linkedlist;
+
+import java.util.HashMap;
+
+/*
+ * A custom linked list class. This class denotes a doubly linked list that also keeps a hash
+ * index from each element to the node (or nodes) holding it, in the spirit of LinkedHashMap.
+ * The index is kept in step with every change made to the list, through add(), remove(),
+ * poll(), pollTail() and the iterator, so contains() and removeFirstOccurrence() no longer
+ * have to search the list while insertion order is kept as normal.
+ *
+ * Nodes holding equal elements are chained together, in list order, from the index entry for
+ * that element, which is always the first occurrence of the element in the list. The first
+ * node's 'prevEqual' reference points to the last node of its chain, so a node added at the
+ * tail (or head) of the list joins the end (or start) of its chain in constant time, as does a
+ * node removed from anywhere. removeFirstOccurrence() is therefore constant time, and indexOf()
+ * is linear only in the index found, however often the element occurs. A node holding a
+ * duplicate that is inserted into the middle of the list is placed in its chain by walking
+ * outwards from it to the nearest equal element or end of the list. Moving nodes with addAll(),
+ * spliceAfter(), splitAt(), split() and sort() takes time linear in the number of nodes moved,
+ * as each one is re-indexed.
+ *
+ * Class variables: index - Maps each element to the first node in its chain of nodes.
+ *
+ * Public methods:
+ *    contains(Object object) : Returns true if the list contains the object.
+ *    indexOf(Object object) : Return the index of the first element equal to the object.
+ *    removeFirstOccurrence(Object object) : Remove the first element equal to the object.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public class HashedDLinkedList<T> extends DLinkedList<T> {
+
+  /*
+   * Node holding an element of the list, which also references the previous and next nodes
+   * holding an equal element. The first node of a chain references the last as its previous
+   * node, the last node has no next node.
+   */
+  private static final class HNode<T> extends DNode<T> {
+    private HNode<T> prevEqual;
+    private HNode<T> nextEqual;
+
+    private HNode(T object) {
+      super(object);
+    }
+  }
+
+  private final HashMap<T, HNode<T>> index;
+
+  public HashedDLinkedList() {
+    this(0);
+  }
+
+  /*
+   * @param   poolCapacity : maximum number of detached nodes kept for reuse, 0 disables the
+   *                         node pool.
+   */
+  public HashedDLinkedList(int poolCapacity) {
+    super(poolCapacity);
+    this.index = new HashMap<>();
+  }
+
+  /*
+   * Determine if list contains the specified object. Returns true if the object
+   * is present.
+   *
+   * @param   object : item being searched for.
+   */
+  public boolean contains(T object) {
+    return index.containsKey(object);
+  }
+
+  /*
+   * Return the index of node that contains specified data item. Returns -1 straight from the
+   * hash index if the object is not present, otherwise counts back from the first node holding
+   * it to the head of the list.
+   *
+   * @param   object : item that is being searched for.
+   */
+  public int indexOf(T object) {
+    HNode<T> node = index.get(object);
+    if (node == null) {
+      return -1;
+    }
+    int idx = 0;
+    for (DNode<T> n = node.getPrev(); n != null; n = n.getPrev()) {
+      idx++;
+    }
+    return idx;
+  }
+
+  /*
+   * Remove the first element in the list equal to the specified object. Returns true if an
+   * element was removed.
+   *
+   * @param   object : item to be removed.
+   */
+  public boolean removeFirstOccurrence(T object) {
+    HNode<T> node = index.get(object);
+    if (node == null) {
+      return false;
+    }
+    unlink(node);
+    return true;
+  }
+
+  /*
+   * Return true if the node holds an object equal to the specified object.
+   */
+  private boolean holds(DNode<T> node, T object) {
+    T item = node.getObject();
+    return object == null ? item == null : object.equals(item);
+  }
+
+  DNode<T> createNode(T object) {
+    return new HNode<>(object);
+  }
+
+  void linked(DNode<T> node) {
+    index((HNode<T>) node, node.getPrev(), (DNode<T>) node.getNext());
+  }
+
+  void unlinked(DNode<T> node) {
+    deindex((HNode<T>) node, node.getObject());
+  }
+
+  void updated(DNode<T> node, T oldObject) {
+    HNode<T> hNode = (HNode<T>) node;
+    deindex(hNode, oldObject);
+    index(hNode, node.getPrev(), (DNode<T>) node.getNext());
+  }
+
+  /*
+   * Index each node of a chain moved into this list, in order. Nodes moved from a list without
+   * an index are replaced by indexed nodes holding the same objects. When the chain is not at
+   * the tail of the list, the last node of the chain indexed under each object is remembered
+   * so that only the first occurrence of an object in the chain needs placing among the nodes
+   * outside it.
+   */
+  void linkedAll(DNode<T> first, DNode<T> last) {
+    DNode<T> before = first.getPrev();
+    DNode<T> after = (DNode<T>) last.getNext();
+    HashMap<T, HNode<T>> moved = after == null ? null : new HashMap<>();
+    DNode<T> node = first;
+    while (true) {
+      DNode<T> nextNode = node == last ? null : (DNode<T>) node.getNext();
+      HNode<T> hNode;
+      if (node instanceof HNode) {
+        hNode = (HNode<T>) node;
+      } else {
+        hNode = new HNode<>(node.getObject());
+        replace(node, hNode);
+      }
+      HNode<T> pred = moved == null ? null : moved.put(hNode.getObject(), hNode);
+      if (pred == null) {
+        index(hNode, before, after);
+      } else {
+        link(hNode, index.get(hNode.getObject()), pred);
+      }
+      if (nextNode == null) {
+        break;
+      }
+      node = nextNode;
+    }
+  }
+
+  void unlinkedAll(DNode<T> first, DNode<T> last) {
+    for (DNode<T> node = first; ; node = (DNode<T>) node.getNext()) {
+      deindex((HNode<T>) node, node.getObject());
+      if (node == last) {
+        break;
+      }
+    }
+  }
+
+  DLinkedList<T> createList() {
+    return new HashedDLinkedList<>();
+  }
+
+  /*
+   * Add a node to the chain of nodes indexed under the object it holds, keeping the chain in
+   * list order.
+   *
+   * @param   node : node to be indexed.
+   * @param   before : nearest indexed node before the node in the list, null if there is none.
+   * @param   after : nearest indexed node after the node in the list, null if there is none.
+   */
+  private void index(HNode<T> node, DNode<T> before, DNode<T> after) {
+    HNode<T> first = index.putIfAbsent(node.getObject(), node);
+    if (first == null) {
+      // The only node holding the object, it is both the first and last of its chain.
+      node.prevEqual = node;
+    } else {
+      link(node, first, precedingEqual(node.getObject(), first, before, after));
+    }
+  }
+
+  /*
+   * Return the last node holding the object that comes before the position between the
+   * specified nodes, or null if every node holding it comes after. Nodes added at either end of
+   * the list are placed straight away, otherwise the list is walked outwards from the position
+   * until a node holding the object, or an end of the list, is reached.
+   *
+   * @param   object : object held by the node being indexed.
+   * @param   first : first node of the chain indexed under the object.
+   * @param   before : nearest indexed node before the position, null if there is none.
+   * @param   after : nearest indexed node after the position, null if there is none.
+   */
+  private HNode<T> precedingEqual(T object, HNode<T> first, DNode<T> before, DNode<T> after) {
+    while (true) {
+      if (after == null) {
+        // Every node holding the object comes before, the last of them is the predecessor.
+        return first.prevEqual;
+      }
+      if (before == null) {
+        return null;
+      }
+      if (holds(before, object)) {
+        return (HNode<T>) before;
+      }
+      if (holds(after, object)) {
+        HNode<T> found = (HNode<T>) after;
+        return found == first ? null : found.prevEqual;
+      }
+      before = before.getPrev();
+      after = (DNode<T>) after.getNext();
+    }
+  }
+
+  /*
+   * Link a node into the chain of nodes indexed under the object it holds, after the specified
+   * node of the chain, or as the first node of the chain if it is null.
+   *
+   * @param   node : node to be linked.
+   * @param   first : first node of the chain.
+   * @param   pred : node of the chain the node is linked after, null to link it first.
+   */
+  private void link(HNode<T> node, HNode<T> first, HNode<T> pred) {
+    if (pred == null) {
+      node.prevEqual = first.prevEqual;
+      node.nextEqual = first;
+      first.prevEqual = node;
+      index.put(node.getObject(), node);
+    } else {
+      HNode<T> succ = pred.nextEqual;
+      node.prevEqual = pred;
+      node.nextEqual = succ;
+      pred.nextEqual = node;
+      if (succ == null) {
+        // The node is the new last node of the chain.
+        first.prevEqual = node;
+      } else {
+        succ.prevEqual = node;
+      }
+    }
+  }
+
+  /*
+   * Remove a node from the chain of nodes indexed under the specified object.
+   */
+  private void deindex(HNode<T> node, T object) {
+    HNode<T> prevEqual = node.prevEqual;
+    HNode<T> nextEqual = node.nextEqual;
+    if (prevEqual.nextEqual != node) {
+      // The node is the first of its chain, its 'prevEqual' reference is the last node.
+      if (nextEqual == null) {
+        index.remove(object);
+      } else {
+        nextEqual.prevEqual = prevEqual;
+        index.put(object, nextEqual);
+      }
+    } else {
+      prevEqual.nextEqual = nextEqual;
+      if (nextEqual == null) {
+        index.get(object).prevEqual = prevEqual;
+      } else {
+        nextEqual.prevEqual = prevEqual;
+      }
+    }
+    node.prevEqual = null;
+    node.nextEqual = null;
+  }
+}
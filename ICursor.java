@@ -0,0 +1,71 @@
+package com.cqueltech.linkedlist;
+
+/*
+ * Interface describing a cursor over the elements of a list, independent of how the list
+ * stores its elements. The cursor sits on a current element and can move to the next or
+ * previous element, read or replace the current element, remove it, or add elements either
+ * side of it. IIterator extends it for lists held in a chain of SNodes, adding access to the
+ * nodes themselves. The direction a cursor moves in is given by IIterator.IteratorDirection,
+ * which all cursors share.
+ * 
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public interface ICursor<T> {
+
+  /*
+   * Returns true when there is another element after the current element or when no element has
+   * yet been processed but there is at least one in the list. Otherwise returns false.
+   */
+  public boolean hasNext();
+
+  /*
+   * Target the next element in the list. The next element then becomes the current element and
+   * is ready to be processed.
+   */
+  public void next();
+
+  /*
+   * Returns true when there is another element before the current element or when no element
+   * has yet been processed but there is at least one in the list. Otherwise returns false.
+   */
+  public boolean hasPrev();
+
+  /*
+   * Target the previous element in the list. The previous element then becomes the current
+   * element and is ready to be processed.
+   */
+  public void prev();
+
+  /*
+   * Retrieve the current element, null if there is none.
+   */
+  public T get();
+
+  /*
+   * Replace the current element. Does nothing if the current element has been removed.
+   * 
+   * @param   data : object to replace the current element.
+   */
+  public void set(T data);
+
+  /*
+   * Remove the current element from the list. Throws an IllegalStateException if there is no
+   * current element.
+   */
+  public void remove();
+
+  /*
+   * Add a new element to the list before the current element.
+   * 
+   * @param   data : object to be added.
+   */
+  public void addBefore(T data);
+
+  /*
+   * Add a new element to the list after the current element.
+   * 
+   * @param   data : object to be added.
+   */
+  public void addAfter(T data);
+}
@@ -0,0 +1,83 @@
+package com.cqueltech.linkedlist;
+
+import java.nio.ByteBuffer;
+
+/*
+ * Interface describing the implementations for an element codec. A codec converts an object to
+ * and from a fixed number of bytes, allowing lists to store their elements outside of the Java
+ * heap. Every object written by a codec must occupy exactly width() bytes.
+ *
+ * Codecs for the common primitive wrapper types are provided as constants. They do not permit
+ * null elements.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public interface IElementCodec<T> {
+
+  /*
+   * Return the number of bytes used to store each object.
+   */
+  public int width();
+
+  /*
+   * Write an object into the buffer, starting at the specified absolute offset. Must not
+   * change the buffer's position or limit.
+   *
+   * @param   buffer : buffer the object is written into.
+   * @param   offset : absolute position of the first byte to be written.
+   * @param   object : item to be written.
+   */
+  public void write(ByteBuffer buffer, int offset, T object);
+
+  /*
+   * Read an object from the buffer, starting at the specified absolute offset. Must not
+   * change the buffer's position or limit.
+   *
+   * @param   buffer : buffer the object is read from.
+   * @param   offset : absolute position of the first byte to be read.
+   */
+  public T read(ByteBuffer buffer, int offset);
+
+  public static final IElementCodec<Integer> INT = new IElementCodec<>() {
+    public int width() {
+      return Integer.BYTES;
+    }
+
+    public void write(ByteBuffer buffer, int offset, Integer object) {
+      buffer.putInt(offset, object);
+    }
+
+    public Integer read(ByteBuffer buffer, int offset) {
+      return buffer.getInt(offset);
+    }
+  };
+
+  public static final IElementCodec<Long> LONG = new IElementCodec<>() {
+    public int width() {
+      return Long.BYTES;
+    }
+
+    public void write(ByteBuffer buffer, int offset, Long object) {
+      buffer.putLong(offset, object);
+    }
+
+    public Long read(ByteBuffer buffer, int offset) {
+      return buffer.getLong(offset);
+    }
+  };
+
+  public static final IElementCodec<Double> DOUBLE = new IElementCodec<>() {
+    public int width() {
+      return Double.BYTES;
+    }
+
+    public void write(ByteBuffer buffer, int offset, Double object) {
+      buffer.putDouble(offset, object);
+    }
+
+    public Double read(ByteBuffer buffer, int offset) {
+      return buffer.getDouble(offset);
+    }
+  };
+}
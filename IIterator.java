@@ -2,12 +2,13 @@ package com.cqueltech.linkedlist;
 
 /*
  * Interface describing the implementations for an Iterator object. Used when
- * iterating through a Linked List.
+ * iterating through a Linked List. Extends ICursor with access to the nodes either side of the
+ * iteration, for lists held in a chain of SNodes.
  * 
  * @author  Jonathan Bateman
  * @version 1.0.1
  */
-public interface IIterator<T> {
+public interface IIterator<T> extends ICursor<T> {
 
   public enum IteratorDirection {
     FORWARD,
@@ -40,30 +41,13 @@ public interface IIterator<T> {
     if (getCurr() != null) {
       // If curr node was null from previous iteration then curr was removed so
       // prev node will remain the same in this next iteration i.e. will not change.
-      setPrev(getCurr());
+      // If a node was added after curr it sits between curr and next, and becomes prev.
+      setPrev(getCurr().getNext() == getNext() ? getCurr() : getCurr().getNext());
     }
     setCurr(getNext());
     setNext(getNext().getNext());
   }
 
-  /*
-   * Returns true when there is another node before the current node or when no node has yet been
-   * processed but there is at least one in the list. Otherwise returns false. Should only be used
-   * with an iterator for a doubly linked list.
-   */
-  public boolean hasPrev();
-
-  /*
-   * Target the next node in the list. The next node then becomes the current node and is ready
-   * to be processed. Should only be used with an iterator for a doubly linked list.
-   */
-  public void prev();
-
-  /*
-   * Remove the current node from the list.
-   */
-  public void remove();
-
   /*
    * Retrieve the object from the current node.
    */
@@ -83,18 +67,4 @@ public interface IIterator<T> {
       getCurr().setData(data);
     }
   }
-
-  /*
-   * Add a new node to the list before the current node.
-   * 
-   * @param   data : object to be stored in the new node.
-   */
-  public void addBefore(T data);
-
-  /*
-   * Add a new node to the list after the current node.
-   * 
-   * @param   data : object to be stored in the new node.
-   */
-  public void addAfter(T data);
 }
\ No newline at end of file
@@ -1,35 +1,22 @@
 package com.cqueltech.linkedlist;
 
+import java.util.Spliterator;
+
 /*
- * Interface describing the implementations for custom linked list class CqueltechLinkedList
+ * Interface describing the implementations for custom linked list class CqueltechLinkedList.
+ * Extends IList for lists held in a chain of SNodes, giving access to the nodes at either end
+ * of the chain and implementing the element level operations by walking it.
  * 
  * @author  Jonathan Bateman
  * @version 1.0.1
  */
-public interface ILinkedList<T> {
-
-  /*
-   * Insert a new node at the end of the list.
-   */
-  void add(T data);
-
-  /*
-   * Insert a new node in the list at the specified index.
-   */
-  void add(T data, int index);
-
-  /*
-   * Retrieves and removes the head (first element) of this list. Returns
-   * null if list is empty.
-   */
-  public T poll();
+public interface ILinkedList<T> extends IList<T> {
 
   /*
    * Getters for Class level variables.
    */
   public SNode<T> getHead();
   public SNode<T> getTail();
-  public int getSize();
 
   /*
    * Return boolean, true if list is empty, false if not.
@@ -87,45 +74,10 @@ public interface ILinkedList<T> {
   }
 
   /*
-   * Determine if list contains the specified object. Returns true if the object
-   * is present.
-   * 
-   * @param   data : item being searched for.
-   */
-  default public boolean contains(T object) {
-    return indexOf(object) >= 0;
-  }
-
-  /*
-   * Construct an IndexOutOfBounds exception message.
-   * 
-   * @param   idx : positional identifier that is out of bounds.
-   */
-  default public String outOfBoundsMsg(int idx) {
-    return "Index: " + idx + "out of bounds. Collection size: " + getSize();
-  }
-
-  /*
-   * Check that a valid index has been provided for an existing node. If out of
-   * bounds throw exception.
-   * 
-   * @param   idx : positional identifier for existing node.
-   */
-  default public void checkNodeIndexValid(int idx) {
-    if (idx < 0 || idx >= getSize()) {
-      throw new IndexOutOfBoundsException(outOfBoundsMsg(idx));
-    }
-  }
-
-  /*
-   * Checks if the argument passed is a valid position for example an add operation.
-   * If not an out of bounds exception is thrown.
-   * 
-   * @param   idx : positional identifier checked for valid position.
+   * Returns a Spliterator over the elements in the list, from head to tail. The list should
+   * not be structurally modified while the Spliterator is in use.
    */
-  default public void checkPositionIndexValid(int idx) {
-    if (idx < 0 || idx > getSize()) {
-      throw new IndexOutOfBoundsException(outOfBoundsMsg(idx));
-    }
+  default public Spliterator<T> spliterator() {
+    return new NodeSpliterator<>(getHead(), getSize());
   }
 }
@@ -0,0 +1,149 @@
+package com.cqueltech.linkedlist;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * Interface describing the element level operations of a list, independent of how the list
+ * stores its elements. Lists held in arrays, off-heap memory, chunks or concurrent structures
+ * implement this interface directly, without creating nodes. ILinkedList extends it for lists
+ * that are held in a chain of SNodes.
+ *
+ * The default methods are written in terms of the abstract methods, searching the list through
+ * its Spliterator, so a list need only override them where it can do better.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public interface IList<T> {
+
+  /*
+   * Insert a new element at the end of the list.
+   */
+  void add(T data);
+
+  /*
+   * Insert a new element in the list at the specified index.
+   */
+  void add(T data, int index);
+
+  /*
+   * Retrieves and removes the head (first element) of this list. Returns
+   * null if list is empty.
+   */
+  public T poll();
+
+  /*
+   * Retrieves, but does not remove, the head (first element) of this list.
+   * Returns null if list is empty
+   */
+  public T peek();
+
+  /*
+   * Retrieves, but does not remove, the tail (last element) of this list.
+   * Returns null if list is empty
+   */
+  public T peekTail();
+
+  /*
+   * Return the number of elements in the list.
+   */
+  public int getSize();
+
+  /*
+   * Return boolean, true if list is empty, false if not.
+   */
+  default boolean isEmpty() {
+    return getSize() == 0;
+  }
+
+  /*
+   * Return the number of elements in the list.
+   */
+  default public int size() {
+    return getSize();
+  }
+
+  /*
+   * Return the index of the first element equal to the specified data item, or -1 if it is
+   * not found.
+   * 
+   * @param   object : item that is being searched for.
+   */
+  default public int indexOf(T object) {
+    int idx = 0;
+    for (Iterator<T> it = Spliterators.iterator(spliterator()); it.hasNext(); idx++) {
+      T item = it.next();
+      if (object == null ? item == null : object.equals(item)) {
+        return idx;
+      }
+    }
+    return -1;
+  }
+
+  /*
+   * Determine if list contains the specified object. Returns true if the object
+   * is present.
+   * 
+   * @param   data : item being searched for.
+   */
+  default public boolean contains(T object) {
+    return indexOf(object) >= 0;
+  }
+
+  /*
+   * Construct an IndexOutOfBounds exception message.
+   * 
+   * @param   idx : positional identifier that is out of bounds.
+   */
+  default public String outOfBoundsMsg(int idx) {
+    return "Index: " + idx + "out of bounds. Collection size: " + getSize();
+  }
+
+  /*
+   * Check that a valid index has been provided for an existing node. If out of
+   * bounds throw exception.
+   * 
+   * @param   idx : positional identifier for existing node.
+   */
+  default public void checkNodeIndexValid(int idx) {
+    if (idx < 0 || idx >= getSize()) {
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(idx));
+    }
+  }
+
+  /*
+   * Checks if the argument passed is a valid position for example an add operation.
+   * If not an out of bounds exception is thrown.
+   * 
+   * @param   idx : positional identifier checked for valid position.
+   */
+  default public void checkPositionIndexValid(int idx) {
+    if (idx < 0 || idx > getSize()) {
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(idx));
+    }
+  }
+
+  /*
+   * Returns a Spliterator over the elements in the list, from head to tail.
+   */
+  public Spliterator<T> spliterator();
+
+  /*
+   * Returns a sequential Stream of the elements in the list, from head to tail.
+   */
+  default public Stream<T> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /*
+   * Returns a parallel Stream of the elements in the list. The list is divided between
+   * threads in batches of increasing size.
+   */
+  default public Stream<T> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+}
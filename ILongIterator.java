@@ -0,0 +1,72 @@
+package com.cqueltech.linkedlist;
+
+/*
+ * Interface describing the implementations for an Iterator object over a list of primitive
+ * long values. Mirrors IIterator, but values are passed and returned as longs so that
+ * iterating through the list never boxes them.
+ * 
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public interface ILongIterator {
+
+  /*
+   * Returns true when there is another node after the current node or when no node has yet been
+   * processed but there is at least one in the list. Otherwise returns false.
+   */
+  public boolean hasNext();
+
+  /*
+   * Target the next node in the list. The next node then becomes the current node and is ready
+   * to be processed.
+   */
+  public void next();
+
+  /*
+   * Returns true when there is another node before the current node or when no node has yet been
+   * processed but there is at least one in the list. Otherwise returns false. Should only be used
+   * with an iterator for a doubly linked list.
+   */
+  public boolean hasPrev();
+
+  /*
+   * Target the previous node in the list. The previous node then becomes the current node and is
+   * ready to be processed. Should only be used with an iterator for a doubly linked list.
+   */
+  public void prev();
+
+  /*
+   * Retrieve the value from the current node. Throws an IllegalStateException if there is no
+   * current node, either because next() has not been called or the node has been removed.
+   */
+  public long get();
+
+  /*
+   * Set the value of the current node. Does nothing if the current node has been removed.
+   * 
+   * @param   value : value to replace the existing value in the current node.
+   */
+  public void set(long value);
+
+  /*
+   * Remove the current node from the list. Throws an IllegalStateException if there is no
+   * current node.
+   */
+  public void remove();
+
+  /*
+   * Add a new node to the list before the current node. Throws an IllegalStateException if
+   * there is no current node.
+   * 
+   * @param   value : value to be stored in the new node.
+   */
+  public void addBefore(long value);
+
+  /*
+   * Add a new node to the list after the current node. Throws an IllegalStateException if
+   * there is no current node.
+   * 
+   * @param   value : value to be stored in the new node.
+   */
+  public void addAfter(long value);
+}
@@ -0,0 +1,534 @@
+package com.cqueltech.linkedlist;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * A custom linked list class. This class denotes a doubly linked list with an additional indexed
+ * skip layer. Level 0 of the structure is an ordinary chain of doubly linked nodes. Above it sit
+ * express lanes, where each lane reference records how many level 0 nodes it passes over (its
+ * span). Positional operations descend the lanes from the top, so locating an index costs
+ * O(log n) instead of walking the chain node by node. Uses the SkipNode class to generate
+ * elements for the list.
+ *
+ * Operations at the head and tail of the list never descend the lanes. They only touch the
+ * lane references of the header and of the rightmost node at each level, a bounded amount
+ * of work independent of the list size.
+ *
+ * Class variables: header - Sentinel holding the first lane reference at each level.
+ *                  head - Stores the first node in the list.
+ *                  tail - Stores the last node in the list.
+ *                  last - Stores the rightmost node at each level above level 0.
+ *                  level - Number of levels currently in use.
+ *                  listSize - Stores the current size of the list.
+ *
+ * Public methods:
+ *    add(Object object) : Add an element to the end of the list.
+ *    add(Object object, int index) : Insert element into list at specified index.
+ *    remove(int idx) : Remove an element from the list at the specified index.
+ *    get(int idx) : Retrieves the element at the specified index.
+ *    set(int idx, Object object) : Replaces the element at the specified index.
+ *    poll() : Retrieves and removes the head (first element) of this list.
+ *    pollTail() : Retrieves and removes the tail (last element) of this list.
+ *    iterator() : Return a ListIterator object to alow us to iterate through a list and
+ *                 manipulate the nodes it contains.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public class IndexedDLinkedList<T> implements ILinkedList<T> {
+
+  /*
+   * Each level is reached with a probability of 1/4, so 16 levels comfortably cover any list
+   * that can be indexed with an int.
+   */
+  private static final int MAX_LEVEL = 16;
+
+  private final SkipNode<T> header;
+  private final SkipNode<T>[] last;
+  private SkipNode<T> head;
+  private SkipNode<T> tail;
+  private int level;
+  private int listSize;
+
+  // Scratch arrays reused by every positional operation to record the node preceding the
+  // target position at each level and the rank (1 based index) of that node.
+  private final SkipNode<T>[] update;
+  private final int[] rank;
+
+  @SuppressWarnings("unchecked")
+  public IndexedDLinkedList() {
+    this.header = new SkipNode<>(null, MAX_LEVEL);
+    this.last = (SkipNode<T>[]) new SkipNode<?>[MAX_LEVEL];
+    this.update = (SkipNode<T>[]) new SkipNode<?>[MAX_LEVEL];
+    this.rank = new int[MAX_LEVEL];
+    this.head = null;
+    this.tail = null;
+    this.level = 1;
+    this.listSize = 0;
+  }
+
+  public DNode<T> getHead() {
+    return head;
+  }
+
+  public DNode<T> getTail() {
+    return tail;
+  }
+
+  public int getSize() {
+    return listSize;
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element to the end of the list.
+   *
+   * @param object : Parameter of type 'object' which will be stored in the new node
+   * instance.
+   *
+   */
+  public void add(T object) {
+    insert(object, listSize);
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element at a specific location within the list.
+   * Set index to 0 to add at beginning of list.
+   * Set index equal to list size to add to end of list.
+   *
+   * @param object : Parameter of type 'object' which will be stored in the new node
+   * instance.
+   *
+   * @param idx : Parameter of type 'int'. Position within the list that the new
+   * node is to be added.
+   *
+   */
+  public void add(T object, int idx) {
+    checkPositionIndexValid(idx);
+    insert(object, idx);
+  }
+
+  /*
+   * Remove an element from the list at the specified index.
+   *
+   * @param idx : Parameter of type 'int', acts as indentifier for element to be
+   * removed from list
+   *
+   */
+  public void remove(int idx) {
+    checkNodeIndexValid(idx);
+    delete(idx);
+  }
+
+  /*
+   * Retrieves, but does not remove, the element at the specified index.
+   *
+   * @param idx : Parameter of type 'int', position of the element to be retrieved.
+   *
+   */
+  public T get(int idx) {
+    checkNodeIndexValid(idx);
+    return node(idx).getObject();
+  }
+
+  /*
+   * Replaces the element stored at the specified index. Returns the element previously
+   * stored at that position.
+   *
+   * @param idx : Parameter of type 'int', position of the element to be replaced.
+   *
+   * @param object : Parameter of type 'object' to be stored at the specified position.
+   *
+   */
+  public T set(int idx, T object) {
+    checkNodeIndexValid(idx);
+    SkipNode<T> node = node(idx);
+    T oldObject = node.getObject();
+    node.setData(object);
+    return oldObject;
+  }
+
+  /*
+   * Retrieves and removes the head (first element) of this list. Returns null if list
+   * is empty
+   */
+  public T poll() {
+    return head == null ? null : delete(0).getObject();
+  }
+
+  /*
+   * Retrieves and removes the tail (last element) of this list. Returns
+   * null if list is empty.
+   */
+  public T pollTail() {
+    return tail == null ? null : delete(listSize - 1).getObject();
+  }
+
+  /*
+   * Returns an object of interface Iterator, used to iterate through
+   * the list in the specified direction.
+   */
+  public IIterator<T> iterator(IIterator.IteratorDirection direction) {
+    return new ListIterator(direction);
+  }
+
+  /*
+   * Return the node following the specified node at the specified level. The header acts as
+   * the node preceding the head at level 0.
+   */
+  private SkipNode<T> forward(SkipNode<T> node, int lvl) {
+    if (lvl == 0) {
+      return node == header ? head : (SkipNode<T>) node.getNext();
+    }
+    return node.getForward(lvl);
+  }
+
+  /*
+   * Return the number of level 0 nodes passed over by a node's reference at the specified
+   * level. At level 0 every reference passes over exactly one node.
+   */
+  private int span(SkipNode<T> node, int lvl) {
+    return lvl == 0 ? 1 : node.getSpan(lvl);
+  }
+
+  /*
+   * Return a random height for a new node. Every extra level is reached with a probability
+   * of 1/4.
+   */
+  private static int randomLevel() {
+    int bits = ThreadLocalRandom.current().nextInt() | (1 << 30);
+    return 1 + Integer.numberOfTrailingZeros(bits) / 2;
+  }
+
+  /*
+   * Locate the node at the specified index by descending the express lanes.
+   *
+   * @param   idx : position of an existing node.
+   */
+  private SkipNode<T> node(int idx) {
+    if (idx == 0) {
+      return head;
+    } else if (idx == listSize - 1) {
+      return tail;
+    }
+    SkipNode<T> x = header;
+    int r = 0;
+    int target = idx + 1;
+    for (int lvl = level - 1; lvl >= 0; lvl--) {
+      SkipNode<T> f;
+      while ((f = forward(x, lvl)) != null && r + span(x, lvl) <= target) {
+        r += span(x, lvl);
+        x = f;
+      }
+      if (r == target) {
+        return x;
+      }
+    }
+    return x;
+  }
+
+  /*
+   * Fill the 'update' and 'rank' scratch arrays with the last node preceding the specified
+   * position at every level in use, along with the rank of each of those nodes.
+   *
+   * @param   idx : position, the nodes recorded are those with an index lower than idx.
+   */
+  private void findPredecessors(int idx) {
+    if (idx == listSize) {
+      // Appending, the rightmost node at each level already precedes the position so there
+      // is no need to descend. A node's span at the end of its level is the number of nodes
+      // that follow it, which gives its rank.
+      for (int lvl = level - 1; lvl >= 1; lvl--) {
+        update[lvl] = last[lvl];
+        rank[lvl] = listSize - last[lvl].getSpan(lvl);
+      }
+      update[0] = tail == null ? header : tail;
+      rank[0] = listSize;
+      return;
+    }
+    SkipNode<T> x = header;
+    int r = 0;
+    for (int lvl = level - 1; lvl >= 0; lvl--) {
+      SkipNode<T> f;
+      while ((f = forward(x, lvl)) != null && r + span(x, lvl) <= idx) {
+        r += span(x, lvl);
+        x = f;
+      }
+      update[lvl] = x;
+      rank[lvl] = r;
+    }
+  }
+
+  /*
+   * Create a new node for the specified object and link it into the list at the specified
+   * position. Position must already have been validated.
+   *
+   * @param   object : item to be stored in the new node.
+   * @param   idx : position of the new node.
+   */
+  private SkipNode<T> insert(T object, int idx) {
+    findPredecessors(idx);
+
+    int height = randomLevel();
+    if (height > level) {
+      // The new node is taller than any other node, the extra levels start at the header
+      // and (until now) span the whole list.
+      for (int lvl = level; lvl < height; lvl++) {
+        header.setForward(lvl, null);
+        header.setSpan(lvl, listSize);
+        last[lvl] = header;
+        update[lvl] = header;
+        rank[lvl] = 0;
+      }
+      level = height;
+    }
+
+    SkipNode<T> newNode = new SkipNode<>(object, height);
+
+    // Splice the new node into each express lane it is tall enough to reach, splitting the
+    // span of the preceding node between the two.
+    for (int lvl = 1; lvl < height; lvl++) {
+      SkipNode<T> pred = update[lvl];
+      newNode.setForward(lvl, pred.getForward(lvl));
+      newNode.setSpan(lvl, pred.getSpan(lvl) - (rank[0] - rank[lvl]));
+      pred.setForward(lvl, newNode);
+      pred.setSpan(lvl, rank[0] - rank[lvl] + 1);
+      if (newNode.getForward(lvl) == null) {
+        last[lvl] = newNode;
+      }
+    }
+    // Lanes above the new node now pass over one more node.
+    for (int lvl = height; lvl < level; lvl++) {
+      update[lvl].setSpan(lvl, update[lvl].getSpan(lvl) + 1);
+    }
+
+    // Link the new node into the level 0 chain.
+    SkipNode<T> pred = update[0];
+    if (pred == header) {
+      newNode.setNext(head);
+      if (head == null) {
+        tail = newNode;
+      } else {
+        head.setPrev(newNode);
+      }
+      head = newNode;
+    } else {
+      SkipNode<T> succ = (SkipNode<T>) pred.getNext();
+      pred.setNext(newNode);
+      newNode.setPrev(pred);
+      newNode.setNext(succ);
+      if (succ == null) {
+        tail = newNode;
+      } else {
+        succ.setPrev(newNode);
+      }
+    }
+
+    listSize++;
+    return newNode;
+  }
+
+  /*
+   * Unlink the node at the specified position from every level of the list and return it.
+   * Position must already have been validated.
+   *
+   * @param   idx : position of the node to be removed.
+   */
+  private SkipNode<T> delete(int idx) {
+    SkipNode<T> target;
+    if (idx == listSize - 1 && tail.getHeight() == 1) {
+      // Removing a tail that has no tower, none of the express lanes reference it so the
+      // rightmost node at each level precedes it.
+      for (int lvl = level - 1; lvl >= 1; lvl--) {
+        update[lvl] = last[lvl];
+      }
+      target = tail;
+    } else {
+      // At index 0 the descent never leaves the header.
+      findPredecessors(idx);
+      target = forward(update[0], 0);
+    }
+
+    for (int lvl = 1; lvl < level; lvl++) {
+      SkipNode<T> pred = update[lvl];
+      if (pred.getForward(lvl) == target) {
+        // The preceding node inherits the target's reference and span at this level.
+        pred.setSpan(lvl, pred.getSpan(lvl) + target.getSpan(lvl) - 1);
+        pred.setForward(lvl, target.getForward(lvl));
+        if (last[lvl] == target) {
+          last[lvl] = pred;
+        }
+      } else {
+        pred.setSpan(lvl, pred.getSpan(lvl) - 1);
+      }
+    }
+    while (level > 1 && header.getForward(level - 1) == null) {
+      level--;
+    }
+
+    // Unlink the target from the level 0 chain.
+    DNode<T> prevNode = target.getPrev();
+    SkipNode<T> nextNode = (SkipNode<T>) target.getNext();
+    if (prevNode == null) {
+      head = nextNode;
+    } else {
+      prevNode.setNext(nextNode);
+    }
+    if (nextNode == null) {
+      tail = (SkipNode<T>) prevNode;
+    } else {
+      nextNode.setPrev(prevNode);
+    }
+    target.setNext(null);
+    target.setPrev(null);
+
+    listSize--;
+    return target;
+  }
+
+  /*
+   * Iterator class to allow list to be travesersed bidirectionally. Structural changes made
+   * through the iterator are routed through the list's positional operations so that the
+   * express lanes stay in step with the level 0 chain. The iterator keeps track of the indexes
+   * of its previous, current and next nodes to make this possible, adjusting them on every
+   * insertion and removal it makes. As with DLinkedList, nodes added through the iterator are
+   * not visited.
+   *
+   * @param next : holds the reference/pointer to the next node to be processed.
+   *
+   * @param currIdx : index of the current node in the list.
+   *
+   *    Note: remove(), addBefore() and addAfter() throw an IllegalStateException when there
+   *          is no current node.
+   */
+  private class ListIterator implements IIterator<T> {
+
+    private SkipNode<T> prev;
+    private SkipNode<T> curr;
+    private SkipNode<T> next;
+    private int prevIdx;
+    private int currIdx;
+    private int nextIdx;
+
+    private ListIterator(IteratorDirection direction) {
+
+      if (direction == IteratorDirection.FORWARD) {
+        this.prev = null;
+        this.next = head;
+        this.prevIdx = -1;
+        this.nextIdx = 0;
+      } else {
+        this.prev = tail;
+        this.next = null;
+        this.prevIdx = listSize - 1;
+        this.nextIdx = listSize;
+      }
+      this.curr = null;
+      this.currIdx = -1;
+    }
+
+    public SkipNode<T> getPrev() {
+      return prev;
+    }
+
+    public SkipNode<T> getCurr() {
+      return curr;
+    }
+
+    public SkipNode<T> getNext() {
+      return next;
+    }
+
+    public void setPrev(SNode<T> node) {
+      prev = (SkipNode<T>) node;
+    }
+
+    public void setCurr(SNode<T> node) {
+      curr = (SkipNode<T>) node;
+    }
+
+    public void setNext(SNode<T> node) {
+      next = (SkipNode<T>) node;
+    }
+
+    /*
+     * Target the next node in the list, keeping track of its index. The previous node is taken to
+     * be the node now linked before the next node, so any nodes added after the current node are
+     * not visited.
+     */
+    public void next() {
+      prev = (SkipNode<T>) next.getPrev();
+      prevIdx = nextIdx - 1;
+      curr = next;
+      next = (SkipNode<T>) curr.getNext();
+      currIdx = nextIdx++;
+    }
+
+    /*
+     * Returns true when there is another node before the current node or when no node has yet been
+     * processed but there is at least one in the list. Otherwise returns false.
+     */
+    public boolean hasPrev() {
+      return prev == null ? false : true;
+    }
+
+    /*
+     * Target the previous node in the list. The previous node then becomes the current node and is ready
+     * to be processed.
+     */
+    public void prev() {
+      // The next node is taken to be the node now linked after the previous node, so any node
+      // added before the current node is not visited. If curr was removed this is unchanged.
+      next = (SkipNode<T>) prev.getNext();
+      nextIdx = prevIdx + 1;
+      curr = prev;
+      prev = (SkipNode<T>) curr.getPrev();
+      currIdx = prevIdx--;
+    }
+
+    /*
+     * Removes the current node from the list. This method should not be called unless next() has been
+     * called prior in the same iteration.
+     */
+    public void remove() {
+      checkCurrent();
+      delete(currIdx);
+      curr = null;
+      nextIdx--;
+    }
+
+    /*
+     * Add a new node before the current node. The current node moves up one position.
+     *
+     * @param   data : the object to be stored in the new node.
+     */
+    public void addBefore(T data) {
+      checkCurrent();
+      insert(data, currIdx);
+      currIdx++;
+      nextIdx++;
+    }
+
+    /*
+     * Add a new node after the current node.
+     *
+     * @param   data : the object to be stored in the new node.
+     */
+    public void addAfter(T data) {
+      checkCurrent();
+      insert(data, currIdx + 1);
+      nextIdx++;
+    }
+
+    /*
+     * Throw an IllegalStateException if there is no current node, because neither next() nor
+     * prev() has been called or the current node has been removed.
+     */
+    private void checkCurrent() {
+      if (curr == null) {
+        throw new IllegalStateException("Iterator has no current node");
+      }
+    }
+  }
+}
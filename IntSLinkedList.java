@@ -0,0 +1,384 @@
+package com.cqueltech.linkedlist;
+
+import java.util.NoSuchElementException;
+
+/*
+ * A custom linked list class. This class denotes a singly linked list of primitive int values.
+ * It mirrors SLinkedList, but each node stores an int directly rather than a reference to an
+ * Integer, so adding, polling and searching never box values or create garbage beyond the node
+ * itself. Uses the nested Node class to generate elements for the list.
+ *
+ * As a primitive value cannot be null, poll(), pollTail(), peek() and peekTail() throw a
+ * NoSuchElementException when the list is empty rather than returning null.
+ *
+ * Class variables: head - Stores the first node in the list.
+ *                  tail - Stores the last node in the list.
+ *                  listSize - Stores the current size of the list.
+ *
+ * Public methods:
+ *    add(int value) : Add an element to the end of the list.
+ *    add(int value, int idx) : Insert element into list at specified index.
+ *    remove(int idx) : Remove an element from the list at the specified index.
+ *    poll() : Retrieves and removes the head (first element) of this list.
+ *    pollTail() : Retrieves and removes the tail (last element) of this list.
+ *    peek() : Retrieves the head (first element) of this list.
+ *    peekTail() : Retrieves the tail (last element) of this list.
+ *    indexOf(int value) : Return the index of the first element equal to the value.
+ *    contains(int value) : Returns true if the list contains the value.
+ *    iterator() : Return a ListIterator object to alow us to iterate through a list and
+ *                 manipulate the nodes it contains.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public class IntSLinkedList {
+
+  /*
+   * Element of the list. Stores an int value and a reference/pointer to the next node.
+   */
+  private static final class Node {
+    private int value;
+    private Node next;
+
+    private Node(int value) {
+      this.value = value;
+    }
+  }
+
+  private Node head;
+  private Node tail;
+  private int listSize;
+
+  public IntSLinkedList() {
+    this.head = null;
+    this.tail = null;
+    this.listSize = 0;
+  }
+
+  /*
+   * Return boolean, true if list is empty, false if not.
+   */
+  public boolean isEmpty() {
+    return listSize == 0;
+  }
+
+  /*
+   * Return the number of elements in the list.
+   */
+  public int size() {
+    return listSize;
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element to the end of the list.
+   *
+   * @param value : value which will be stored in the new node.
+   *
+   */
+  public void add(int value) {
+    Node newNode = new Node(value);
+    if (tail == null) {
+      head = newNode;
+    } else {
+      tail.next = newNode;
+    }
+    tail = newNode;
+    listSize++;
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element at a specific location within the list.
+   * Set index to 0 to add at beginning of list.
+   * Set index equal to list size to add to end of list.
+   *
+   * @param value : value which will be stored in the new node.
+   *
+   * @param idx : Position within the list that the new node is to be inserted.
+   *
+   */
+  public void add(int value, int idx) {
+    if (idx < 0 || idx > listSize) {
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(idx));
+    }
+    if (idx == listSize) {
+      add(value);
+    } else {
+      Node newNode = new Node(value);
+      if (idx == 0) {
+        newNode.next = head;
+        head = newNode;
+      } else {
+        Node prevNode = node(idx - 1);
+        newNode.next = prevNode.next;
+        prevNode.next = newNode;
+      }
+      listSize++;
+    }
+  }
+
+  /*
+   * Remove an element from the list at the specified index.
+   *
+   * @param idx : acts as indentifier for element to be removed from list.
+   *
+   */
+  public void remove(int idx) {
+    if (idx < 0 || idx >= listSize) {
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(idx));
+    }
+    if (idx == 0) {
+      poll();
+    } else {
+      Node prevNode = node(idx - 1);
+      Node currNode = prevNode.next;
+      prevNode.next = currNode.next;
+      if (currNode == tail) {
+        tail = prevNode;
+      }
+      currNode.next = null;
+      listSize--;
+    }
+  }
+
+  /*
+   * Retrieves and removes the head (first element) of this list. Throws a
+   * NoSuchElementException if the list is empty.
+   */
+  public int poll() {
+    Node oldHead = head;
+    if (oldHead == null) {
+      throw new NoSuchElementException();
+    }
+    head = oldHead.next;
+    if (head == null) {
+      tail = null;
+    }
+    oldHead.next = null;
+    listSize--;
+    return oldHead.value;
+  }
+
+  /*
+   * Retrieves and removes the tail (last element) of this list. Throws a
+   * NoSuchElementException if the list is empty. As the nodes only link forwards, the node
+   * preceding the tail is found by walking the list from the head.
+   */
+  public int pollTail() {
+    Node oldTail = tail;
+    if (oldTail == null) {
+      throw new NoSuchElementException();
+    }
+    if (head == oldTail) {
+      head = null;
+      tail = null;
+    } else {
+      Node prevNode = node(listSize - 2);
+      prevNode.next = null;
+      tail = prevNode;
+    }
+    listSize--;
+    return oldTail.value;
+  }
+
+  /*
+   * Retrieves, but does not remove, the head (first element) of this list. Throws a
+   * NoSuchElementException if the list is empty.
+   */
+  public int peek() {
+    if (head == null) {
+      throw new NoSuchElementException();
+    }
+    return head.value;
+  }
+
+  /*
+   * Retrieves, but does not remove, the tail (last element) of this list. Throws a
+   * NoSuchElementException if the list is empty.
+   */
+  public int peekTail() {
+    if (tail == null) {
+      throw new NoSuchElementException();
+    }
+    return tail.value;
+  }
+
+  /*
+   * Return the index of node that contains specified value, -1 if not found.
+   *
+   * @param   value : value that is being searched for.
+   */
+  public int indexOf(int value) {
+    int idx = 0;
+    for (Node n = head; n != null; n = n.next) {
+      if (n.value == value) {
+        return idx;
+      }
+      idx++;
+    }
+    return -1;
+  }
+
+  /*
+   * Determine if list contains the specified value. Returns true if the value is present.
+   *
+   * @param   value : value being searched for.
+   */
+  public boolean contains(int value) {
+    return indexOf(value) >= 0;
+  }
+
+  /*
+   * Returns an object of ListIterator, used to iterate through the list.
+   */
+  public IIntIterator iterator() {
+    return new ListIterator();
+  }
+
+  /*
+   * Return the node at the specified index. Index must already have been validated.
+   */
+  private Node node(int idx) {
+    if (idx == listSize - 1) {
+      return tail;
+    }
+    Node n = head;
+    for (int i = 0; i < idx; i++) {
+      n = n.next;
+    }
+    return n;
+  }
+
+  private String outOfBoundsMsg(int idx) {
+    return "Index: " + idx + "out of bounds. Collection size: " + listSize;
+  }
+
+  /*
+   * Iterator class to allow list to be travesersed unidirectionally. Follows the same rules
+   * as the SLinkedList iterator.
+   *
+   *    Note: remove(), addBefore() and addAfter() throw an IllegalStateException when there
+   *          is no current node.
+   */
+  private class ListIterator implements IIntIterator {
+
+    private Node prev;
+    private Node curr;
+    private Node next;
+    // First node added after the current node, which stays linked before the next node.
+    private Node last;
+
+    private ListIterator() {
+      this.prev = null;
+      this.curr = null;
+      this.next = head;
+      this.last = null;
+    }
+
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    /*
+     * Target the next node in the list. The previous node becomes the node now linked before the
+     * next node: the last node added after the current node if there is one, otherwise the
+     * current node, or the previous node if the current node was removed. Nodes added after the
+     * current node are not visited.
+     */
+    public void next() {
+      if (last != null) {
+        prev = last;
+      } else if (curr != null) {
+        prev = curr;
+      }
+      last = null;
+      curr = next;
+      next = next.next;
+    }
+
+    /*
+     * Interface implementation of method. Has no function for a singly linked list. Return false.
+     */
+    public boolean hasPrev() {
+      return false;
+    }
+
+    /*
+     * Interface implementation of method. Has no function for a singly linked list. Do nothing.
+     */
+    public void prev() {
+    }
+
+    public int get() {
+      if (curr == null) {
+        throw new IllegalStateException();
+      }
+      return curr.value;
+    }
+
+    public void set(int value) {
+      if (curr != null) {
+        curr.value = value;
+      }
+    }
+
+    /*
+     * Removes the current node from the list. The previous node to the one being removed will be
+     * changed so that it points to the node immediately after the one being removed.
+     */
+    public void remove() {
+      checkCurrent();
+      Node succ = curr.next;
+      if (prev == null) {
+        head = succ;
+      } else {
+        prev.next = succ;
+      }
+      if (succ == null) {
+        tail = prev;
+      }
+      curr.next = null;
+      curr = null;
+      listSize--;
+    }
+
+    public void addBefore(int value) {
+      checkCurrent();
+      Node newNode = new Node(value);
+      if (prev == null) {
+        head = newNode;
+      } else {
+        prev.next = newNode;
+      }
+      newNode.next = curr;
+      // The new node now precedes the current node.
+      prev = newNode;
+      listSize++;
+    }
+
+    public void addAfter(int value) {
+      checkCurrent();
+      Node newNode = new Node(value);
+      newNode.next = curr.next;
+      if (newNode.next == null) {
+        tail = newNode;
+      }
+      curr.next = newNode;
+      if (last == null) {
+        last = newNode;
+      }
+      listSize++;
+    }
+
+    /*
+     * Throw an IllegalStateException if there is no current node, because next() has not been
+     * called or the current node has been removed.
+     */
+    private void checkCurrent() {
+      if (curr == null) {
+        throw new IllegalStateException("Iterator has no current node");
+      }
+    }
+  }
+}
@@ -0,0 +1,283 @@
+package com.cqueltech.linkedlist;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Collects operation counts, latencies and traversal lengths from the lists it is attached to
+ * with setMetrics(). SLinkedList and DLinkedList, and their iterators, report each operation
+ * while metrics are attached. When none are attached an operation costs a single null check,
+ * so instrumentation can be left in place in production and attached only when needed.
+ *
+ * For each operation the count, total and maximum latency, the number of nodes walked over and
+ * a latency histogram are kept. The histogram uses log-linear buckets, as HdrHistogram does:
+ * every power of 2 is divided into 8 buckets, so a percentile is reported to within 12.5% of
+ * the true value using a fixed 488 counters. All counters are updated without locking, so a
+ * ListMetrics may be shared by lists used from different threads.
+ *
+ * An operation that takes longer than the slow operation threshold (1ms by default) also
+ * commits a ListOperationEvent to Java Flight Recorder, recording the nodes traversed and the
+ * size of the list.
+ *
+ * Class variables: slowThresholdNanos - Latency above which a JFR event is committed.
+ *                  recorders - Stores the counters for each operation.
+ *
+ * Public methods:
+ *    snapshot() : Return the statistics recorded so far for every operation.
+ *    reset() : Clear every counter.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public final class ListMetrics {
+
+  /*
+   * Operations reported by the instrumented lists. add(Object, int) at the end of the list is
+   * reported as ADD.
+   */
+  public enum Operation {
+    ADD,
+    ADD_AT,
+    REMOVE_AT,
+    GET,
+    SET,
+    POLL,
+    POLL_TAIL,
+    INDEX_OF,
+    ITERATOR_REMOVE,
+    ITERATOR_ADD
+  }
+
+  private static final long DEFAULT_SLOW_THRESHOLD_NANOS = 1_000_000;
+
+  // Each power of 2 is divided into 2^SUB_BUCKET_BITS buckets.
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final long slowThresholdNanos;
+  private final Recorder[] recorders;
+
+  public ListMetrics() {
+    this(DEFAULT_SLOW_THRESHOLD_NANOS);
+  }
+
+  /*
+   * @param   slowThresholdNanos : operations taking longer than this commit a JFR event.
+   */
+  public ListMetrics(long slowThresholdNanos) {
+    if (slowThresholdNanos < 0) {
+      throw new IllegalArgumentException("Illegal slow threshold: " + slowThresholdNanos);
+    }
+    this.slowThresholdNanos = slowThresholdNanos;
+    this.recorders = new Recorder[Operation.values().length];
+    for (int i = 0; i < recorders.length; i++) {
+      recorders[i] = new Recorder();
+    }
+  }
+
+  /*
+   * Return the statistics recorded so far for every operation. Each operation's statistics are
+   * copied from counters which may still be changing, so they are not an atomic snapshot.
+   */
+  public Map<Operation, OperationStats> snapshot() {
+    Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    for (Operation op : Operation.values()) {
+      stats.put(op, recorders[op.ordinal()].snapshot());
+    }
+    return Collections.unmodifiableMap(stats);
+  }
+
+  /*
+   * Clear every counter.
+   */
+  public void reset() {
+    for (Recorder recorder : recorders) {
+      recorder.reset();
+    }
+  }
+
+  /*
+   * Record an operation, called by the instrumented lists when it completes.
+   *
+   * @param   op : operation that completed.
+   * @param   list : list the operation was made on.
+   * @param   startNanos : System.nanoTime() when the operation started.
+   * @param   idx : index passed to or found by the operation, -1 if none.
+   * @param   traversed : number of nodes walked over.
+   * @param   size : size of the list after the operation.
+   */
+  void record(Operation op, Object list, long startNanos, int idx, long traversed, int size) {
+    long nanos = Math.max(0, System.nanoTime() - startNanos);
+    recorders[op.ordinal()].record(nanos, traversed);
+    if (nanos >= slowThresholdNanos) {
+      ListOperationEvent event = new ListOperationEvent();
+      if (event.isEnabled()) {
+        event.listType = list.getClass().getSimpleName();
+        event.operation = op.name();
+        event.index = idx;
+        event.nodesTraversed = traversed;
+        event.listSize = size;
+        event.elapsed = nanos;
+        event.commit();
+      }
+    }
+  }
+
+  /*
+   * Return the index of the histogram bucket holding a latency.
+   */
+  private static int bucket(long nanos) {
+    if (nanos < SUB_BUCKETS) {
+      return (int) nanos;
+    }
+    int exp = 63 - Long.numberOfLeadingZeros(nanos);
+    return (exp - SUB_BUCKET_BITS + 1) * SUB_BUCKETS
+        + (int) ((nanos >>> (exp - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+  }
+
+  /*
+   * Return the highest latency held by a histogram bucket.
+   */
+  private static long bucketUpperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lower + (1L << shift) - 1;
+  }
+
+  /*
+   * Counters for a single operation.
+   */
+  private static final class Recorder {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder traversed = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxTraversed = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    void record(long nanos, long nodes) {
+      count.increment();
+      totalNanos.add(nanos);
+      traversed.add(nodes);
+      maxNanos.accumulate(nanos);
+      maxTraversed.accumulate(nodes);
+      histogram.incrementAndGet(bucket(nanos));
+    }
+
+    OperationStats snapshot() {
+      long[] buckets = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; i++) {
+        buckets[i] = histogram.get(i);
+      }
+      return new OperationStats(count.sum(), totalNanos.sum(), maxNanos.get(), traversed.sum(),
+          maxTraversed.get(), buckets);
+    }
+
+    void reset() {
+      count.reset();
+      totalNanos.reset();
+      traversed.reset();
+      maxNanos.reset();
+      maxTraversed.reset();
+      for (int i = 0; i < BUCKETS; i++) {
+        histogram.set(i, 0);
+      }
+    }
+  }
+
+  /*
+   * Statistics recorded for a single operation, copied by snapshot().
+   *
+   * Public methods:
+   *    getCount() : Number of times the operation was made.
+   *    getMeanNanos() : Mean latency of the operation.
+   *    getMaxNanos() : Highest latency of the operation.
+   *    getPercentileNanos(double p) : Latency below which p percent of the operations fell.
+   *    getNodesTraversed() : Total number of nodes walked over by the operation.
+   *    getMaxNodesTraversed() : Highest number of nodes walked over by a single operation.
+   */
+  public static final class OperationStats {
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long nodesTraversed;
+    private final long maxNodesTraversed;
+    private final long[] buckets;
+
+    private OperationStats(long count, long totalNanos, long maxNanos, long nodesTraversed,
+        long maxNodesTraversed, long[] buckets) {
+      this.count = count;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+      this.nodesTraversed = nodesTraversed;
+      this.maxNodesTraversed = maxNodesTraversed;
+      this.buckets = buckets;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    public double getMeanNanos() {
+      return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    public long getNodesTraversed() {
+      return nodesTraversed;
+    }
+
+    public long getMaxNodesTraversed() {
+      return maxNodesTraversed;
+    }
+
+    /*
+     * Return the latency below which the specified percentage of the operations fell, to within
+     * the width of a histogram bucket. Returns 0 if no operations were recorded.
+     *
+     * @param   percentile : percentage of operations, from 0 to 100.
+     */
+    public long getPercentileNanos(double percentile) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException("Illegal percentile: " + percentile);
+      }
+      long total = 0;
+      for (long n : buckets) {
+        total += n;
+      }
+      if (total == 0) {
+        return 0;
+      }
+      long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+      long seen = 0;
+      for (int i = 0; i < buckets.length; i++) {
+        seen += buckets[i];
+        if (seen >= target) {
+          return Math.min(bucketUpperBound(i), maxNanos);
+        }
+      }
+      return maxNanos;
+    }
+
+    public String toString() {
+      return "count=" + count + " mean=" + (long) getMeanNanos() + "ns p50="
+          + getPercentileNanos(50) + "ns p99=" + getPercentileNanos(99) + "ns max=" + maxNanos
+          + "ns traversed=" + nodesTraversed;
+    }
+  }
+}
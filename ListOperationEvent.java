@@ -0,0 +1,49 @@
+package com.cqueltech.linkedlist;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/*
+ * Java Flight Recorder event committed by ListMetrics for a list operation that took longer
+ * than its slow operation threshold. The event records how many nodes the operation walked
+ * over and the size of the list, which shows whether a slow operation was caused by a long
+ * traversal. A stack trace is recorded so the caller can be found.
+ *
+ * Like any JFR event it is only written while a recording with the event enabled is running,
+ * for example with -XX:StartFlightRecording or the jcmd JFR.start command.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+@Name("com.cqueltech.linkedlist.SlowListOperation")
+@Label("Slow List Operation")
+@Category({"Cqueltech", "Linked List"})
+@Description("A linked list operation that took longer than the slow operation threshold")
+@StackTrace(true)
+final class ListOperationEvent extends Event {
+
+  @Label("List Type")
+  String listType;
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Index")
+  @Description("Index passed to the operation, or found by indexOf(), -1 if none")
+  int index;
+
+  @Label("Nodes Traversed")
+  long nodesTraversed;
+
+  @Label("List Size")
+  int listSize;
+
+  @Label("Elapsed")
+  @Timespan(Timespan.NANOSECONDS)
+  long elapsed;
+}
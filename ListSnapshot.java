@@ -0,0 +1,190 @@
+package com.cqueltech.linkedlist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ * Reads and writes snapshots of a list on disk, used by the save() and load() methods of
+ * SLinkedList and DLinkedList. A snapshot is a short header followed by every element of the
+ * list, in order, each converted to a fixed number of bytes by an IElementCodec:
+ *
+ *    magic (int) | version (int) | element width (int) | reserved (int) | count (long) |
+ *    count * width bytes of elements
+ *
+ * All values are big endian. As every element has the same width the file holds no per-element
+ * framing and can be read back with plain offsets.
+ *
+ * A snapshot is written into a direct buffer and passed to a FileChannel one large block at a
+ * time, so the file is written sequentially with one system call per block rather than per
+ * element. It is written to a temporary file next to the target which is then moved over it,
+ * so a reader never sees a partly written snapshot. A snapshot is read by mapping the file into
+ * memory. The operating system pages the file in as the elements are decoded, so loading a list
+ * costs one pass over the mapped bytes with no read calls at all.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+final class ListSnapshot {
+
+  private static final int MAGIC = 0x43514C53; // "CQLS"
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 24;
+
+  // Size of the buffer each block of elements is encoded into before it is written.
+  private static final int BLOCK_BYTES = 1 << 20;
+
+  private ListSnapshot() {
+  }
+
+  /*
+   * Write the elements of a list to a snapshot file, replacing any existing file.
+   *
+   * @param   list : list whose elements are written, from head to tail.
+   * @param   path : file the snapshot is written to.
+   * @param   codec : converts each element to bytes.
+   */
+  static <T> void write(ILinkedList<T> list, Path path, IElementCodec<T> codec)
+      throws IOException {
+    int width = checkWidth(codec);
+    Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+    ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(width, BLOCK_BYTES / width * width));
+    try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(0).putLong(list.getSize());
+      header.flip();
+      writeFully(channel, header);
+
+      int offset = 0;
+      for (SNode<T> node = list.getHead(); node != null; node = node.getNext()) {
+        if (offset + width > buffer.capacity()) {
+          buffer.limit(offset);
+          writeFully(channel, buffer);
+          buffer.clear();
+          offset = 0;
+        }
+        codec.write(buffer, offset, node.getObject());
+        offset += width;
+      }
+      buffer.limit(offset);
+      writeFully(channel, buffer);
+      channel.force(false);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(tmp);
+      throw e;
+    }
+    Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /*
+   * Map a snapshot file into memory and return its elements, in order, as an Iterable which
+   * decodes each element from the mapped bytes as it is visited. The header is checked before
+   * returning. The mapping stays valid after the file is closed, until the Iterable is no
+   * longer referenced.
+   *
+   * @param   path : file the snapshot is read from.
+   * @param   codec : converts the bytes of each element back to an object, must have the same
+   *                  width as the codec the snapshot was written with.
+   */
+  static <T> Iterable<T> read(Path path, IElementCodec<T> codec) throws IOException {
+    int width = checkWidth(codec);
+    MappedByteBuffer[] segments;
+    long count;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long fileSize = channel.size();
+      if (fileSize < HEADER_BYTES) {
+        throw new IOException("Not a list snapshot: " + path);
+      }
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+      if (header.getInt(0) != MAGIC) {
+        throw new IOException("Not a list snapshot: " + path);
+      }
+      if (header.getInt(4) != VERSION) {
+        throw new IOException("Unsupported snapshot version " + header.getInt(4) + ": " + path);
+      }
+      if (header.getInt(8) != width) {
+        throw new IOException("Snapshot element width " + header.getInt(8)
+            + " does not match codec width " + width + ": " + path);
+      }
+      count = header.getLong(16);
+      if (count < 0 || count > Integer.MAX_VALUE
+          || fileSize != HEADER_BYTES + count * width) {
+        throw new IOException("Truncated or corrupt list snapshot: " + path);
+      }
+
+      // A single mapping is limited to 2GB, larger files are mapped in segments that each hold
+      // a whole number of elements.
+      long segmentBytes = (Integer.MAX_VALUE / width) * (long) width;
+      long dataBytes = count * width;
+      segments = new MappedByteBuffer[(int) ((dataBytes + segmentBytes - 1) / segmentBytes)];
+      for (int i = 0; i < segments.length; i++) {
+        long start = i * segmentBytes;
+        segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + start,
+            Math.min(segmentBytes, dataBytes - start));
+        segments[i].order(ByteOrder.BIG_ENDIAN);
+      }
+    }
+    return () -> new SnapshotReader<>(segments, codec, width);
+  }
+
+  private static int checkWidth(IElementCodec<?> codec) {
+    if (codec == null) {
+      throw new NullPointerException();
+    }
+    int width = codec.width();
+    if (width <= 0) {
+      throw new IllegalArgumentException("Illegal codec width: " + width);
+    }
+    return width;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /*
+   * Iterator decoding the elements of a mapped snapshot, segment by segment.
+   */
+  private static final class SnapshotReader<T> implements Iterator<T> {
+
+    private final MappedByteBuffer[] segments;
+    private final IElementCodec<T> codec;
+    private final int width;
+    private int segment;
+    private int offset;
+
+    private SnapshotReader(MappedByteBuffer[] segments, IElementCodec<T> codec, int width) {
+      this.segments = segments;
+      this.codec = codec;
+      this.width = width;
+    }
+
+    public boolean hasNext() {
+      return segment < segments.length && offset < segments[segment].capacity();
+    }
+
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      T object = codec.read(segments[segment], offset);
+      offset += width;
+      if (offset == segments[segment].capacity()) {
+        segment++;
+        offset = 0;
+      }
+      return object;
+    }
+  }
+}
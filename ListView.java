@@ -0,0 +1,291 @@
+package com.cqueltech.linkedlist;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * A lazy, read-only view over a run of nodes of an SLinkedList or DLinkedList, created by the
+ * lists' filtered(), mapped() and subList() methods. A view holds no elements of its own.
+ * filtered(), mapped() and subList() on a view return a new view in constant time, and nothing
+ * is evaluated until the view is iterated. A pipeline of views is then evaluated in a single
+ * walk along the list's nodes, without allocating nodes or copying elements in between.
+ *
+ * Consecutive filtered() and mapped() calls are fused into a single stage holding one composed
+ * function, which returns a marker in place of an element that has been filtered out. A
+ * subList() of a view that has not been filtered is anchored directly on the node at the start
+ * of the range, so the nodes before it are not visited. A subList() of a filtered view has to
+ * count the elements that pass the filter, so it becomes a window (skip and limit) on the last
+ * stage, and iteration ends as soon as the window is full.
+ *
+ * The list should not be structurally modified while a view over it is in use. The size of a
+ * filtered view is only known by iterating it, so subList() clamps a range that runs past the
+ * end of such a view rather than throwing an exception.
+ *
+ * Class variables: first - Stores the first node of the list visited by the view.
+ *                  count - Number of nodes visited, starting at the first.
+ *                  stages - Stores the fused stages applied to each element, in order.
+ *
+ * Public methods:
+ *    filtered(Predicate p) : Return a view of the elements that match the predicate.
+ *    mapped(Function f) : Return a view of the results of applying the function to each element.
+ *    subList(int from, int to) : Return a view of the elements from index 'from' (inclusive) to
+ *                                'to' (exclusive).
+ *    iterator() : Return an Iterator that evaluates the view.
+ *    stream() : Return a sequential Stream that evaluates the view.
+ *    toSLinkedList() : Copy the elements of the view into a new SLinkedList.
+ *    toDLinkedList() : Copy the elements of the view into a new DLinkedList.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public final class ListView<T> implements Iterable<T> {
+
+  // Returned by a stage's function in place of an element that has been filtered out.
+  private static final Object SKIP = new Object();
+
+  private static final Stage[] NO_STAGES = new Stage[0];
+
+  /*
+   * A fused run of filters and maps, followed by an optional window. Elements returned by the
+   * function (other than SKIP) are passed on once 'skip' of them have been dropped, until
+   * 'limit' of them have been passed on.
+   */
+  private static final class Stage {
+    private final Function<Object, Object> function;
+    private final long skip;
+    private final long limit;
+
+    private Stage(Function<Object, Object> function, long skip, long limit) {
+      this.function = function;
+      this.skip = skip;
+      this.limit = limit;
+    }
+
+    private boolean hasWindow() {
+      return skip != 0 || limit != Long.MAX_VALUE;
+    }
+  }
+
+  private final SNode<?> first;
+  private final int count;
+  private final Stage[] stages;
+  // True while every element visited produces exactly one element of the view, so that the
+  // view's size is 'count' and a subList() can be anchored on the nodes.
+  private final boolean oneToOne;
+
+  private ListView(SNode<?> first, int count, Stage[] stages, boolean oneToOne) {
+    this.first = count == 0 ? null : first;
+    this.count = count;
+    this.stages = stages;
+    this.oneToOne = oneToOne;
+  }
+
+  /*
+   * Return a view of the specified number of nodes, starting at the specified node.
+   */
+  static <T> ListView<T> of(SNode<T> first, int count) {
+    return new ListView<>(first, count, NO_STAGES, true);
+  }
+
+  /*
+   * Return a view of the elements of this view that match the predicate. The predicate is
+   * evaluated when the view is iterated.
+   *
+   * @param   predicate : test an element must pass to be included.
+   */
+  @SuppressWarnings("unchecked")
+  public ListView<T> filtered(Predicate<? super T> predicate) {
+    if (predicate == null) {
+      throw new NullPointerException();
+    }
+    Function<Object, Object> filter = x -> predicate.test((T) x) ? x : SKIP;
+    return new ListView<>(first, count, fuse(filter), false);
+  }
+
+  /*
+   * Return a view of the results of applying the function to each element of this view. The
+   * function is evaluated when the view is iterated.
+   *
+   * @param   mapper : function applied to each element.
+   */
+  @SuppressWarnings("unchecked")
+  public <R> ListView<R> mapped(Function<? super T, ? extends R> mapper) {
+    if (mapper == null) {
+      throw new NullPointerException();
+    }
+    Function<Object, Object> map = x -> mapper.apply((T) x);
+    return new ListView<>(first, count, fuse(map), oneToOne);
+  }
+
+  /*
+   * Return a view of the elements of this view from index 'from' (inclusive) to 'to'
+   * (exclusive). If this view has not been filtered the new view starts at the node at 'from',
+   * which is found by walking the nodes once, now. Otherwise it counts the elements that pass
+   * the filters as it is iterated.
+   *
+   * @param   from : index of the first element of the view.
+   * @param   to : index after the last element of the view.
+   */
+  public ListView<T> subList(int from, int to) {
+    if (from < 0 || from > to) {
+      throw new IndexOutOfBoundsException("fromIndex: " + from + ", toIndex: " + to);
+    }
+    if (oneToOne) {
+      if (to > count) {
+        throw new IndexOutOfBoundsException("toIndex: " + to + " out of bounds. View size: "
+            + count);
+      }
+      SNode<?> node = first;
+      for (int i = 0; i < from; i++) {
+        node = node.getNext();
+      }
+      return new ListView<>(node, to - from, stages, true);
+    }
+    Stage[] windowed = Arrays.copyOf(stages, stages.length);
+    Stage last = windowed[windowed.length - 1];
+    long limit = Math.max(0, Math.min(last.limit - from, (long) to - from));
+    windowed[windowed.length - 1] = new Stage(last.function, last.skip + from, limit);
+    return new ListView<>(first, count, windowed, false);
+  }
+
+  /*
+   * Returns an Iterator that evaluates the view, walking the list's nodes once.
+   */
+  public Iterator<T> iterator() {
+    return new ViewIterator();
+  }
+
+  /*
+   * Returns a Spliterator that evaluates the view. Its size is known only if the view has not
+   * been filtered.
+   */
+  public Spliterator<T> spliterator() {
+    if (oneToOne) {
+      return Spliterators.spliterator(iterator(), count, Spliterator.ORDERED);
+    }
+    return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+  }
+
+  /*
+   * Returns a sequential Stream that evaluates the view.
+   */
+  public Stream<T> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /*
+   * Copy the elements of the view, in order, into a new SLinkedList. The view is evaluated in
+   * a single pass and the new nodes are linked to the list in one step.
+   */
+  public SLinkedList<T> toSLinkedList() {
+    SLinkedList<T> list = new SLinkedList<>();
+    list.addAll(this);
+    return list;
+  }
+
+  /*
+   * Copy the elements of the view, in order, into a new DLinkedList. The view is evaluated in
+   * a single pass and the new nodes are linked to the list in one step.
+   */
+  public DLinkedList<T> toDLinkedList() {
+    DLinkedList<T> list = new DLinkedList<>();
+    list.addAll(this);
+    return list;
+  }
+
+  /*
+   * Return the stages with the specified function fused onto the last one, or added as a new
+   * stage if the last stage has a window (the function must then only see the elements that
+   * pass through the window).
+   */
+  private Stage[] fuse(Function<Object, Object> function) {
+    if (stages.length == 0 || stages[stages.length - 1].hasWindow()) {
+      Stage[] added = Arrays.copyOf(stages, stages.length + 1);
+      added[stages.length] = new Stage(function, 0, Long.MAX_VALUE);
+      return added;
+    }
+    Stage[] fused = Arrays.copyOf(stages, stages.length);
+    Function<Object, Object> previous = stages[stages.length - 1].function;
+    fused[stages.length - 1] = new Stage(x -> {
+      Object y = previous.apply(x);
+      return y == SKIP ? SKIP : function.apply(y);
+    }, 0, Long.MAX_VALUE);
+    return fused;
+  }
+
+  /*
+   * Iterator evaluating the view. Each call to hasNext() walks the nodes until an element has
+   * passed every stage, or the nodes or a stage's window run out.
+   */
+  private final class ViewIterator implements Iterator<T> {
+
+    private SNode<?> node;
+    private int remaining;
+    private final long[] skipped;
+    private final long[] passed;
+    private Object nextObject;
+    private boolean ready;
+    private boolean done;
+
+    private ViewIterator() {
+      this.node = first;
+      this.remaining = count;
+      this.skipped = new long[stages.length];
+      this.passed = new long[stages.length];
+      for (Stage stage : stages) {
+        if (stage.limit == 0) {
+          this.done = true;
+        }
+      }
+    }
+
+    public boolean hasNext() {
+      element:
+      while (!ready && !done) {
+        if (node == null || remaining == 0) {
+          done = true;
+          break;
+        }
+        Object object = node.getObject();
+        node = node.getNext();
+        remaining--;
+        for (int i = 0; i < stages.length; i++) {
+          Stage stage = stages[i];
+          object = stage.function.apply(object);
+          if (object == SKIP) {
+            continue element;
+          }
+          if (skipped[i] < stage.skip) {
+            skipped[i]++;
+            continue element;
+          }
+          if (++passed[i] == stage.limit) {
+            // No later element can pass this stage, so this is the last of the view.
+            done = true;
+          }
+        }
+        nextObject = object;
+        ready = true;
+      }
+      return ready;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      ready = false;
+      T object = (T) nextObject;
+      nextObject = null;
+      return object;
+    }
+  }
+}
@@ -0,0 +1,373 @@
+package com.cqueltech.linkedlist;
+
+import java.util.NoSuchElementException;
+
+/*
+ * A custom linked list class. This class denotes a doubly linked list of primitive long values.
+ * It mirrors DLinkedList, but each node stores a long directly rather than a reference to a
+ * Long, so adding, polling and searching never box values or create garbage beyond the node
+ * itself. Uses the nested Node class to generate elements for the list.
+ *
+ * As a primitive value cannot be null, poll(), pollTail(), peek() and peekTail() throw a
+ * NoSuchElementException when the list is empty rather than returning null.
+ *
+ * Class variables: head - Stores the first node in the list.
+ *                  tail - Stores the last node in the list.
+ *                  listSize - Stores the current size of the list.
+ *
+ * Public methods:
+ *    add(long value) : Add an element to the end of the list.
+ *    add(long value, int idx) : Insert element into list at specified index.
+ *    remove(int idx) : Remove an element from the list at the specified index.
+ *    poll() : Retrieves and removes the head (first element) of this list.
+ *    pollTail() : Retrieves and removes the tail (last element) of this list.
+ *    peek() : Retrieves the head (first element) of this list.
+ *    peekTail() : Retrieves the tail (last element) of this list.
+ *    indexOf(long value) : Return the index of the first element equal to the value.
+ *    contains(long value) : Returns true if the list contains the value.
+ *    iterator() : Return a ListIterator object to alow us to iterate through a list and
+ *                 manipulate the nodes it contains.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public class LongDLinkedList {
+
+  /*
+   * Element of the list. Stores a long value and references/pointers to the previous and
+   * next nodes.
+   */
+  private static final class Node {
+    private long value;
+    private Node prev;
+    private Node next;
+
+    private Node(long value) {
+      this.value = value;
+    }
+  }
+
+  private Node head;
+  private Node tail;
+  private int listSize;
+
+  public LongDLinkedList() {
+    this.head = null;
+    this.tail = null;
+    this.listSize = 0;
+  }
+
+  /*
+   * Return boolean, true if list is empty, false if not.
+   */
+  public boolean isEmpty() {
+    return listSize == 0;
+  }
+
+  /*
+   * Return the number of elements in the list.
+   */
+  public int size() {
+    return listSize;
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element to the end of the list.
+   *
+   * @param value : value which will be stored in the new node.
+   *
+   */
+  public void add(long value) {
+    linkBefore(new Node(value), null);
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element at a specific location within the list.
+   * Set index to 0 to add at beginning of list.
+   * Set index equal to list size to add to end of list.
+   *
+   * @param value : value which will be stored in the new node.
+   *
+   * @param idx : Position within the list that the new node is to be inserted.
+   *
+   */
+  public void add(long value, int idx) {
+    if (idx < 0 || idx > listSize) {
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(idx));
+    }
+    linkBefore(new Node(value), idx == listSize ? null : node(idx));
+  }
+
+  /*
+   * Remove an element from the list at the specified index.
+   *
+   * @param idx : acts as indentifier for element to be removed from list.
+   *
+   */
+  public void remove(int idx) {
+    if (idx < 0 || idx >= listSize) {
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(idx));
+    }
+    unlink(node(idx));
+  }
+
+  /*
+   * Retrieves and removes the head (first element) of this list. Throws a
+   * NoSuchElementException if the list is empty.
+   */
+  public long poll() {
+    if (head == null) {
+      throw new NoSuchElementException();
+    }
+    long value = head.value;
+    unlink(head);
+    return value;
+  }
+
+  /*
+   * Retrieves and removes the tail (last element) of this list. Throws a
+   * NoSuchElementException if the list is empty.
+   */
+  public long pollTail() {
+    if (tail == null) {
+      throw new NoSuchElementException();
+    }
+    long value = tail.value;
+    unlink(tail);
+    return value;
+  }
+
+  /*
+   * Retrieves, but does not remove, the head (first element) of this list. Throws a
+   * NoSuchElementException if the list is empty.
+   */
+  public long peek() {
+    if (head == null) {
+      throw new NoSuchElementException();
+    }
+    return head.value;
+  }
+
+  /*
+   * Retrieves, but does not remove, the tail (last element) of this list. Throws a
+   * NoSuchElementException if the list is empty.
+   */
+  public long peekTail() {
+    if (tail == null) {
+      throw new NoSuchElementException();
+    }
+    return tail.value;
+  }
+
+  /*
+   * Return the index of node that contains specified value, -1 if not found.
+   *
+   * @param   value : value that is being searched for.
+   */
+  public int indexOf(long value) {
+    int idx = 0;
+    for (Node n = head; n != null; n = n.next) {
+      if (n.value == value) {
+        return idx;
+      }
+      idx++;
+    }
+    return -1;
+  }
+
+  /*
+   * Determine if list contains the specified value. Returns true if the value is present.
+   *
+   * @param   value : value being searched for.
+   */
+  public boolean contains(long value) {
+    return indexOf(value) >= 0;
+  }
+
+  /*
+   * Returns an object of ListIterator, used to iterate forwards through the list.
+   */
+  public ILongIterator iterator() {
+    return new ListIterator(IIterator.IteratorDirection.FORWARD);
+  }
+
+  /*
+   * Returns an object of ListIterator, used to iterate through the list in the specified
+   * direction.
+   */
+  public ILongIterator iterator(IIterator.IteratorDirection direction) {
+    return new ListIterator(direction);
+  }
+
+  /*
+   * Return the node at the specified index, walking from whichever end of the list is closer.
+   * Index must already have been validated.
+   */
+  private Node node(int idx) {
+    Node n;
+    if (idx < (listSize >>> 1)) {
+      n = head;
+      for (int i = 0; i < idx; i++) {
+        n = n.next;
+      }
+    } else {
+      n = tail;
+      for (int i = listSize - 1; i > idx; i--) {
+        n = n.prev;
+      }
+    }
+    return n;
+  }
+
+  /*
+   * Link a new node into the list before the specified node. If the specified node is null
+   * the new node becomes the tail of the list.
+   */
+  private void linkBefore(Node newNode, Node succ) {
+    Node pred = succ == null ? tail : succ.prev;
+    newNode.prev = pred;
+    newNode.next = succ;
+    if (pred == null) {
+      head = newNode;
+    } else {
+      pred.next = newNode;
+    }
+    if (succ == null) {
+      tail = newNode;
+    } else {
+      succ.prev = newNode;
+    }
+    listSize++;
+  }
+
+  /*
+   * Unlink the specified node from the list and clear its references.
+   */
+  private void unlink(Node node) {
+    Node pred = node.prev;
+    Node succ = node.next;
+    if (pred == null) {
+      head = succ;
+    } else {
+      pred.next = succ;
+    }
+    if (succ == null) {
+      tail = pred;
+    } else {
+      succ.prev = pred;
+    }
+    node.prev = null;
+    node.next = null;
+    listSize--;
+  }
+
+  private String outOfBoundsMsg(int idx) {
+    return "Index: " + idx + "out of bounds. Collection size: " + listSize;
+  }
+
+  /*
+   * Iterator class to allow list to be travesersed bidirectionally. Follows the same rules
+   * as the DLinkedList iterator.
+   *
+   *    Note: remove(), addBefore() and addAfter() throw an IllegalStateException when there
+   *          is no current node.
+   */
+  private class ListIterator implements ILongIterator {
+
+    private Node prev;
+    private Node curr;
+    private Node next;
+
+    private ListIterator(IIterator.IteratorDirection direction) {
+      if (direction == IIterator.IteratorDirection.FORWARD) {
+        this.prev = null;
+        this.next = head;
+      } else {
+        this.prev = tail;
+        this.next = null;
+      }
+      this.curr = null;
+    }
+
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    /*
+     * Target the next node in the list. The previous node is taken to be the node now linked
+     * before the next node, so any nodes added after the current node are not visited.
+     */
+    public void next() {
+      prev = next.prev;
+      curr = next;
+      next = curr.next;
+    }
+
+    public boolean hasPrev() {
+      return prev != null;
+    }
+
+    /*
+     * Target the previous node in the list. The next node is taken to be the node now linked
+     * after the previous node, so any nodes added before the current node are not visited.
+     */
+    public void prev() {
+      next = prev.next;
+      curr = prev;
+      prev = curr.prev;
+    }
+
+    public long get() {
+      if (curr == null) {
+        throw new IllegalStateException();
+      }
+      return curr.value;
+    }
+
+    public void set(long value) {
+      if (curr != null) {
+        curr.value = value;
+      }
+    }
+
+    /*
+     * Removes the current node from the list. The previous and next nodes to the one being
+     * removed will have their 'next'/'prev' references set to point to one another.
+     */
+    public void remove() {
+      checkCurrent();
+      unlink(curr);
+      curr = null;
+    }
+
+    /*
+     * Add a new node before the current node. Not visited when iterating backwards, in the
+     * same way as for DLinkedList.
+     */
+    public void addBefore(long value) {
+      checkCurrent();
+      linkBefore(new Node(value), curr);
+    }
+
+    /*
+     * Add a new node after the current node. Not visited when iterating forwards, in the
+     * same way as for DLinkedList.
+     */
+    public void addAfter(long value) {
+      checkCurrent();
+      linkBefore(new Node(value), curr.next);
+    }
+
+    /*
+     * Throw an IllegalStateException if there is no current node, because next() has not been
+     * called or the current node has been removed.
+     */
+    private void checkCurrent() {
+      if (curr == null) {
+        throw new IllegalStateException("Iterator has no current node");
+      }
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package com.cqueltech.linkedlist;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Sorts a chain of nodes by relinking them, used by the sort() and parallelSort() methods of
+ * SLinkedList and DLinkedList. Only the 'next' references are changed, the list fixes its head,
+ * tail and any 'prev' references afterwards. No nodes are created and no elements are copied.
+ *
+ * sort() is a bottom-up merge sort (as in Simon Tatham's list sort): each pass merges pairs of
+ * sorted runs of width 1, 2, 4 and so on, walking the chain from the head. It takes
+ * O(n log n) time and a constant amount of extra space, with no recursion, and is stable.
+ *
+ * parallelSort() splits the chain in half repeatedly down to runs of at least MIN_PARALLEL_RUN
+ * nodes, sorts the runs concurrently with fork/join tasks of the common pool using sort(), and
+ * merges the sorted halves back together by relinking. It is also stable.
+ *
+ * If the comparator throws an exception, the exception is recorded and every later comparison
+ * is treated as equal, so the sort still finishes with every node in a single chain (in an
+ * unspecified order). The list then rethrows the exception through rethrowFailure() once its
+ * head, tail and 'prev' references are consistent again.
+ *
+ * Class variables: comparator - Defines the order of the elements.
+ *                  failure - Stores the first exception thrown by the comparator.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+final class NodeSort<T> {
+
+  // Smallest run sorted by a single fork/join task.
+  private static final int MIN_PARALLEL_RUN = 1 << 13;
+
+  private final Comparator<? super T> comparator;
+  private volatile Throwable failure;
+
+  /*
+   * @param   comparator : defines the order of the elements, null for their natural ordering.
+   */
+  @SuppressWarnings("unchecked")
+  NodeSort(Comparator<? super T> comparator) {
+    this.comparator = comparator != null ? comparator
+        : (Comparator<? super T>) Comparator.naturalOrder();
+  }
+
+  /*
+   * Sort the chain of nodes starting at the specified node and return its new first node.
+   *
+   * @param   head : first node of the chain, the last node's next reference must be null.
+   */
+  SNode<T> sort(SNode<T> head) {
+    SNode<T> list = head;
+    for (int width = 1; ; width <<= 1) {
+      SNode<T> p = list;
+      SNode<T> tail = null;
+      int merges = 0;
+      list = null;
+      while (p != null) {
+        merges++;
+        // Step over the run starting at p to find the start of the run it is merged with.
+        SNode<T> q = p;
+        int pSize = 0;
+        while (pSize < width && q != null) {
+          pSize++;
+          q = q.getNext();
+        }
+        int qSize = width;
+        // Merge the two runs, taking from p when the elements are equal to keep the sort
+        // stable.
+        while (pSize > 0 || (qSize > 0 && q != null)) {
+          SNode<T> e;
+          if (pSize == 0) {
+            e = q;
+            q = q.getNext();
+            qSize--;
+          } else if (qSize == 0 || q == null || compare(p, q) <= 0) {
+            e = p;
+            p = p.getNext();
+            pSize--;
+          } else {
+            e = q;
+            q = q.getNext();
+            qSize--;
+          }
+          if (tail == null) {
+            list = e;
+          } else {
+            tail.setNext(e);
+          }
+          tail = e;
+        }
+        p = q;
+      }
+      tail.setNext(null);
+      if (merges <= 1) {
+        return list;
+      }
+    }
+  }
+
+  /*
+   * Sort the chain of nodes starting at the specified node using the common fork/join pool
+   * and return its new first node. Short chains are sorted on the calling thread.
+   *
+   * @param   head : first node of the chain, the last node's next reference must be null.
+   * @param   size : number of nodes in the chain.
+   */
+  SNode<T> parallelSort(SNode<T> head, int size) {
+    int run = Math.max(MIN_PARALLEL_RUN, size / (ForkJoinPool.getCommonPoolParallelism() * 4));
+    if (size < run * 2) {
+      return sort(head);
+    }
+    return ForkJoinPool.commonPool().invoke(new SortTask(head, size, run));
+  }
+
+  /*
+   * Throw the exception thrown by the comparator during the sort, if there was one.
+   */
+  void rethrowFailure() {
+    Throwable t = failure;
+    if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    } else if (t instanceof Error) {
+      throw (Error) t;
+    }
+  }
+
+  /*
+   * Compare the elements of two nodes. Once the comparator has thrown an exception every
+   * comparison is treated as equal.
+   */
+  private int compare(SNode<T> a, SNode<T> b) {
+    if (failure != null) {
+      return 0;
+    }
+    try {
+      return comparator.compare(a.getObject(), b.getObject());
+    } catch (RuntimeException | Error e) {
+      if (failure == null) {
+        failure = e;
+      }
+      return 0;
+    }
+  }
+
+  /*
+   * Merge two sorted chains of nodes by relinking them and return the first node of the
+   * merged chain. Equal elements are taken from the first chain first.
+   */
+  private SNode<T> merge(SNode<T> a, SNode<T> b) {
+    SNode<T> head;
+    if (compare(a, b) <= 0) {
+      head = a;
+      a = a.getNext();
+    } else {
+      head = b;
+      b = b.getNext();
+    }
+    SNode<T> tail = head;
+    while (a != null && b != null) {
+      if (compare(a, b) <= 0) {
+        tail.setNext(a);
+        tail = a;
+        a = a.getNext();
+      } else {
+        tail.setNext(b);
+        tail = b;
+        b = b.getNext();
+      }
+    }
+    tail.setNext(a != null ? a : b);
+    return head;
+  }
+
+  /*
+   * Fork/join task sorting a chain of nodes. A chain longer than twice the run size is cut in
+   * half, the first half is sorted by a forked task while this task sorts the second, and the
+   * two are merged.
+   */
+  private final class SortTask extends RecursiveTask<SNode<T>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SNode<T> head;
+    private final int size;
+    private final int run;
+
+    private SortTask(SNode<T> head, int size, int run) {
+      this.head = head;
+      this.size = size;
+      this.run = run;
+    }
+
+    protected SNode<T> compute() {
+      if (size < run * 2) {
+        return sort(head);
+      }
+      int half = size >>> 1;
+      SNode<T> last = head;
+      for (int i = 1; i < half; i++) {
+        last = last.getNext();
+      }
+      SNode<T> second = last.getNext();
+      last.setNext(null);
+      SortTask left = new SortTask(head, half, run);
+      left.fork();
+      SNode<T> right = new SortTask(second, size - half, run).compute();
+      return merge(left.join(), right);
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package com.cqueltech.linkedlist;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/*
+ * Spliterator over a chain of nodes, used to stream the elements of a linked list. Elements
+ * are traversed by following the 'next' reference of each node. The chain cannot be divided
+ * without walking it, so trySplit() copies the next batch of elements into an array and hands
+ * that array off to be processed by another thread, in the same way as java.util.LinkedList.
+ * Each split takes a larger batch than the last, so a long list is divided into a small number
+ * of chunks that grow with the amount of work remaining.
+ *
+ * A spliterator created with the size of the list reports ORDERED, SIZED and SUBSIZED and
+ * visits at most that number of elements. A spliterator created without a size reports
+ * ORDERED and CONCURRENT, and follows the chain until it reaches a null reference.
+ *
+ * Class variables: current - Stores the next node to be visited.
+ *                  est - Stores the number of elements remaining, if known.
+ *                  batch - Stores the size of the batch taken by the last split.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+class NodeSpliterator<T> implements Spliterator<T> {
+
+  static final int BATCH_UNIT = 1 << 10;
+  static final int MAX_BATCH = 1 << 25;
+
+  private SNode<T> current;
+  private long est;
+  private int batch;
+  private final boolean sized;
+
+  /*
+   * @param   head : first node to be visited, null if there are no elements.
+   * @param   size : number of elements in the chain starting at head.
+   */
+  NodeSpliterator(SNode<T> head, long size) {
+    this.current = size == 0 ? null : head;
+    this.est = size;
+    this.batch = 0;
+    this.sized = true;
+  }
+
+  /*
+   * @param   head : first node to be visited, null if there are no elements.
+   */
+  NodeSpliterator(SNode<T> head) {
+    this.current = head;
+    this.est = Long.MAX_VALUE;
+    this.batch = 0;
+    this.sized = false;
+  }
+
+  /*
+   * Return the node following the specified node, or null if it is the last node. Lists that
+   * link their nodes differently override this method.
+   */
+  SNode<T> successor(SNode<T> node) {
+    return node.getNext();
+  }
+
+  public boolean tryAdvance(Consumer<? super T> action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+    SNode<T> p = current;
+    if (p == null) {
+      return false;
+    }
+    SNode<T> next = successor(p);
+    if (sized && --est == 0) {
+      next = null;
+    }
+    current = next;
+    action.accept(p.getObject());
+    return true;
+  }
+
+  public void forEachRemaining(Consumer<? super T> action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+    SNode<T> p = current;
+    current = null;
+    if (sized) {
+      for (long n = est; n > 0 && p != null; n--) {
+        action.accept(p.getObject());
+        p = successor(p);
+      }
+      est = 0;
+    } else {
+      while (p != null) {
+        action.accept(p.getObject());
+        p = successor(p);
+      }
+    }
+  }
+
+  /*
+   * Copy the next batch of elements into an array and return a spliterator over the array,
+   * or null if there are too few elements left to be worth splitting.
+   */
+  public Spliterator<T> trySplit() {
+    SNode<T> p = current;
+    long s = est;
+    if (p == null || s <= 1) {
+      return null;
+    }
+    int n = batch + BATCH_UNIT;
+    if (n > s) {
+      n = (int) s;
+    }
+    if (n > MAX_BATCH) {
+      n = MAX_BATCH;
+    }
+    Object[] a = new Object[n];
+    int j = 0;
+    do {
+      a[j++] = p.getObject();
+      p = successor(p);
+    } while (p != null && j < n);
+    current = p;
+    batch = j;
+    if (sized) {
+      est = s - j;
+      if (est == 0) {
+        current = null;
+      }
+    }
+    return Spliterators.spliterator(a, 0, j, Spliterator.ORDERED);
+  }
+
+  public long estimateSize() {
+    return est;
+  }
+
+  public int characteristics() {
+    return sized
+        ? Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+        : Spliterator.ORDERED | Spliterator.CONCURRENT;
+  }
+
+  /*
+   * Return a spliterator over the elements visited by a forward cursor, for lists whose
+   * elements are not held in a chain of nodes. It splits in batches in the same way.
+   *
+   * @param   iterator : forward iterator positioned before the first element.
+   * @param   size : number of elements the iterator will visit.
+   */
+  static <T> Spliterator<T> of(ICursor<T> iterator, long size) {
+    Iterator<T> it = new Iterator<T>() {
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      public T next() {
+        if (!iterator.hasNext()) {
+          throw new NoSuchElementException();
+        }
+        iterator.next();
+        return iterator.get();
+      }
+    };
+    return Spliterators.spliterator(it, size, Spliterator.ORDERED);
+  }
+}
@@ -0,0 +1,481 @@
+package com.cqueltech.linkedlist;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+
+/*
+ * A custom linked list class. This class denotes a doubly linked list whose nodes are stored
+ * outside of the Java heap. Nodes live in a slab made up of direct ByteBuffer chunks and are
+ * identified by an int slot number. Each node is a fixed size record holding the slot numbers
+ * of the previous and next nodes followed by the element, which is written by a pluggable
+ * fixed width codec (see IElementCodec). The garbage collector only ever sees the handful of
+ * chunk buffers, however many elements the list holds.
+ *
+ * Slots freed by removing elements are kept on a free list and reused by later additions.
+ * The slab never shrinks, its memory is released when the list itself is garbage collected.
+ *
+ * Elements are copied in and out of the slab, so get(), poll() etc. return a new object
+ * decoded from the stored bytes, and changing an object after adding it does not change the
+ * list. indexOf() and contains() compare elements by their encoded bytes. Null elements are
+ * not permitted. The list has no SNode chain, so it implements IList rather than ILinkedList
+ * and its iterator is an ICursor.
+ *
+ * Class variables: head - Slot number of the first node in the list.
+ *                  tail - Slot number of the last node in the list.
+ *                  listSize - Stores the current size of the list.
+ *                  chunks - Direct buffers holding the node records.
+ *                  freeHead - Slot number of the first free node record.
+ *
+ * Public methods:
+ *    add(Object object) : Add an element to the end of the list.
+ *    add(Object object, int index) : Insert element into list at specified index.
+ *    remove(int idx) : Remove an element from the list at the specified index.
+ *    get(int idx) : Retrieves the element at the specified index.
+ *    set(int idx, Object object) : Replaces the element at the specified index.
+ *    poll() : Retrieves and removes the head (first element) of this list.
+ *    pollTail() : Retrieves and removes the tail (last element) of this list.
+ *    iterator() : Return a ListIterator object to alow us to iterate through a list and
+ *                 manipulate the nodes it contains.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public class OffHeapDLinkedList<T> implements IList<T> {
+
+  // Slot number used in place of a null reference.
+  private static final int NIL = -1;
+  // Layout of a node record: previous slot, next slot, then the encoded element.
+  private static final int PREV = 0;
+  private static final int NEXT = 4;
+  private static final int DATA = 8;
+  // Each chunk holds 8192 node records.
+  private static final int CHUNK_SHIFT = 13;
+  private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+  private final IElementCodec<T> codec;
+  private final int stride;
+  private final ByteBuffer key;
+  private ByteBuffer[] chunks;
+  private int allocated;
+  private int freeHead;
+  private int head;
+  private int tail;
+  private int listSize;
+
+  /*
+   * @param   codec : converts elements to and from the fixed number of bytes stored in
+   *                  each node.
+   */
+  public OffHeapDLinkedList(IElementCodec<T> codec) {
+    this.codec = codec;
+    this.stride = DATA + codec.width();
+    this.key = ByteBuffer.allocate(codec.width()).order(ByteOrder.nativeOrder());
+    this.chunks = new ByteBuffer[8];
+    this.allocated = 0;
+    this.freeHead = NIL;
+    this.head = NIL;
+    this.tail = NIL;
+    this.listSize = 0;
+  }
+
+  public int getSize() {
+    return listSize;
+  }
+
+  /*
+   * Return boolean, true if list is empty, false if not.
+   */
+  public boolean isEmpty() {
+    return head == NIL;
+  }
+
+  /*
+   * Retrieves, but does not remove, the head (first element) of this list.
+   * Returns null if list is empty
+   */
+  public T peek() {
+    return head == NIL ? null : object(head);
+  }
+
+  /*
+   * Retrieves, but does not remove, the tail (last element) of this list.
+   * Returns null if list is empty
+   */
+  public T peekTail() {
+    return tail == NIL ? null : object(tail);
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element to the end of the list.
+   *
+   * @param object : Parameter of type 'object' which will be written to the new node.
+   *
+   */
+  public void add(T object) {
+    linkBefore(allocate(object), NIL);
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element at a specific location within the list.
+   * Set index to 0 to add at beginning of list.
+   * Set index equal to list size to add to end of list.
+   *
+   * @param object : Parameter of type 'object' which will be written to the new node.
+   *
+   * @param idx : Parameter of type 'int'. Position within the list that the new
+   * node is to be added.
+   *
+   */
+  public void add(T object, int idx) {
+    checkPositionIndexValid(idx);
+    linkBefore(allocate(object), idx == listSize ? NIL : node(idx));
+  }
+
+  /*
+   * Remove an element from the list at the specified index.
+   *
+   * @param idx : Parameter of type 'int', acts as indentifier for element to be
+   * removed from list
+   *
+   */
+  public void remove(int idx) {
+    checkNodeIndexValid(idx);
+    unlink(node(idx));
+  }
+
+  /*
+   * Retrieves, but does not remove, the element at the specified index.
+   *
+   * @param idx : Parameter of type 'int', position of the element to be retrieved.
+   *
+   */
+  public T get(int idx) {
+    checkNodeIndexValid(idx);
+    return object(node(idx));
+  }
+
+  /*
+   * Replaces the element stored at the specified index. Returns the element previously
+   * stored at that position.
+   *
+   * @param idx : Parameter of type 'int', position of the element to be replaced.
+   *
+   * @param object : Parameter of type 'object' to be stored at the specified position.
+   *
+   */
+  public T set(int idx, T object) {
+    Objects.requireNonNull(object);
+    checkNodeIndexValid(idx);
+    int node = node(idx);
+    T oldObject = object(node);
+    codec.write(chunk(node), offset(node) + DATA, object);
+    return oldObject;
+  }
+
+  /*
+   * Retrieves and removes the head (first element) of this list. Returns null if list
+   * is empty
+   */
+  public T poll() {
+    if (head == NIL) {
+      return null;
+    }
+    T object = object(head);
+    unlink(head);
+    return object;
+  }
+
+  /*
+   * Retrieves and removes the tail (last element) of this list. Returns
+   * null if list is empty.
+   */
+  public T pollTail() {
+    if (tail == NIL) {
+      return null;
+    }
+    T object = object(tail);
+    unlink(tail);
+    return object;
+  }
+
+  /*
+   * Return the index of node that contains specified data item. The item is encoded once and
+   * its bytes compared with those stored in each node, so no elements are decoded.
+   *
+   * @param   object : item that is being searched for.
+   */
+  public int indexOf(T object) {
+    if (object == null) {
+      return -1;
+    }
+    codec.write(key, 0, object);
+    int width = codec.width();
+    int idx = 0;
+    for (int n = head; n != NIL; n = next(n)) {
+      ByteBuffer chunk = chunk(n);
+      int off = offset(n) + DATA;
+      int i = 0;
+      while (i + Long.BYTES <= width && chunk.getLong(off + i) == key.getLong(i)) {
+        i += Long.BYTES;
+      }
+      if (i + Long.BYTES > width) {
+        while (i < width && chunk.get(off + i) == key.get(i)) {
+          i++;
+        }
+      }
+      if (i == width) {
+        return idx;
+      }
+      idx++;
+    }
+    return -1;
+  }
+
+  /*
+   * Returns an object of ListIterator, used to iterate through the list in the specified
+   * direction.
+   */
+  public ICursor<T> iterator(IIterator.IteratorDirection direction) {
+    return new ListIterator(direction);
+  }
+
+  /*
+   * Returns a Spliterator over the elements in the list, from head to tail. The elements are
+   * not held in a chain of SNodes, so they are read through a forward iterator.
+   */
+  public Spliterator<T> spliterator() {
+    return NodeSpliterator.of(new ListIterator(IIterator.IteratorDirection.FORWARD), listSize);
+  }
+
+  private ByteBuffer chunk(int node) {
+    return chunks[node >>> CHUNK_SHIFT];
+  }
+
+  private int offset(int node) {
+    return (node & CHUNK_MASK) * stride;
+  }
+
+  private int prev(int node) {
+    return chunk(node).getInt(offset(node) + PREV);
+  }
+
+  private int next(int node) {
+    return chunk(node).getInt(offset(node) + NEXT);
+  }
+
+  private void setPrev(int node, int prev) {
+    chunk(node).putInt(offset(node) + PREV, prev);
+  }
+
+  private void setNext(int node, int next) {
+    chunk(node).putInt(offset(node) + NEXT, next);
+  }
+
+  private T object(int node) {
+    return codec.read(chunk(node), offset(node) + DATA);
+  }
+
+  /*
+   * Take a free node record, from the free list if possible, otherwise from the end of the
+   * slab, and write the object into it. Returns the node's slot number.
+   */
+  private int allocate(T object) {
+    Objects.requireNonNull(object);
+    int node = freeHead;
+    if (node == NIL) {
+      node = allocated;
+      if (node < 0) {
+        throw new IllegalStateException("Off-heap list slab is full");
+      }
+      int chunkIdx = node >>> CHUNK_SHIFT;
+      if (chunkIdx == chunks.length) {
+        chunks = Arrays.copyOf(chunks, chunks.length << 1);
+      }
+      if (chunks[chunkIdx] == null) {
+        chunks[chunkIdx] = ByteBuffer.allocateDirect(stride << CHUNK_SHIFT)
+            .order(ByteOrder.nativeOrder());
+      }
+    }
+    // Write the object before claiming the record so that a failing codec leaves the slab
+    // unchanged.
+    codec.write(chunk(node), offset(node) + DATA, object);
+    if (node == freeHead) {
+      freeHead = next(node);
+    } else {
+      allocated++;
+    }
+    return node;
+  }
+
+  /*
+   * Return the node at the specified index, walking from whichever end of the list is closer.
+   * Index must already have been validated.
+   */
+  private int node(int idx) {
+    int n;
+    if (idx < (listSize >>> 1)) {
+      n = head;
+      for (int i = 0; i < idx; i++) {
+        n = next(n);
+      }
+    } else {
+      n = tail;
+      for (int i = listSize - 1; i > idx; i--) {
+        n = prev(n);
+      }
+    }
+    return n;
+  }
+
+  /*
+   * Link a node into the list before the specified node. If the specified node is NIL
+   * the new node becomes the tail of the list.
+   */
+  private void linkBefore(int node, int succ) {
+    int pred = succ == NIL ? tail : prev(succ);
+    setPrev(node, pred);
+    setNext(node, succ);
+    if (pred == NIL) {
+      head = node;
+    } else {
+      setNext(pred, node);
+    }
+    if (succ == NIL) {
+      tail = node;
+    } else {
+      setPrev(succ, node);
+    }
+    listSize++;
+  }
+
+  /*
+   * Unlink the specified node from the list and return its record to the free list.
+   */
+  private void unlink(int node) {
+    int pred = prev(node);
+    int succ = next(node);
+    if (pred == NIL) {
+      head = succ;
+    } else {
+      setNext(pred, succ);
+    }
+    if (succ == NIL) {
+      tail = pred;
+    } else {
+      setPrev(succ, pred);
+    }
+    setNext(node, freeHead);
+    freeHead = node;
+    listSize--;
+  }
+
+  /*
+   * Iterator class to allow list to be travesersed bidirectionally. Follows the same rules
+   * as the DLinkedList iterator, holding slot numbers rather than node references.
+   *
+   *    Note: remove(), addBefore() and addAfter() throw an IllegalStateException when there
+   *          is no current node.
+   */
+  private class ListIterator implements ICursor<T> {
+
+    private int prev;
+    private int curr;
+    private int next;
+
+    private ListIterator(IIterator.IteratorDirection direction) {
+      if (direction == IIterator.IteratorDirection.FORWARD) {
+        this.prev = NIL;
+        this.next = head;
+      } else {
+        this.prev = tail;
+        this.next = NIL;
+      }
+      this.curr = NIL;
+    }
+
+    public boolean hasNext() {
+      return next != NIL;
+    }
+
+    public void next() {
+      if (curr != NIL) {
+        // If curr node was removed in the previous iteration prev node will remain the
+        // same in this iteration. If a node was added after curr it becomes prev.
+        int after = OffHeapDLinkedList.this.next(curr);
+        prev = after == next ? curr : after;
+      }
+      curr = next;
+      next = OffHeapDLinkedList.this.next(curr);
+    }
+
+    public boolean hasPrev() {
+      return prev != NIL;
+    }
+
+    public void prev() {
+      if (curr != NIL) {
+        // If curr node was removed in the previous iteration next node will remain the
+        // same in this iteration. If a node was added before curr it becomes next.
+        int before = OffHeapDLinkedList.this.prev(curr);
+        next = before == prev ? curr : before;
+      }
+      curr = prev;
+      prev = OffHeapDLinkedList.this.prev(curr);
+    }
+
+    public T get() {
+      return curr == NIL ? null : object(curr);
+    }
+
+    public void set(T data) {
+      if (curr != NIL) {
+        Objects.requireNonNull(data);
+        codec.write(chunk(curr), offset(curr) + DATA, data);
+      }
+    }
+
+    /*
+     * Removes the current node from the list.
+     */
+    public void remove() {
+      checkCurrent();
+      unlink(curr);
+      curr = NIL;
+    }
+
+    /*
+     * Add a new node before the current node.
+     *
+     * @param   data : the object to be written to the new node.
+     */
+    public void addBefore(T data) {
+      checkCurrent();
+      linkBefore(allocate(data), curr);
+    }
+
+    /*
+     * Add a new node after the current node.
+     *
+     * @param   data : the object to be written to the new node.
+     */
+    public void addAfter(T data) {
+      checkCurrent();
+      linkBefore(allocate(data), OffHeapDLinkedList.this.next(curr));
+    }
+
+    /*
+     * Throw an IllegalStateException if there is no current node, because neither next() nor
+     * prev() has been called or the current node has been removed.
+     */
+    private void checkCurrent() {
+      if (curr == NIL) {
+        throw new IllegalStateException("Iterator has no current node");
+      }
+    }
+  }
+}
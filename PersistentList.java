@@ -0,0 +1,457 @@
+package com.cqueltech.linkedlist;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/*
+ * A custom list class. This class denotes a persistent list: a list that is never changed once
+ * it has been created. Adding or removing an element returns a new version of the list which
+ * shares almost all of its structure with the old one, and the old version remains valid. A
+ * writer can therefore publish each new version with a single volatile write (or through an
+ * AtomicReference), and any number of readers can iterate, search or stream whichever version
+ * they last read without locking or copying it.
+ *
+ * The elements are held in two parts. The front of the list is a chain of nodes, so prepend()
+ * links one new node in front of the shared chain. The rest of the list is a persistent vector,
+ * a tree of 32 element arrays as used by Clojure and Scala, so append() only copies the arrays
+ * on the path to the last element, at most 32 references per level of the tree (and the tree
+ * of a list of a million elements has 4 levels). Elements dropped from the head of the vector
+ * are skipped rather than copied, and the vector is rebuilt once more than half of it has been
+ * skipped.
+ *
+ *    Note: add(), add(int) and poll() would change the list and throw an
+ *          UnsupportedOperationException. Use prepend(), append(), dropFirst() and dropLast().
+ *
+ * Class variables: front - Stores the first node of the chain at the front of the list.
+ *                  frontLast - Stores the last node of the chain at the front of the list.
+ *                  frontSize - Stores the number of nodes in the chain.
+ *                  root - Stores the root of the vector's tree, excluding its tail.
+ *                  shift - Stores the number of index bits consumed above the leaf arrays.
+ *                  tail - Stores the last (up to 32) elements of the vector.
+ *                  count - Stores the number of elements in the vector, including skipped ones.
+ *                  start - Stores the number of elements skipped at the head of the vector.
+ *
+ * Public methods:
+ *    empty() : Returns the empty list.
+ *    of(Object... objects) : Returns a list holding the objects.
+ *    prepend(Object object) : Returns a new version with the element added at the head.
+ *    append(Object object) : Returns a new version with the element added at the tail.
+ *    dropFirst() : Returns a new version without the first element.
+ *    dropLast() : Returns a new version without the last element.
+ *    get(int idx) : Retrieves the element at the specified index.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public final class PersistentList<T> implements IList<T>, Iterable<T> {
+
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+  private static final Object[] EMPTY_NODE = new Object[0];
+  private static final PersistentList<?> EMPTY =
+      new PersistentList<>(null, null, 0, EMPTY_NODE, BITS, EMPTY_NODE, 0, 0);
+
+  private final SNode<T> front;
+  private final SNode<T> frontLast;
+  private final int frontSize;
+  private final Object[] root;
+  private final int shift;
+  private final Object[] tail;
+  private final int count;
+  private final int start;
+
+  private PersistentList(SNode<T> front, SNode<T> frontLast, int frontSize, Object[] root,
+      int shift, Object[] tail, int count, int start) {
+    this.front = front;
+    this.frontLast = frontLast;
+    this.frontSize = frontSize;
+    this.root = root;
+    this.shift = shift;
+    this.tail = tail;
+    this.count = count;
+    this.start = start;
+  }
+
+  /*
+   * Returns the empty list.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> PersistentList<T> empty() {
+    return (PersistentList<T>) EMPTY;
+  }
+
+  /*
+   * Returns a list holding the specified objects, in order.
+   *
+   * @param   objects : objects to be stored in the list.
+   */
+  @SafeVarargs
+  public static <T> PersistentList<T> of(T... objects) {
+    // Copy the elements one by one, so the varargs array itself is never passed on.
+    Object[] copy = new Object[objects.length];
+    for (int i = 0; i < objects.length; i++) {
+      copy[i] = objects[i];
+    }
+    return PersistentList.<T>empty().withVector(copy, objects.length);
+  }
+
+  public int getSize() {
+    return frontSize + count - start;
+  }
+
+  public boolean isEmpty() {
+    return getSize() == 0;
+  }
+
+  public int size() {
+    return getSize();
+  }
+
+  /*
+   * @Overloaded method
+   * Not supported, the list cannot be changed. Use append().
+   */
+  public void add(T object) {
+    throw new UnsupportedOperationException("PersistentList cannot be changed, use append()");
+  }
+
+  /*
+   * @Overloaded method
+   * Not supported, the list cannot be changed.
+   */
+  public void add(T object, int idx) {
+    throw new UnsupportedOperationException("PersistentList cannot be changed");
+  }
+
+  /*
+   * Not supported, the list cannot be changed. Use peek() and dropFirst().
+   */
+  public T poll() {
+    throw new UnsupportedOperationException("PersistentList cannot be changed, use dropFirst()");
+  }
+
+  /*
+   * Retrieves the head (first element) of this list. Returns null if list is empty.
+   */
+  public T peek() {
+    if (front != null) {
+      return front.getObject();
+    }
+    return start == count ? null : vectorGet(start);
+  }
+
+  /*
+   * Retrieves the tail (last element) of this list. Returns null if list is empty.
+   */
+  @SuppressWarnings("unchecked")
+  public T peekTail() {
+    if (start < count) {
+      return (T) tail[tail.length - 1];
+    }
+    return frontLast == null ? null : frontLast.getObject();
+  }
+
+  /*
+   * Retrieves the element at the specified index.
+   *
+   * @param idx : Parameter of type 'int', position of the element to be retrieved.
+   *
+   */
+  public T get(int idx) {
+    checkNodeIndexValid(idx);
+    if (idx < frontSize) {
+      SNode<T> node = front;
+      for (int i = 0; i < idx; i++) {
+        node = node.getNext();
+      }
+      return node.getObject();
+    }
+    return vectorGet(start + idx - frontSize);
+  }
+
+  /*
+   * Return the index of the first element equal to the specified object, or -1 if it is not
+   * found.
+   *
+   * @param   object : item that is being searched for.
+   */
+  public int indexOf(T object) {
+    int idx = 0;
+    for (SNode<T> node = front; node != null; node = node.getNext()) {
+      if (Objects.equals(object, node.getObject())) {
+        return idx;
+      }
+      idx++;
+    }
+    for (int i = start; i < count; ) {
+      Object[] array = arrayFor(i);
+      for (int j = i & MASK; j < array.length; j++, i++, idx++) {
+        if (Objects.equals(object, array[j])) {
+          return idx;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /*
+   * Returns a new version of the list with the specified element added at the head. Takes
+   * constant time.
+   *
+   * @param   object : element to be added.
+   */
+  public PersistentList<T> prepend(T object) {
+    SNode<T> node = new SNode<>(object);
+    node.setNext(front);
+    return new PersistentList<>(node, front == null ? node : frontLast, frontSize + 1, root,
+        shift, tail, count, start);
+  }
+
+  /*
+   * Returns a new version of the list with the specified element added at the tail. Copies at
+   * most one array per level of the vector's tree.
+   *
+   * @param   object : element to be added.
+   */
+  public PersistentList<T> append(T object) {
+    if (tail.length < WIDTH) {
+      Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+      newTail[tail.length] = object;
+      return new PersistentList<>(front, frontLast, frontSize, root, shift, newTail, count + 1,
+          start);
+    }
+    // The tail is full, move it into the tree and start a new tail.
+    int tailOffset = count - WIDTH;
+    Object[] newRoot;
+    int newShift = shift;
+    if ((tailOffset >>> BITS) == (1 << shift)) {
+      // The tree is full, add a level above the root.
+      newRoot = new Object[] {root, newPath(shift, tail)};
+      newShift += BITS;
+    } else {
+      newRoot = pushTail(shift, root, tail, tailOffset);
+    }
+    return new PersistentList<>(front, frontLast, frontSize, newRoot, newShift,
+        new Object[] {object}, count + 1, start);
+  }
+
+  /*
+   * Returns a new version of the list without its first element. Takes constant time, except
+   * that the vector is rebuilt once more than half of it has been dropped. Throws a
+   * NoSuchElementException if the list is empty.
+   */
+  public PersistentList<T> dropFirst() {
+    if (front != null) {
+      SNode<T> next = front.getNext();
+      return new PersistentList<>(next, next == null ? null : frontLast, frontSize - 1, root,
+          shift, tail, count, start);
+    }
+    if (start == count) {
+      throw new NoSuchElementException();
+    }
+    int newStart = start + 1;
+    if (newStart == count) {
+      return empty();
+    }
+    if (newStart >= WIDTH && newStart > count - newStart) {
+      // Most of the vector has been dropped, rebuild it from the remaining elements.
+      return withVector(toArray(newStart), count - newStart);
+    }
+    return new PersistentList<>(null, null, 0, root, shift, tail, count, newStart);
+  }
+
+  /*
+   * Returns a new version of the list without its last element. Copies at most one array per
+   * level of the vector's tree. If only the chain at the front of the list is left, it is first
+   * moved into a vector, in time linear in its length. Throws a NoSuchElementException if the
+   * list is empty.
+   */
+  public PersistentList<T> dropLast() {
+    if (start == count) {
+      if (front == null) {
+        throw new NoSuchElementException();
+      }
+      // Move the chain into a vector, leaving out its last element.
+      Object[] objects = new Object[frontSize - 1];
+      SNode<T> node = front;
+      for (int i = 0; i < objects.length; i++) {
+        objects[i] = node.getObject();
+        node = node.getNext();
+      }
+      return PersistentList.<T>empty().withVector(objects, objects.length);
+    }
+    if (count - start == 1) {
+      return new PersistentList<>(front, frontLast, frontSize, EMPTY_NODE, BITS, EMPTY_NODE, 0,
+          0);
+    }
+    if (tail.length > 1) {
+      return new PersistentList<>(front, frontLast, frontSize, root, shift,
+          Arrays.copyOf(tail, tail.length - 1), count - 1, start);
+    }
+    // The tail holds a single element, the last array in the tree becomes the tail.
+    Object[] newTail = arrayFor(count - 2);
+    Object[] newRoot = popTail(shift, root, count - 2);
+    int newShift = shift;
+    if (newRoot == null) {
+      newRoot = EMPTY_NODE;
+    }
+    if (newShift > BITS && newRoot.length == 1) {
+      // The root has a single child, remove a level.
+      newRoot = (Object[]) newRoot[0];
+      newShift -= BITS;
+    }
+    return new PersistentList<>(front, frontLast, frontSize, newRoot, newShift, newTail,
+        count - 1, start);
+  }
+
+  /*
+   * Returns an iterator over the elements of the list, from head to tail.
+   */
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+      private SNode<T> node = front;
+      private int i = start;
+
+      public boolean hasNext() {
+        return node != null || i < count;
+      }
+
+      @SuppressWarnings("unchecked")
+      public T next() {
+        if (node != null) {
+          T object = node.getObject();
+          node = node.getNext();
+          return object;
+        }
+        if (i >= count) {
+          throw new NoSuchElementException();
+        }
+        T object = (T) arrayFor(i)[i & MASK];
+        i++;
+        return object;
+      }
+    };
+  }
+
+  /*
+   * Returns a Spliterator over the elements of the list, from head to tail. The list cannot
+   * change, so the Spliterator may be used at any time by any thread.
+   */
+  public Spliterator<T> spliterator() {
+    return Spliterators.spliterator(iterator(), getSize(),
+        Spliterator.ORDERED | Spliterator.IMMUTABLE);
+  }
+
+  /*
+   * Return a list with this list's chain at the front and a vector holding the first n of the
+   * specified objects. The array is taken over by the vector and must not be changed.
+   */
+  private PersistentList<T> withVector(Object[] objects, int n) {
+    if (n == 0) {
+      return new PersistentList<>(front, frontLast, frontSize, EMPTY_NODE, BITS, EMPTY_NODE, 0,
+          0);
+    }
+    // The last (up to 32) objects form the tail, the rest are split into full leaf arrays and
+    // grouped 32 at a time until a single root remains.
+    int tailOffset = ((n - 1) >>> BITS) << BITS;
+    Object[] newTail = Arrays.copyOfRange(objects, tailOffset, n);
+    Object[] nodes = new Object[tailOffset >>> BITS];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = Arrays.copyOfRange(objects, i << BITS, (i + 1) << BITS);
+    }
+    int newShift = BITS;
+    while (nodes.length > WIDTH) {
+      Object[] parents = new Object[(nodes.length + MASK) >>> BITS];
+      for (int i = 0; i < parents.length; i++) {
+        parents[i] = Arrays.copyOfRange(nodes, i << BITS, Math.min(nodes.length, (i + 1) << BITS));
+      }
+      nodes = parents;
+      newShift += BITS;
+    }
+    return new PersistentList<>(front, frontLast, frontSize, nodes, newShift, newTail, n, 0);
+  }
+
+  /*
+   * Copy the vector's elements from the specified index onwards into a new array.
+   */
+  private Object[] toArray(int from) {
+    Object[] objects = new Object[count - from];
+    for (int i = from; i < count; ) {
+      Object[] array = arrayFor(i);
+      int j = i & MASK;
+      int n = Math.min(array.length - j, count - i);
+      System.arraycopy(array, j, objects, i - from, n);
+      i += n;
+    }
+    return objects;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T vectorGet(int i) {
+    return (T) arrayFor(i)[i & MASK];
+  }
+
+  /*
+   * Return the array of the vector holding the element at the specified index.
+   */
+  private Object[] arrayFor(int i) {
+    if (i >= count - tail.length) {
+      return tail;
+    }
+    Object[] node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      node = (Object[]) node[(i >>> level) & MASK];
+    }
+    return node;
+  }
+
+  /*
+   * Return a copy of the node at the specified level with the full tail array added as its
+   * last leaf, copying the nodes on the path to it.
+   */
+  private static Object[] pushTail(int level, Object[] parent, Object[] tailNode,
+      int tailOffset) {
+    int idx = (tailOffset >>> level) & MASK;
+    Object[] node = Arrays.copyOf(parent, Math.max(parent.length, idx + 1));
+    if (level == BITS) {
+      node[idx] = tailNode;
+    } else if (idx < parent.length) {
+      node[idx] = pushTail(level - BITS, (Object[]) parent[idx], tailNode, tailOffset);
+    } else {
+      node[idx] = newPath(level - BITS, tailNode);
+    }
+    return node;
+  }
+
+  /*
+   * Return a chain of single child nodes from the specified level down to the leaf array.
+   */
+  private static Object[] newPath(int level, Object[] leaf) {
+    return level == 0 ? leaf : new Object[] {newPath(level - BITS, leaf)};
+  }
+
+  /*
+   * Return a copy of the node at the specified level without its last leaf array, which holds
+   * the element at the specified index, or null if the node would be left empty.
+   */
+  private static Object[] popTail(int level, Object[] parent, int idx) {
+    int sub = (idx >>> level) & MASK;
+    if (level > BITS) {
+      Object[] child = popTail(level - BITS, (Object[]) parent[sub], idx);
+      if (child == null && sub == 0) {
+        return null;
+      }
+      Object[] node = Arrays.copyOf(parent, child == null ? sub : sub + 1);
+      if (child != null) {
+        node[sub] = child;
+      }
+      return node;
+    }
+    return sub == 0 ? null : Arrays.copyOf(parent, sub);
+  }
+}
@@ -0,0 +1,527 @@
+package com.cqueltech.linkedlist;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/*
+ * A custom list class. This class denotes a list held in a growable circular array rather than
+ * a chain of nodes, in the same way as java.util.ArrayDeque. Adding and removing elements at
+ * either end takes constant time without allocating, and the elements sit next to each other
+ * in memory, so a list used as a FIFO queue or a LIFO stack is much faster and smaller than a
+ * linked list. It supports the same methods and iterator as DLinkedList and can replace it
+ * wherever a list is used as a queue or deque.
+ *
+ * The array length is a power of 2, so an index into the array is wrapped with a mask rather
+ * than a division. When the array is full it is copied to one twice the size. Inserting or
+ * removing an element elsewhere in the list shifts the elements on whichever side of it is
+ * shorter, so takes time linear in the distance to the nearer end.
+ *
+ * The list has no chain of nodes, so it implements IList rather than ILinkedList and its
+ * iterator is an ICursor, and no node is ever created. Iterators are fail-fast, as for
+ * DLinkedList.
+ *
+ * Class variables: elements - Circular array holding the elements.
+ *                  head - Stores the array index of the first element.
+ *                  listSize - Stores the current size of the list.
+ *                  modCount - Stores the number of structural changes made to the list.
+ *
+ * Public methods:
+ *    add(Object object) : Add an element to the end of the list.
+ *    add(Object object, int index) : Insert element into list at specified index.
+ *    remove(int idx) : Remove an element from the list at the specified index.
+ *    get(int idx) : Retrieves the element at the specified index.
+ *    set(int idx, Object object) : Replaces the element at the specified index.
+ *    poll() : Retrieves and removes the head (first element) of this list.
+ *    pollTail() : Retrieves and removes the tail (last element) of this list.
+ *    iterator() : Return a ListIterator object to alow us to iterate through a list and
+ *                 manipulate the elements it contains.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public class RingBufferList<T> implements IList<T> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  private Object[] elements;
+  private int head;
+  private int listSize;
+  private int modCount;
+
+  public RingBufferList() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /*
+   * @param   initialCapacity : number of elements the list can hold before its array has to
+   *                            grow, rounded up to a power of 2.
+   */
+  public RingBufferList(int initialCapacity) {
+    if (initialCapacity <= 0 || initialCapacity > MAXIMUM_CAPACITY) {
+      throw new IllegalArgumentException("Illegal initial capacity: " + initialCapacity);
+    }
+    int capacity = Integer.highestOneBit(initialCapacity);
+    if (capacity < initialCapacity) {
+      capacity <<= 1;
+    }
+    this.elements = new Object[capacity];
+    this.head = 0;
+    this.listSize = 0;
+    this.modCount = 0;
+  }
+
+  public int getSize() {
+    return listSize;
+  }
+
+  /*
+   * Return boolean, true if list is empty, false if not.
+   */
+  public boolean isEmpty() {
+    return listSize == 0;
+  }
+
+  public int size() {
+    return listSize;
+  }
+
+  /*
+   * Retrieves, but does not remove, the head (first element) of this list.
+   * Returns null if list is empty
+   */
+  public T peek() {
+    return listSize == 0 ? null : elementAt(0);
+  }
+
+  /*
+   * Retrieves, but does not remove, the tail (last element) of this list.
+   * Returns null if list is empty
+   */
+  public T peekTail() {
+    return listSize == 0 ? null : elementAt(listSize - 1);
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element to the end of the list.
+   *
+   * @param object : Parameter of type 'object' which will be stored in the list.
+   *
+   */
+  public void add(T object) {
+    if (listSize == elements.length) {
+      grow();
+    }
+    elements[(head + listSize) & (elements.length - 1)] = object;
+    listSize++;
+    modCount++;
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element at a specific location within the list.
+   * Set index to 0 to add at beginning of list.
+   * Set index equal to list size to add to end of list.
+   *
+   * @param object : Parameter of type 'object' which will be stored in the list.
+   *
+   * @param idx : Parameter of type 'int'. Position within the list that the new
+   * element is to be added.
+   *
+   */
+  public void add(T object, int idx) {
+    checkPositionIndexValid(idx);
+    insertAt(idx, object);
+  }
+
+  /*
+   * Remove an element from the list at the specified index.
+   *
+   * @param idx : Parameter of type 'int', acts as indentifier for element to be
+   * removed from list
+   *
+   */
+  public void remove(int idx) {
+    checkNodeIndexValid(idx);
+    removeAt(idx);
+  }
+
+  /*
+   * Retrieves, but does not remove, the element at the specified index.
+   *
+   * @param idx : Parameter of type 'int', position of the element to be retrieved.
+   *
+   */
+  public T get(int idx) {
+    checkNodeIndexValid(idx);
+    return elementAt(idx);
+  }
+
+  /*
+   * Replaces the element stored at the specified index. Returns the element previously
+   * stored at that position.
+   *
+   * @param idx : Parameter of type 'int', position of the element to be replaced.
+   *
+   * @param object : Parameter of type 'object' to be stored at the specified position.
+   *
+   */
+  public T set(int idx, T object) {
+    checkNodeIndexValid(idx);
+    T oldObject = elementAt(idx);
+    elements[(head + idx) & (elements.length - 1)] = object;
+    return oldObject;
+  }
+
+  /*
+   * Retrieves and removes the head (first element) of this list. Returns null if list
+   * is empty
+   */
+  @SuppressWarnings("unchecked")
+  public T poll() {
+    if (listSize == 0) {
+      return null;
+    }
+    T object = (T) elements[head];
+    elements[head] = null;
+    head = (head + 1) & (elements.length - 1);
+    listSize--;
+    modCount++;
+    return object;
+  }
+
+  /*
+   * Retrieves and removes the tail (last element) of this list. Returns
+   * null if list is empty.
+   */
+  @SuppressWarnings("unchecked")
+  public T pollTail() {
+    if (listSize == 0) {
+      return null;
+    }
+    int i = (head + listSize - 1) & (elements.length - 1);
+    T object = (T) elements[i];
+    elements[i] = null;
+    listSize--;
+    modCount++;
+    return object;
+  }
+
+  /*
+   * Return the index of the element equal to the specified data item. Scans the array, in
+   * at most two contiguous runs.
+   *
+   * @param   object : item that is being searched for.
+   */
+  public int indexOf(T object) {
+    // The elements run from head to the end of the array, then wrap round to index 0.
+    int firstRun = Math.min(listSize, elements.length - head);
+    int idx = indexOf(object, head, head + firstRun);
+    if (idx >= 0) {
+      return idx - head;
+    }
+    idx = indexOf(object, 0, listSize - firstRun);
+    return idx >= 0 ? firstRun + idx : -1;
+  }
+
+  /*
+   * Return the array index of the first element equal to the specified object between the
+   * array indexes from (inclusive) and to (exclusive), or -1 if there is none.
+   */
+  private int indexOf(T object, int from, int to) {
+    if (object == null) {
+      for (int i = from; i < to; i++) {
+        if (elements[i] == null) {
+          return i;
+        }
+      }
+    } else {
+      for (int i = from; i < to; i++) {
+        if (object.equals(elements[i])) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /*
+   * Returns an object of ListIterator, used to iterate forwards through the list.
+   */
+  public ICursor<T> iterator() {
+    return new ListIterator(IIterator.IteratorDirection.FORWARD);
+  }
+
+  /*
+   * Returns an object of ListIterator, used to iterate through the list in the specified
+   * direction.
+   */
+  public ICursor<T> iterator(IIterator.IteratorDirection direction) {
+    return new ListIterator(direction);
+  }
+
+  /*
+   * Returns a Spliterator over the elements in the list, from head to tail. It reads the
+   * array directly and splits by halving its range of indexes, so no elements are copied.
+   * The list should not be structurally modified while the Spliterator is in use.
+   */
+  public Spliterator<T> spliterator() {
+    return new RangeSpliterator(0, listSize);
+  }
+
+  @SuppressWarnings("unchecked")
+  private T elementAt(int idx) {
+    return (T) elements[(head + idx) & (elements.length - 1)];
+  }
+
+  /*
+   * Insert an element at the specified index, which must already have been validated, by
+   * shifting the elements before it one place towards the head or the elements from it one
+   * place towards the tail, whichever are fewer.
+   */
+  private void insertAt(int idx, T object) {
+    if (listSize == elements.length) {
+      grow();
+    }
+    int mask = elements.length - 1;
+    if (idx < listSize - idx) {
+      // Open a gap by moving the head and the elements before the index back one place.
+      head = (head - 1) & mask;
+      for (int i = 0; i < idx; i++) {
+        elements[(head + i) & mask] = elements[(head + i + 1) & mask];
+      }
+    } else {
+      // Open a gap by moving the elements from the index onwards forward one place.
+      for (int i = listSize; i > idx; i--) {
+        elements[(head + i) & mask] = elements[(head + i - 1) & mask];
+      }
+    }
+    elements[(head + idx) & mask] = object;
+    listSize++;
+    modCount++;
+  }
+
+  /*
+   * Remove the element at the specified index, which must already have been validated, by
+   * shifting the elements on the shorter side of it into the gap.
+   */
+  private void removeAt(int idx) {
+    int mask = elements.length - 1;
+    if (idx < listSize - 1 - idx) {
+      for (int i = idx; i > 0; i--) {
+        elements[(head + i) & mask] = elements[(head + i - 1) & mask];
+      }
+      elements[head] = null;
+      head = (head + 1) & mask;
+    } else {
+      for (int i = idx; i < listSize - 1; i++) {
+        elements[(head + i) & mask] = elements[(head + i + 1) & mask];
+      }
+      elements[(head + listSize - 1) & mask] = null;
+    }
+    listSize--;
+    modCount++;
+  }
+
+  /*
+   * Copy the elements into an array of twice the size, starting from index 0.
+   */
+  private void grow() {
+    int capacity = elements.length << 1;
+    if (capacity > MAXIMUM_CAPACITY || capacity < 0) {
+      throw new IllegalStateException("List capacity exceeded");
+    }
+    Object[] grown = new Object[capacity];
+    int n = elements.length - head;
+    System.arraycopy(elements, head, grown, 0, n);
+    System.arraycopy(elements, 0, grown, n, head);
+    elements = grown;
+    head = 0;
+  }
+
+  /*
+   * Spliterator over a range of indexes of the list.
+   */
+  private final class RangeSpliterator implements Spliterator<T> {
+
+    private int idx;
+    private final int end;
+
+    private RangeSpliterator(int idx, int end) {
+      this.idx = idx;
+      this.end = end;
+    }
+
+    public boolean tryAdvance(Consumer<? super T> action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      if (idx >= end) {
+        return false;
+      }
+      action.accept(elementAt(idx++));
+      return true;
+    }
+
+    public void forEachRemaining(Consumer<? super T> action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      while (idx < end) {
+        action.accept(elementAt(idx++));
+      }
+    }
+
+    public Spliterator<T> trySplit() {
+      int mid = (idx + end) >>> 1;
+      if (mid <= idx) {
+        return null;
+      }
+      Spliterator<T> prefix = new RangeSpliterator(idx, mid);
+      idx = mid;
+      return prefix;
+    }
+
+    public long estimateSize() {
+      return end - idx;
+    }
+
+    public int characteristics() {
+      return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+    }
+  }
+
+  /*
+   * Iterator class to allow list to be travesersed bidirectionally. The iterator keeps the
+   * indexes of the previous, current and next elements, and follows the same rules as the
+   * DLinkedList iterator: elements added through addBefore() or addAfter() are not visited by
+   * the iteration. addBefore() and addAfter() open a gap in the array for the new element by
+   * shifting the elements on its shorter side.
+   *
+   *    Note: remove(), addBefore() and addAfter() throw an IllegalStateException when there
+   *          is no current element. Every method throws a ConcurrentModificationException if
+   *          the list has been structurally changed other than through this iterator.
+   */
+  private class ListIterator implements ICursor<T> {
+
+    private int prevIdx;
+    private int currIdx;
+    private int nextIdx;
+    private int expectedModCount;
+
+    private ListIterator(IIterator.IteratorDirection direction) {
+      if (direction == IIterator.IteratorDirection.FORWARD) {
+        this.prevIdx = -1;
+        this.nextIdx = 0;
+      } else {
+        this.prevIdx = listSize - 1;
+        this.nextIdx = listSize;
+      }
+      this.currIdx = -1;
+      this.expectedModCount = modCount;
+    }
+
+    private void checkForComodification() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    private void checkCurrent() {
+      if (currIdx < 0) {
+        throw new IllegalStateException("Iterator has no current element");
+      }
+    }
+
+    public boolean hasNext() {
+      return nextIdx < listSize;
+    }
+
+    public boolean hasPrev() {
+      return prevIdx >= 0;
+    }
+
+    /*
+     * Target the next element in the list. The next element then becomes the current element
+     * and is ready to be processed.
+     */
+    public void next() {
+      checkForComodification();
+      if (nextIdx >= listSize) {
+        throw new NoSuchElementException();
+      }
+      currIdx = nextIdx;
+      prevIdx = currIdx - 1;
+      nextIdx = currIdx + 1;
+    }
+
+    /*
+     * Target the previous element in the list. The previous element then becomes the current
+     * element and is ready to be processed.
+     */
+    public void prev() {
+      checkForComodification();
+      if (prevIdx < 0) {
+        throw new NoSuchElementException();
+      }
+      currIdx = prevIdx;
+      nextIdx = currIdx + 1;
+      prevIdx = currIdx - 1;
+    }
+
+    public T get() {
+      return currIdx < 0 ? null : elementAt(currIdx);
+    }
+
+    public void set(T data) {
+      checkForComodification();
+      if (currIdx >= 0) {
+        elements[(head + currIdx) & (elements.length - 1)] = data;
+      }
+    }
+
+    /*
+     * Removes the current element from the list. The element that followed it takes its
+     * index.
+     */
+    public void remove() {
+      checkForComodification();
+      checkCurrent();
+      removeAt(currIdx);
+      currIdx = -1;
+      nextIdx--;
+      expectedModCount = modCount;
+    }
+
+    /*
+     * Add a new element before the current element. The current element moves up one
+     * position.
+     *
+     * @param   data : the object to be added to the list.
+     */
+    public void addBefore(T data) {
+      checkForComodification();
+      checkCurrent();
+      insertAt(currIdx, data);
+      currIdx++;
+      nextIdx++;
+      expectedModCount = modCount;
+    }
+
+    /*
+     * Add a new element after the current element.
+     *
+     * @param   data : the object to be added to the list.
+     */
+    public void addAfter(T data) {
+      checkForComodification();
+      checkCurrent();
+      insertAt(currIdx + 1, data);
+      nextIdx++;
+      expectedModCount = modCount;
+    }
+  }
+}
@@ -1,5 +1,13 @@
 package com.cqueltech.linkedlist;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
 /*
  * A custom linked list class. This class denotes a singly linked list. Uses the Node class
  * to generate elements for the list.
@@ -7,14 +15,76 @@ package com.cqueltech.linkedlist;
  * Class variables: head - Stores the first node in the list.
  *                  tail - Stores the last node in the list.
  *                  listSize - Stores the current size of the list.
+ *                  pool - Stores nodes detached from the list, ready to be reused.
+ *                  poolSize - Stores the current number of nodes in the pool.
+ *                  poolCapacity - Maximum number of nodes kept in the pool.
+ *                  modCount - Stores the number of structural changes made to the list.
+ *                  snapshot - Stores the version of the elements read by snapshot iterators.
+ *                  snapshotting - Set once a snapshot iterator has been taken, after which the
+ *                                 version is kept up to date.
+ *                  metrics - Receives the latency of each operation, null unless attached.
+ * 
+ * The node pool is optional, by default it is disabled and every detached node is left for the
+ * garbage collector. When a pool capacity is given, nodes removed by remove(), poll() and the
+ * iterator's remove() are kept (up to the capacity) and reused by later additions, so a list
+ * whose size stays roughly constant adds and polls without allocating.
+ * 
+ * addAll(), spliceAfter() and split() relink whole chains of nodes rather than copying
+ * elements, so they take constant time. splitAt() has to walk to the node before the index.
+ * The list passed to addAll() and spliceAfter() is left empty, its nodes now belong to this
+ * list.
+ * 
+ * The bulk methods addAll(Object[]), addAll(Iterable), drainTo() and pollBatch() build or
+ * detach a whole chain of nodes and then update the head or tail of the list once, rather
+ * than once per element.
+ * 
+ * Iterators are fail-fast. Every change to the structure of the list (adding or removing
+ * nodes) is counted, and an iterator that finds the list has been changed other than through
+ * its own methods throws a ConcurrentModificationException rather than carry on with stale
+ * nodes. The list is not thread safe, so this is a best-effort check for bugs rather than a
+ * guarantee.
+ * 
+ * snapshotIterator() returns a read-only iterator over the elements in the list at the time
+ * it was called, which is unaffected by later changes. The first call builds a persistent
+ * version of the elements (see SnapshotTree) in O(n) time, and from then on every change to the
+ * list also makes a new version in O(log n) time, copying only the O(log n) tree nodes on the
+ * path to the changed element. Taking a snapshot just hands out the current version, so a
+ * writer can give snapshot iterators to any number of reading threads, which then iterate
+ * without taking a lock or copying the list while the writer carries on changing it. The
+ * exceptions are sort() and parallelSort(), which rebuild the version in O(n) time.
+ * 
+ * Operations can be instrumented by attaching a ListMetrics with setMetrics(). The list and
+ * its iterators then report the latency of add(), add(Object, int), remove(), poll(), indexOf()
+ * and the iterator's remove(), addBefore() and addAfter(), with the number of nodes walked
+ * over. Without metrics attached each of these costs one extra null check.
  * 
  * Public methods:
  *    add(Object object) : Add an element to the end of the list.
  *    add(Object object, int idx) : Insert element into list at specified index.
  *    remove(int indx) : Remove an element from the list at the specified index.
  *    poll() : Retrieves and removes the head (first element) of this list.
+ *    addAll(SLinkedList list) : Move all the nodes of another list to the end of this list.
+ *    addAll(Object[] objects) : Add each of the objects to the end of the list.
+ *    addAll(Iterable objects) : Add each of the objects to the end of the list.
+ *    drainTo(Collection c, int max) : Remove up to max elements from the head of the list and
+ *                 add them to the collection.
+ *    pollBatch(int n) : Remove up to n elements from the head of the list, returned as a list.
+ *    save(Path path, IElementCodec codec) : Write the elements of the list to a snapshot file.
+ *    load(Path path, IElementCodec codec) : Create a list from a snapshot file.
+ *    spliceAfter(IIterator iterator, SLinkedList list) : Move all the nodes of another list
+ *                 into this list after the iterator's current node.
+ *    splitAt(int idx) : Move the nodes from the specified index onwards to a new list.
+ *    split(IIterator iterator) : Move the nodes from the iterator's next node onwards to a
+ *                 new list.
  *    iterator() : Return a ListIterator object to alow us to iterate through a list and
  *                 manipulate the nodes it contains.
+ *    snapshotIterator() : Return a read-only iterator over a snapshot of the list.
+ *    sort(Comparator c) : Sort the list by relinking its nodes.
+ *    parallelSort(Comparator c) : Sort the list by relinking its nodes, using several threads.
+ *    filtered(Predicate p) : Return a lazy view of the elements that match the predicate.
+ *    mapped(Function f) : Return a lazy view of the results of applying the function.
+ *    subList(int from, int to) : Return a lazy view of a range of the list.
+ *    setMetrics(ListMetrics metrics) : Attach metrics that record the list's operations.
  *
  * @author  Jonathan Bateman
  * @version 1.0.1
@@ -24,11 +94,36 @@ public class SLinkedList<T> implements ILinkedList<T> {
   private SNode<T> head;
   private SNode<T> tail;
   private int listSize;
+  private final int poolCapacity;
+  private SNode<T> pool;
+  private int poolSize;
+  private int modCount;
+  private SnapshotTree<T> snapshot;
+  private boolean snapshotting;
+  private ListMetrics metrics;
 
   public SLinkedList() {
+    this(0);
+  };
+
+  /*
+   * @param   poolCapacity : maximum number of detached nodes kept for reuse, 0 disables the
+   *                         node pool.
+   */
+  public SLinkedList(int poolCapacity) {
+    if (poolCapacity < 0) {
+      throw new IllegalArgumentException("Pool capacity must not be negative: " + poolCapacity);
+    }
     this.head = null;
     this.tail = null;
     this.listSize = 0;
+    this.poolCapacity = poolCapacity;
+    this.pool = null;
+    this.poolSize = 0;
+    this.modCount = 0;
+    this.snapshot = null;
+    this.snapshotting = false;
+    this.metrics = null;
   };
 
   public SNode<T> getHead() {
@@ -43,6 +138,20 @@ public class SLinkedList<T> implements ILinkedList<T> {
     return listSize;
   }
 
+  public ListMetrics getMetrics() {
+    return metrics;
+  }
+
+  /*
+   * Attach metrics to the list, which then report the latency of each operation and the number
+   * of nodes it walked over. Pass null to detach them.
+   * 
+   * @param   metrics : metrics the list reports to, may be shared with other lists.
+   */
+  public void setMetrics(ListMetrics metrics) {
+    this.metrics = metrics;
+  }
+
   /*
    * @Overloaded method
    * Add an element to the end of the list.
@@ -52,9 +161,11 @@ public class SLinkedList<T> implements ILinkedList<T> {
    * 
    */
   public void add(T object) {
+    ListMetrics m = metrics;
+    long start = m == null ? 0 : System.nanoTime();
 
-    // Create a new node and assign the data object passed to it.
-    SNode<T> newNode = new SNode<>(object);
+    // Create a new node (or reuse a pooled one) and assign the data object passed to it.
+    SNode<T> newNode = newNode(object);
 
     // Check if any nodes have already been added to the list.
     if (listSize == 0) {
@@ -76,6 +187,13 @@ public class SLinkedList<T> implements ILinkedList<T> {
 
     // Increase the size of the list by 1.
     listSize++;
+    modCount++;
+    if (snapshotting) {
+      snapshot = SnapshotTree.insert(snapshot, listSize - 1, object);
+    }
+    if (m != null) {
+      m.record(ListMetrics.Operation.ADD, this, start, listSize - 1, 0, listSize);
+    }
   }
 
   /*
@@ -97,10 +215,12 @@ public class SLinkedList<T> implements ILinkedList<T> {
       // Adding first node in list or adding node to end of list.
       add(object);
     } else {
+      ListMetrics m = metrics;
+      long start = m == null ? 0 : System.nanoTime();
       checkPositionIndexValid(idx);
       // Adding at the beginning of an initialised list or adding before and after
       // existing nodes.
-      SNode<T> newNode = new SNode<>(object);
+      SNode<T> newNode = newNode(object);
 
       if (idx == 0) {
         newNode.setNext(head);
@@ -118,6 +238,13 @@ public class SLinkedList<T> implements ILinkedList<T> {
         }
       }
       listSize++;
+      modCount++;
+      if (snapshotting) {
+        snapshot = SnapshotTree.insert(snapshot, idx, object);
+      }
+      if (m != null) {
+        m.record(ListMetrics.Operation.ADD_AT, this, start, idx, idx, listSize);
+      }
     }
   }
 
@@ -135,35 +262,46 @@ public class SLinkedList<T> implements ILinkedList<T> {
    * 
    */
   public void remove(int idx) {
+    ListMetrics m = metrics;
+    long start = m == null ? 0 : System.nanoTime();
 
-    SNode<T> currNode = head;
-    SNode<T> prevNode = null;
+    SNode<T> currNode;
 
     checkNodeIndexValid(idx);
-    for (int i = 0; i <= idx; i++) {
-      if (idx == 0) {
-        // We are trying to remove the head of the list so set the new head of the list
-        // to the current head's 'next' node reference.
-        head = currNode.getNext();
-        currNode.setNext(null);
-      } else if (i == idx) {
-        // Reached the node we want to remove. Set the 'next' reference of the previous
-        // node to the 'next' reference of the current node.
-        prevNode.setNext(currNode.getNext());
-
-        if (currNode.getNext() == null) {
-          // The 'next' reference of the current node is null as it is the tail node, set
-          // the previous
-          // node to now act as the list's tail node.
-          tail = prevNode;
-        } else {
-          currNode.setNext(null);
-        }
+    if (idx == 0) {
+      // We are trying to remove the head of the list so set the new head of the list
+      // to the current head's 'next' node reference.
+      currNode = head;
+      head = currNode.getNext();
+      if (head == null) {
+        // Removed the only node in the list.
+        tail = null;
+      }
+    } else {
+      // Walk to the node preceding the one we want to remove.
+      SNode<T> prevNode = head;
+      for (int i = 1; i < idx; i++) {
+        prevNode = prevNode.getNext();
+      }
+      // Set the 'next' reference of the previous node to the 'next' reference of the
+      // node being removed.
+      currNode = prevNode.getNext();
+      prevNode.setNext(currNode.getNext());
+
+      if (currNode == tail) {
+        // Removed the tail node, set the previous node to now act as the list's tail node.
+        tail = prevNode;
       }
-      prevNode = currNode;
-      currNode = currNode.getNext();
     }
+    recycle(currNode);
     listSize--;
+    modCount++;
+    if (snapshotting) {
+      snapshot = SnapshotTree.remove(snapshot, idx);
+    }
+    if (m != null) {
+      m.record(ListMetrics.Operation.REMOVE_AT, this, start, idx, Math.max(idx - 1, 0), listSize);
+    }
   }
 
   /*
@@ -171,16 +309,489 @@ public class SLinkedList<T> implements ILinkedList<T> {
    * is empty
    */
   public T poll() {
+    ListMetrics m = metrics;
+    long start = m == null ? 0 : System.nanoTime();
     T object = head == null ? null : head.getObject();
     if (head != null) {
-      SNode<T> newHead = head.getNext();
-      head.setNext(null);
-      head = newHead;
+      SNode<T> oldHead = head;
+      head = oldHead.getNext();
+      if (head == null) {
+        // Polled the only node in the list.
+        tail = null;
+      }
+      recycle(oldHead);
       listSize--;
+      modCount++;
+      if (snapshotting) {
+        snapshot = SnapshotTree.remove(snapshot, 0);
+      }
+    }
+    if (m != null) {
+      m.record(ListMetrics.Operation.POLL, this, start, 0, 0, listSize);
     }
     return object;
   }
+
+  /*
+   * Return the index of node that contains specified data item, walking from the head of the
+   * list.
+   * 
+   * @param   object : item that is being searched for.
+   */
+  public int indexOf(T object) {
+    ListMetrics m = metrics;
+    long start = m == null ? 0 : System.nanoTime();
+    int idx = ILinkedList.super.indexOf(object);
+    if (m != null) {
+      m.record(ListMetrics.Operation.INDEX_OF, this, start, idx, idx < 0 ? listSize : idx + 1,
+          listSize);
+    }
+    return idx;
+  }
+
+  /*
+   * Move all the nodes of another list to the end of this list. The nodes are relinked rather
+   * than copied and the other list is left empty.
+   * 
+   * @param   list : list whose nodes are to be moved to this list.
+   */
+  public void addAll(SLinkedList<T> list) {
+    splice(tail, listSize, list);
+  }
+
+  /*
+   * Add each of the objects to the end of the list, in order. The new nodes are chained
+   * together first and then linked to the tail of the list in a single step.
+   * 
+   * @param   objects : objects to be stored in the new nodes.
+   */
+  public void addAll(T[] objects) {
+    if (objects.length == 0) {
+      return;
+    }
+    SNode<T> first = newNode(objects[0]);
+    SNode<T> last = first;
+    for (int i = 1; i < objects.length; i++) {
+      SNode<T> node = newNode(objects[i]);
+      last.setNext(node);
+      last = node;
+    }
+    link(tail, listSize, first, last, objects.length);
+  }
+
+  /*
+   * Add each of the objects to the end of the list, in the order returned by the Iterable.
+   * The new nodes are chained together first and then linked to the tail of the list in a
+   * single step.
+   * 
+   * @param   objects : objects to be stored in the new nodes.
+   */
+  public void addAll(Iterable<? extends T> objects) {
+    SNode<T> first = null;
+    SNode<T> last = null;
+    int n = 0;
+    for (T object : objects) {
+      SNode<T> node = newNode(object);
+      if (last == null) {
+        first = node;
+      } else {
+        last.setNext(node);
+      }
+      last = node;
+      n++;
+    }
+    if (n > 0) {
+      link(tail, listSize, first, last, n);
+    }
+  }
+
+  /*
+   * Move all the nodes of another list into this list, placed after the iterator's current
+   * node. The nodes are relinked rather than copied and the other list is left empty. As for
+   * IIterator.addAfter() the moved nodes are not visited by the iterator. Iterator.next() must
+   * be called in the current iteration prior to calling spliceAfter().
+   * 
+   * @param   iterator : iterator over this list, positioned on the node to splice after.
+   * @param   list : list whose nodes are to be moved to this list.
+   */
+  public void spliceAfter(IIterator<T> iterator, SLinkedList<T> list) {
+    ListIterator it = owned(iterator);
+    if (it.curr == null) {
+      throw new IllegalStateException("Iterator has no current node");
+    }
+    SNode<T> last = list.tail;
+    int n = list.listSize;
+    it.checkForComodification();
+    splice(it.curr, it.currIdx + 1, list);
+    if (n > 0) {
+      if (it.last == null) {
+        it.last = last;
+      }
+      it.nextIdx += n;
+      it.expectedModCount = modCount;
+    }
+  }
+
+  /*
+   * Split the list in two. The nodes from the specified index to the end of the list are moved,
+   * without copying, to a new list which is returned. This list keeps the nodes before the
+   * index.
+   * 
+   * @param   idx : index of the first node to be moved to the new list.
+   */
+  public SLinkedList<T> splitAt(int idx) {
+    checkPositionIndexValid(idx);
+    SNode<T> pred = null;
+    if (idx > 0) {
+      // Walk to the node preceding the first node to be moved.
+      pred = head;
+      for (int i = 1; i < idx; i++) {
+        pred = pred.getNext();
+      }
+    }
+    return cut(pred, idx);
+  }
+
+  /*
+   * Split the list in two at the position of the iterator. The iterator's next node and the
+   * nodes following it are moved, without copying, to a new list which is returned. Afterwards
+   * the iterator has no next node.
+   * 
+   * @param   iterator : iterator over this list, positioned where the list is to be split.
+   */
+  public SLinkedList<T> split(IIterator<T> iterator) {
+    ListIterator it = owned(iterator);
+    it.checkForComodification();
+    SLinkedList<T> list = cut(it.beforeNext(), it.nextIdx);
+    it.next = null;
+    it.expectedModCount = modCount;
+    return list;
+  }
+
+  /*
+   * @Overloaded method
+   * Remove every element from the head of the list and add them, in order, to the collection.
+   * Returns the number of elements moved.
+   * 
+   * @param   c : collection the elements are added to.
+   */
+  public int drainTo(Collection<? super T> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  /*
+   * @Overloaded method
+   * Remove up to the specified number of elements from the head of the list and add them, in
+   * order, to the collection. The drained nodes are detached from the list with a single
+   * update of the head. Returns the number of elements moved.
+   * 
+   * @param   c : collection the elements are added to.
+   * @param   maxElements : maximum number of elements to move.
+   */
+  public int drainTo(Collection<? super T> c, int maxElements) {
+    if (c == null) {
+      throw new NullPointerException();
+    }
+    int n = 0;
+    SNode<T> node = head;
+    try {
+      while (node != null && n < maxElements) {
+        c.add(node.getObject());
+        node = node.getNext();
+        n++;
+      }
+    } finally {
+      // Detach the nodes whose elements were added, even if the collection threw.
+      if (n > 0) {
+        SNode<T> first = head;
+        head = node;
+        if (node == null) {
+          tail = null;
+        }
+        listSize -= n;
+        modCount++;
+        if (snapshotting) {
+          snapshot = SnapshotTree.drop(snapshot, n);
+        }
+        for (SNode<T> p = first; p != node; ) {
+          SNode<T> next = p.getNext();
+          recycle(p);
+          p = next;
+        }
+      }
+    }
+    return n;
+  }
+
+  /*
+   * Remove up to the specified number of elements from the head of the list. The nodes are
+   * detached with a single update of the head and returned, without copying, as a new list.
+   * 
+   * @param   n : maximum number of elements to remove.
+   */
+  public SLinkedList<T> pollBatch(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("Batch size must not be negative: " + n);
+    }
+    SLinkedList<T> list = new SLinkedList<>();
+    if (n == 0 || listSize == 0) {
+      return list;
+    }
+    if (n > listSize) {
+      n = listSize;
+    }
+    SNode<T> last = head;
+    for (int i = 1; i < n; i++) {
+      last = last.getNext();
+    }
+    list.head = head;
+    list.tail = last;
+    list.listSize = n;
+    head = last.getNext();
+    if (head == null) {
+      tail = null;
+    }
+    last.setNext(null);
+    listSize -= n;
+    modCount++;
+    if (snapshotting) {
+      snapshot = SnapshotTree.drop(snapshot, n);
+    }
+    return list;
+  }
+
+  /*
+   * Write the elements of the list, from head to tail, to a snapshot file which load() can
+   * read back. Any existing file is replaced. The elements are encoded in large blocks and
+   * written sequentially through a FileChannel, see ListSnapshot for the file format.
+   * 
+   * @param   path : file the snapshot is written to.
+   * @param   codec : converts each element to a fixed number of bytes.
+   */
+  public void save(Path path, IElementCodec<T> codec) throws IOException {
+    ListSnapshot.write(this, path, codec);
+  }
+
+  /*
+   * Create a list holding the elements of a snapshot file written by save(). The file is
+   * mapped into memory and the chain of nodes is built in a single pass over it, as for
+   * addAll(Iterable), without a read call per element.
+   * 
+   * @param   path : file the snapshot is read from.
+   * @param   codec : converts the bytes of each element back to an object, must have the same
+   *                  width as the codec the snapshot was saved with.
+   */
+  public static <T> SLinkedList<T> load(Path path, IElementCodec<T> codec) throws IOException {
+    SLinkedList<T> list = new SLinkedList<>();
+    list.addAll(ListSnapshot.read(path, codec));
+    return list;
+  }
+
+  /*
+   * Move all the nodes of another list into this list after the specified node, or at the head
+   * of this list if the node is null. The other list is left empty.
+   * 
+   * @param   pred : node the nodes are linked after, null to link them at the head.
+   * @param   idx : index the first of the nodes will have.
+   * @param   list : list whose nodes are to be moved to this list.
+   */
+  private void splice(SNode<T> pred, int idx, SLinkedList<T> list) {
+    if (list == this) {
+      throw new IllegalArgumentException("A list cannot be spliced into itself");
+    }
+    if (list.listSize == 0) {
+      return;
+    }
+    SNode<T> first = list.head;
+    SNode<T> last = list.tail;
+    int n = list.listSize;
+    list.head = null;
+    list.tail = null;
+    list.listSize = 0;
+    list.modCount++;
+    if (list.snapshotting) {
+      list.snapshot = null;
+    }
+    link(pred, idx, first, last, n);
+  }
+
+  /*
+   * Link a chain of nodes, from first to last, into the list after the specified node, or at the
+   * head of the list if the node is null. The first node of the chain takes the specified index.
+   */
+  private void link(SNode<T> pred, int idx, SNode<T> first, SNode<T> last, int n) {
+    SNode<T> succ = pred == null ? head : pred.getNext();
+    last.setNext(succ);
+    if (pred == null) {
+      head = first;
+    } else {
+      pred.setNext(first);
+    }
+    if (succ == null) {
+      tail = last;
+    }
+    listSize += n;
+    modCount++;
+    if (snapshotting) {
+      snapshot = SnapshotTree.insertAll(snapshot, idx, SnapshotTree.of(first, n));
+    }
+  }
+
+  /*
+   * Move the nodes following the specified node, which is at the index before the specified
+   * index, to a new list. If the node is null every node is moved.
+   */
+  private SLinkedList<T> cut(SNode<T> pred, int idx) {
+    SLinkedList<T> list = new SLinkedList<>();
+    SNode<T> first = pred == null ? head : pred.getNext();
+    if (first == null) {
+      return list;
+    }
+    list.head = first;
+    list.tail = tail;
+    list.listSize = listSize - idx;
+    if (pred == null) {
+      head = null;
+    } else {
+      pred.setNext(null);
+    }
+    tail = pred;
+    listSize = idx;
+    modCount++;
+    if (snapshotting) {
+      snapshot = SnapshotTree.take(snapshot, idx);
+    }
+    return list;
+  }
+
+  /*
+   * Return the iterator cast to this list's iterator class. Throws an IllegalArgumentException
+   * if it is not an iterator over this list.
+   */
+  private ListIterator owned(IIterator<T> iterator) {
+    if (!(iterator instanceof SLinkedList.ListIterator)
+        || ((SLinkedList<?>.ListIterator) iterator).list() != this) {
+      throw new IllegalArgumentException("Iterator does not belong to this list");
+    }
+    return (ListIterator) iterator;
+  }
+
+  /*
+   * Return a node holding the specified object, taken from the node pool when it has one
+   * available, otherwise newly created.
+   */
+  private SNode<T> newNode(T object) {
+    SNode<T> node = pool;
+    if (node == null) {
+      return new SNode<>(object);
+    }
+    pool = node.getNext();
+    poolSize--;
+    node.setNext(null);
+    node.setData(object);
+    return node;
+  }
+
+  /*
+   * Clear the references held by a node that has been detached from the list and, if the
+   * node pool has room, keep it for reuse.
+   */
+  private void recycle(SNode<T> node) {
+    if (poolSize < poolCapacity) {
+      node.setData(null);
+      node.setNext(pool);
+      pool = node;
+      poolSize++;
+    } else {
+      node.setNext(null);
+    }
+  }
   
+  /*
+   * Sort the list into the order defined by the comparator, or the natural ordering of the
+   * elements if it is null. The existing nodes are relinked by a bottom-up merge sort, which
+   * takes O(n log n) time and constant extra space and is stable, then a single walk finds the
+   * new tail. No nodes are created or elements copied.
+   * 
+   * If the comparator throws an exception the list keeps all of its elements, in an
+   * unspecified order, and the exception is rethrown.
+   * 
+   * @param   comparator : defines the order of the elements, null for natural ordering.
+   */
+  public void sort(Comparator<? super T> comparator) {
+    sort(comparator, false);
+  }
+
+  /*
+   * Sort the list in the same way as sort(), but split the chain of nodes into runs which are
+   * sorted concurrently by fork/join tasks of the common pool and then merged by relinking.
+   * Lists too short to benefit are sorted on the calling thread.
+   * 
+   * @param   comparator : defines the order of the elements, null for natural ordering.
+   */
+  public void parallelSort(Comparator<? super T> comparator) {
+    sort(comparator, true);
+  }
+
+  private void sort(Comparator<? super T> comparator, boolean parallel) {
+    if (listSize < 2) {
+      return;
+    }
+    NodeSort<T> sorter = new NodeSort<>(comparator);
+    head = parallel ? sorter.parallelSort(head, listSize) : sorter.sort(head);
+    SNode<T> node = head;
+    while (node.getNext() != null) {
+      node = node.getNext();
+    }
+    tail = node;
+    modCount++;
+    if (snapshotting) {
+      snapshot = SnapshotTree.of(head, listSize);
+    }
+    sorter.rethrowFailure();
+  }
+
+  /*
+   * Return a lazy view of the elements that match the predicate. Nothing is evaluated until the
+   * view is iterated, and further filtered(), mapped() and subList() calls on the view are
+   * fused into the same single pass over the nodes. See ListView.
+   * 
+   * @param   predicate : test an element must pass to be included.
+   */
+  public ListView<T> filtered(Predicate<? super T> predicate) {
+    return ListView.of(head, listSize).filtered(predicate);
+  }
+
+  /*
+   * Return a lazy view of the results of applying the function to each element. Nothing is
+   * evaluated until the view is iterated. See ListView.
+   * 
+   * @param   mapper : function applied to each element.
+   */
+  public <R> ListView<R> mapped(Function<? super T, ? extends R> mapper) {
+    return ListView.of(head, listSize).mapped(mapper);
+  }
+
+  /*
+   * Return a lazy view of the elements from index 'from' (inclusive) to 'to' (exclusive). The
+   * view is anchored on the list's own nodes, walking to the node at 'from' from the
+   * head of the list. No elements are copied.
+   * 
+   * @param   from : index of the first element of the view.
+   * @param   to : index after the last element of the view.
+   */
+  public ListView<T> subList(int from, int to) {
+    if (from < 0 || from > to || to > listSize) {
+      throw new IndexOutOfBoundsException("fromIndex: " + from + ", toIndex: " + to
+          + ". Collection size: " + listSize);
+    }
+    SNode<T> node = head;
+    for (int i = 0; i < from; i++) {
+      node = node.getNext();
+    }
+    return ListView.of(node, to - from);
+  }
+
   /*
    * Returns an object of ListIterator, used to iterate through
    * a singly linked list
@@ -189,6 +800,21 @@ public class SLinkedList<T> implements ILinkedList<T> {
     return new ListIterator();
   }
 
+  /*
+   * Returns a read-only iterator over the elements in the list at the time of the call. Later
+   * changes to the list are not seen by the iterator, and it never throws a
+   * ConcurrentModificationException, so it may be handed to and used by another thread while
+   * this list continues to be changed. The first call builds the persistent version of the
+   * elements, later calls hand out the current version without copying anything.
+   */
+  public ICursor<T> snapshotIterator() {
+    if (!snapshotting) {
+      snapshot = SnapshotTree.of(head, listSize);
+      snapshotting = true;
+    }
+    return new SnapshotIterator<>(snapshot, IIterator.IteratorDirection.FORWARD);
+  }
+
   /*
    * Iterator class to allow list to be travesersed unidirectionally.
    * 
@@ -214,19 +840,68 @@ public class SLinkedList<T> implements ILinkedList<T> {
    *                 iteration. Iterator.next() must be called in the current iteration
    *                 prior to calling addAfter().
    * 
-   *    Note: Only one instance of remove(), addBefore() or addAfter() should be invoked
-   *          per iteration.
+   *    Note: remove(), addBefore() and addAfter() throw an IllegalStateException when there
+   *          is no current node, i.e. before next() is called or after remove(). Every method
+   *          throws a ConcurrentModificationException if the list has been structurally
+   *          changed other than through this iterator.
    */
   private class ListIterator implements IIterator<T> {
 
     private SNode<T> prev;
     private SNode<T> curr;
     private SNode<T> next;
+    private SNode<T> last;
+    private int currIdx;
+    private int nextIdx;
+    private int expectedModCount;
 
     private ListIterator() {
       this.prev = null;
       this.curr = null;
       this.next = head;
+      this.last = null;
+      this.currIdx = -1;
+      this.nextIdx = 0;
+      this.expectedModCount = modCount;
+    }
+
+    /*
+     * Return the list this iterator belongs to.
+     */
+    private SLinkedList<T> list() {
+      return SLinkedList.this;
+    }
+
+    /*
+     * Throw a ConcurrentModificationException if the list has been structurally changed other
+     * than through this iterator since it was created.
+     */
+    private void checkForComodification() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    /*
+     * Throw an IllegalStateException if there is no current node, because next() has not been
+     * called or the current node has been removed.
+     */
+    private void checkCurrent() {
+      if (curr == null) {
+        throw new IllegalStateException("Iterator has no current node");
+      }
+    }
+
+    /*
+     * Return the node now linked before the next node, null if the next node is the head. This
+     * is the last node added after the current node if there is one, otherwise the current node,
+     * or the previous node if the current node was removed.
+     */
+    private SNode<T> beforeNext() {
+      if (last != null) {
+        return last;
+      }
+      return curr == null ? prev : curr;
     }
 
     public SNode<T> getPrev() {
@@ -253,6 +928,19 @@ public class SLinkedList<T> implements ILinkedList<T> {
       next = node;
     }
 
+    /*
+     * Target the next node in the list. The next node then becomes the current node and is ready
+     * to be processed. Nodes added or spliced after the current node are not visited.
+     */
+    public void next() {
+      checkForComodification();
+      prev = beforeNext();
+      last = null;
+      curr = next;
+      next = curr.getNext();
+      currIdx = nextIdx++;
+    }
+
     /*
      * Interface implementation of method. Has no function for a singly linked list. Return false.
      */
@@ -266,44 +954,106 @@ public class SLinkedList<T> implements ILinkedList<T> {
     public void prev() {
     }
 
+    /*
+     * Set the data property of the current node. Checks that the current node has not been removed
+     * prior to setting the data property.
+     * 
+     * @param   data : object to replace the existing object in the current node.
+     */
+    public void set(T data) {
+      checkForComodification();
+      if (curr != null) {
+        curr.setData(data);
+        if (snapshotting) {
+          snapshot = SnapshotTree.set(snapshot, currIdx, data);
+        }
+      }
+    }
+
     /*
      * Removes the current node from the list. This method should not be called unless next() has been
      * called prior in the same iteration. The previous node to the one being removed will be changed
      * so that it points to the node immediately after the one being removed 
      */
     public void remove() {
-      if (curr != head) {
-        prev.setNext(next);
-        if (next == null) {
-          tail = prev;
-        }
+      ListMetrics m = metrics;
+      long start = m == null ? 0 : System.nanoTime();
+      checkForComodification();
+      checkCurrent();
+      SNode<T> succ = curr.getNext();
+      if (prev == null) {
+        head = succ;
       } else {
-        head = next;
+        prev.setNext(succ);
+      }
+      if (succ == null) {
+        tail = prev;
       }
-      curr.setNext(null);
+      recycle(curr);
       curr = null;
       listSize--;
+      nextIdx--;
+      expectedModCount = ++modCount;
+      if (snapshotting) {
+        snapshot = SnapshotTree.remove(snapshot, currIdx);
+      }
+      if (m != null) {
+        m.record(ListMetrics.Operation.ITERATOR_REMOVE, SLinkedList.this, start, nextIdx, 0,
+            listSize);
+      }
     }
 
     public void addBefore(T object) {
-      SNode<T> newNode = new SNode<>(object);
+      ListMetrics m = metrics;
+      long start = m == null ? 0 : System.nanoTime();
+      checkForComodification();
+      checkCurrent();
+      SNode<T> newNode = newNode(object);
       if (prev == null) {
         head = newNode;
       } else {
         prev.setNext(newNode);
       }
       newNode.setNext(curr);
+      // The new node now precedes the current node, so further nodes are added after it.
+      prev = newNode;
       listSize++;
+      nextIdx++;
+      expectedModCount = ++modCount;
+      if (snapshotting) {
+        snapshot = SnapshotTree.insert(snapshot, currIdx, object);
+      }
+      currIdx++;
+      if (m != null) {
+        m.record(ListMetrics.Operation.ITERATOR_ADD, SLinkedList.this, start, nextIdx - 2, 0,
+            listSize);
+      }
     }
 
     public void addAfter(T object) {
-      SNode<T> newNode = new SNode<>(object);
+      ListMetrics m = metrics;
+      long start = m == null ? 0 : System.nanoTime();
+      checkForComodification();
+      checkCurrent();
+      SNode<T> newNode = newNode(object);
       newNode.setNext(curr.getNext());
       if (newNode.getNext() == null) {
         tail = newNode;
       }
       curr.setNext(newNode);
+      if (last == null) {
+        last = newNode;
+      }
       listSize++;
+      nextIdx++;
+      expectedModCount = ++modCount;
+      if (snapshotting) {
+        snapshot = SnapshotTree.insert(snapshot, currIdx + 1, object);
+      }
+      if (m != null) {
+        m.record(ListMetrics.Operation.ITERATOR_ADD, SLinkedList.this, start, nextIdx - 1, 0,
+            listSize);
+      }
     }
   }
-}
\ No newline at end of file
+}
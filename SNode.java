@@ -1,5 +1,8 @@
 package com.cqueltech.linkedlist;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /*
  * Class definition to define each element for a linked list. Consists of two class
  * variables, 'data' (data to be stored in the element) and 'next' (stores reference/
@@ -8,10 +11,28 @@ package com.cqueltech.linkedlist;
  * @param   object : of type 'Object', item to be stored within the node.
  * @param   next : of type 'Node', a reference/pointer to the next node in the list
  * 
+ * Both variables are plain fields. Lists shared between threads access them through the
+ * atomic accessors at the bottom of the class, which use VarHandles to provide memory
+ * ordering and compare-and-set without paying for a volatile field in single threaded lists.
+ * 
  * @author  Jonathan Bateman
  * @version 1.0.1
  */
 class SNode<T> {
+
+  private static final VarHandle OBJECT;
+  private static final VarHandle NEXT;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      OBJECT = lookup.findVarHandle(SNode.class, "object", Object.class);
+      NEXT = lookup.findVarHandle(SNode.class, "next", SNode.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
   private T object;
   private SNode<T> next;
 
@@ -35,4 +56,29 @@ class SNode<T> {
   void setNext(SNode<T> next) {
     this.next = next;
   }
+
+  /*
+   * Atomic accessors, used by lists that are shared between threads.
+   */
+  @SuppressWarnings("unchecked")
+  T getObjectAcquire() {
+    return (T) OBJECT.getAcquire(this);
+  }
+
+  void setDataRelease(T object) {
+    OBJECT.setRelease(this, object);
+  }
+
+  @SuppressWarnings("unchecked")
+  SNode<T> getNextAcquire() {
+    return (SNode<T>) NEXT.getAcquire(this);
+  }
+
+  void setNextRelease(SNode<T> next) {
+    NEXT.setRelease(this, next);
+  }
+
+  boolean casNext(SNode<T> expected, SNode<T> next) {
+    return NEXT.compareAndSet(this, expected, next);
+  }
 }
@@ -0,0 +1,57 @@
+package com.cqueltech.linkedlist;
+
+/*
+ * Class definition to define each element for an indexed doubly linked list. Extends DNode so
+ * that level 0 of the structure is an ordinary doubly linked chain of nodes. A node may also
+ * carry a 'tower' of express lane references (levels 1 and above) which allow a search to skip
+ * over runs of nodes. Each express lane reference records the number of level 0 nodes that it
+ * passes over (its span), which is what allows a node to be located by index.
+ * 
+ * @param   forward : of type 'SkipNode[]', the next node at each level above level 0.
+ * @param   span : of type 'int[]', number of level 0 nodes passed over by each forward
+ *                 reference.
+ * 
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+class SkipNode<T> extends DNode<T> {
+
+  private final SkipNode<T>[] forward;
+  private final int[] span;
+
+  /*
+   * Nodes of height 1 only live in the level 0 chain, so no tower arrays are allocated
+   * for them.
+   */
+  @SuppressWarnings("unchecked")
+  SkipNode(T object, int height) {
+    super(object); // Constructor for superclass
+    if (height > 1) {
+      this.forward = (SkipNode<T>[]) new SkipNode<?>[height - 1];
+      this.span = new int[height - 1];
+    } else {
+      this.forward = null;
+      this.span = null;
+    }
+  }
+
+  int getHeight() {
+    return forward == null ? 1 : forward.length + 1;
+  }
+
+  SkipNode<T> getForward(int level) {
+    return forward[level - 1];
+  }
+
+  void setForward(int level, SkipNode<T> node) {
+    forward[level - 1] = node;
+  }
+
+  int getSpan(int level) {
+    return span[level - 1];
+  }
+
+  void setSpan(int level, int span) {
+    this.span[level - 1] = span;
+  }
+}
@@ -0,0 +1,141 @@
+package com.cqueltech.linkedlist;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+
+/*
+ * Read-only iterator over a version of the elements of a list, held in a SnapshotTree. The
+ * version is shared with the list that made it and with other snapshot iterators, and is never
+ * changed, so the iterator is not affected by later changes to the list and may be used by any
+ * thread. Methods that would change the list throw an UnsupportedOperationException.
+ *
+ * The iterator walks the tree in order, keeping the path from the root to the current node, so
+ * each step to the next or previous element takes constant time on average.
+ *
+ * Class variables: root - Stores the root of the version being iterated over.
+ *                  path - Stores the ancestors of the current node, its parent on top.
+ *                  curr - Stores the current node, null if there is none.
+ *                  prevIdx - Stores the index of the previous element, -1 if there is none.
+ *                  nextIdx - Stores the index of the next element.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+class SnapshotIterator<T> implements ICursor<T> {
+
+  private final SnapshotTree<T> root;
+  private final ArrayDeque<SnapshotTree<T>> path;
+  private SnapshotTree<T> curr;
+  private int prevIdx;
+  private int nextIdx;
+
+  /*
+   * @param   root : version of the elements to iterate over, null if there are none.
+   * @param   direction : FORWARD to start before the first element, BACKWARD to start after
+   *                      the last.
+   */
+  SnapshotIterator(SnapshotTree<T> root, IIterator.IteratorDirection direction) {
+    this.root = root;
+    this.path = new ArrayDeque<>();
+    this.curr = null;
+    if (direction == IIterator.IteratorDirection.FORWARD) {
+      this.prevIdx = -1;
+      this.nextIdx = 0;
+    } else {
+      this.prevIdx = SnapshotTree.size(root) - 1;
+      this.nextIdx = SnapshotTree.size(root);
+    }
+  }
+
+  public boolean hasNext() {
+    return nextIdx < SnapshotTree.size(root);
+  }
+
+  public void next() {
+    if (nextIdx >= SnapshotTree.size(root)) {
+      throw new NoSuchElementException();
+    }
+    if (curr == null) {
+      // Not yet started from the front, begin at the first element.
+      descend(root, true);
+    } else if (curr.right != null) {
+      path.push(curr);
+      descend(curr.right, true);
+    } else {
+      // Climb until the node is reached from its left subtree.
+      SnapshotTree<T> parent = path.pop();
+      while (parent.right == curr) {
+        curr = parent;
+        parent = path.pop();
+      }
+      curr = parent;
+    }
+    prevIdx = nextIdx - 1;
+    nextIdx++;
+  }
+
+  public boolean hasPrev() {
+    return prevIdx >= 0;
+  }
+
+  public void prev() {
+    if (prevIdx < 0) {
+      throw new NoSuchElementException();
+    }
+    if (curr == null) {
+      // Not yet started from the back, begin at the last element.
+      descend(root, false);
+    } else if (curr.left != null) {
+      path.push(curr);
+      descend(curr.left, false);
+    } else {
+      // Climb until the node is reached from its right subtree.
+      SnapshotTree<T> parent = path.pop();
+      while (parent.left == curr) {
+        curr = parent;
+        parent = path.pop();
+      }
+      curr = parent;
+    }
+    nextIdx = prevIdx + 1;
+    prevIdx--;
+  }
+
+  public T get() {
+    return curr == null ? null : curr.object;
+  }
+
+  public void set(T data) {
+    throw readOnly();
+  }
+
+  public void remove() {
+    throw readOnly();
+  }
+
+  public void addBefore(T data) {
+    throw readOnly();
+  }
+
+  public void addAfter(T data) {
+    throw readOnly();
+  }
+
+  /*
+   * Make the first (or last) node of the subtree the current node, pushing the nodes passed on
+   * the way down.
+   */
+  private void descend(SnapshotTree<T> node, boolean first) {
+    SnapshotTree<T> child = first ? node.left : node.right;
+    while (child != null) {
+      path.push(node);
+      node = child;
+      child = first ? node.left : node.right;
+    }
+    curr = node;
+  }
+
+  private static UnsupportedOperationException readOnly() {
+    return new UnsupportedOperationException("Snapshot iterators are read-only");
+  }
+}
@@ -0,0 +1,206 @@
+package com.cqueltech.linkedlist;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * A node of a persistent sequence, used by SLinkedList and DLinkedList to keep a version of
+ * their elements that snapshot iterators can read while the list carries on changing. The
+ * sequence is an implicit treap: a binary tree holding the elements in order, with each node
+ * counting the elements below it so that an element is found by index rather than by key, and
+ * kept balanced by giving each node a random priority no greater than that of its parent.
+ *
+ * Nodes are never changed once created. Inserting, removing or replacing an element copies
+ * only the nodes on the path from the root to the element, O(log n) of them, and returns the
+ * root of a new version which shares every other node with the old one. A version taken by a
+ * snapshot iterator is therefore never copied or changed, and as every field is final it can
+ * be read by any thread. The empty sequence is represented by null.
+ *
+ * Class variables: object - Stores the element held by the node.
+ *                  left - Stores the subtree of elements before this one.
+ *                  right - Stores the subtree of elements after this one.
+ *                  size - Stores the number of elements in the subtree rooted at this node.
+ *                  priority - Stores the node's priority, in the range [0, 1).
+ *
+ * Static methods:
+ *    of(SNode first, int n) : Returns a balanced sequence of the objects held by a chain.
+ *    size(SnapshotTree t) : Returns the number of elements in the sequence.
+ *    insert(SnapshotTree t, int idx, Object object) : Inserts an element at an index.
+ *    insertAll(SnapshotTree t, int idx, SnapshotTree u) : Inserts a sequence at an index.
+ *    remove(SnapshotTree t, int idx) : Removes the element at an index.
+ *    set(SnapshotTree t, int idx, Object object) : Replaces the element at an index.
+ *    take(SnapshotTree t, int k) : Returns the first k elements.
+ *    drop(SnapshotTree t, int k) : Returns the elements after the first k.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+final class SnapshotTree<T> {
+
+  final T object;
+  final SnapshotTree<T> left;
+  final SnapshotTree<T> right;
+  final int size;
+  final double priority;
+
+  private SnapshotTree(T object, SnapshotTree<T> left, SnapshotTree<T> right, double priority) {
+    this.object = object;
+    this.left = left;
+    this.right = right;
+    this.size = size(left) + size(right) + 1;
+    this.priority = priority;
+  }
+
+  /*
+   * Return a sequence holding the objects of a chain of nodes, in order. The tree is built
+   * balanced in O(n) time, and each subtree's root is given the priority it would have had as
+   * the greatest of the subtree's random priorities, so later changes keep it balanced.
+   *
+   * @param   first : first node of the chain.
+   * @param   n : number of nodes in the chain to be included.
+   */
+  static <T> SnapshotTree<T> of(SNode<T> first, int n) {
+    return new Builder<>(first).build(n, 1.0);
+  }
+
+  static int size(SnapshotTree<?> t) {
+    return t == null ? 0 : t.size;
+  }
+
+  /*
+   * Return a new version with the object inserted at the specified index, from 0 to size(t).
+   */
+  static <T> SnapshotTree<T> insert(SnapshotTree<T> t, int idx, T object) {
+    return insert(t, idx, object, ThreadLocalRandom.current().nextDouble());
+  }
+
+  private static <T> SnapshotTree<T> insert(SnapshotTree<T> t, int idx, T object, double p) {
+    if (t == null || p > t.priority) {
+      // The new node belongs above this subtree, which is split around it.
+      return new SnapshotTree<>(object, take(t, idx), drop(t, idx), p);
+    }
+    int leftSize = size(t.left);
+    if (idx <= leftSize) {
+      return new SnapshotTree<>(t.object, insert(t.left, idx, object, p), t.right, t.priority);
+    }
+    return new SnapshotTree<>(t.object, t.left, insert(t.right, idx - leftSize - 1, object, p),
+        t.priority);
+  }
+
+  /*
+   * Return a new version with the elements of another sequence inserted at the specified index.
+   */
+  static <T> SnapshotTree<T> insertAll(SnapshotTree<T> t, int idx, SnapshotTree<T> u) {
+    return merge(merge(take(t, idx), u), drop(t, idx));
+  }
+
+  /*
+   * Return a new version without the element at the specified index.
+   */
+  static <T> SnapshotTree<T> remove(SnapshotTree<T> t, int idx) {
+    int leftSize = size(t.left);
+    if (idx < leftSize) {
+      return new SnapshotTree<>(t.object, remove(t.left, idx), t.right, t.priority);
+    }
+    if (idx > leftSize) {
+      return new SnapshotTree<>(t.object, t.left, remove(t.right, idx - leftSize - 1),
+          t.priority);
+    }
+    return merge(t.left, t.right);
+  }
+
+  /*
+   * Return a new version with the element at the specified index replaced by the object.
+   */
+  static <T> SnapshotTree<T> set(SnapshotTree<T> t, int idx, T object) {
+    int leftSize = size(t.left);
+    if (idx < leftSize) {
+      return new SnapshotTree<>(t.object, set(t.left, idx, object), t.right, t.priority);
+    }
+    if (idx > leftSize) {
+      return new SnapshotTree<>(t.object, t.left, set(t.right, idx - leftSize - 1, object),
+          t.priority);
+    }
+    return new SnapshotTree<>(object, t.left, t.right, t.priority);
+  }
+
+  /*
+   * Return the sequence of the first k elements.
+   */
+  static <T> SnapshotTree<T> take(SnapshotTree<T> t, int k) {
+    if (t == null || k <= 0) {
+      return null;
+    }
+    if (k >= t.size) {
+      return t;
+    }
+    int leftSize = size(t.left);
+    if (k <= leftSize) {
+      return take(t.left, k);
+    }
+    return new SnapshotTree<>(t.object, t.left, take(t.right, k - leftSize - 1), t.priority);
+  }
+
+  /*
+   * Return the sequence of the elements after the first k.
+   */
+  static <T> SnapshotTree<T> drop(SnapshotTree<T> t, int k) {
+    if (t == null || k >= t.size) {
+      return null;
+    }
+    if (k <= 0) {
+      return t;
+    }
+    int leftSize = size(t.left);
+    if (k > leftSize) {
+      return drop(t.right, k - leftSize - 1);
+    }
+    return new SnapshotTree<>(t.object, drop(t.left, k), t.right, t.priority);
+  }
+
+  /*
+   * Return the sequence of the elements of a followed by those of b.
+   */
+  private static <T> SnapshotTree<T> merge(SnapshotTree<T> a, SnapshotTree<T> b) {
+    if (a == null) {
+      return b;
+    }
+    if (b == null) {
+      return a;
+    }
+    if (a.priority > b.priority) {
+      return new SnapshotTree<>(a.object, a.left, merge(a.right, b), a.priority);
+    }
+    return new SnapshotTree<>(b.object, merge(a, b.left), b.right, b.priority);
+  }
+
+  /*
+   * Builds a balanced tree from a chain of nodes, taking the objects in order.
+   */
+  private static final class Builder<T> {
+
+    private final ThreadLocalRandom random = ThreadLocalRandom.current();
+    private SNode<T> node;
+
+    private Builder(SNode<T> first) {
+      this.node = first;
+    }
+
+    /*
+     * Return a tree of the next n objects of the chain, whose root has a priority below the
+     * specified bound.
+     */
+    private SnapshotTree<T> build(int n, double bound) {
+      if (n == 0) {
+        return null;
+      }
+      // The greatest of n uniform priorities below the bound.
+      double p = bound * Math.pow(random.nextDouble(), 1.0 / n);
+      int leftSize = (n - 1) / 2;
+      SnapshotTree<T> left = build(leftSize, p);
+      T object = node.getObject();
+      node = node.getNext();
+      SnapshotTree<T> right = build(n - 1 - leftSize, p);
+      return new SnapshotTree<>(object, left, right, p);
+    }
+  }
+}
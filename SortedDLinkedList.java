@@ -0,0 +1,698 @@
+package com.cqueltech.linkedlist;
+
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * A custom linked list class. This class denotes a doubly linked list kept in the order defined
+ * by a Comparator. It is built in the same way as IndexedDLinkedList: level 0 is an ordinary
+ * chain of doubly linked nodes and above it sit express lanes, each lane reference recording how
+ * many level 0 nodes it passes over (its span). Searches descend the lanes comparing elements
+ * instead of walking the chain, so inserting an element in order, finding an element and the
+ * ceiling() and floor() lookups cost O(log n). The spans keep track of each node's index, so
+ * get(int idx) and indexOf() are O(log n) as well. Uses the SkipNode class to generate elements
+ * for the list.
+ *
+ * Elements that compare equal are kept in the order they were inserted. Appending an element
+ * that sorts at or after the tail, the common case for a queue ordered by time or sequence
+ * number, never descends the lanes. Null elements are not permitted.
+ *
+ * Class variables: comparator - Defines the order of the elements in the list.
+ *                  header - Sentinel holding the first lane reference at each level.
+ *                  head - Stores the first node in the list.
+ *                  tail - Stores the last node in the list.
+ *                  last - Stores the rightmost node at each level above level 0.
+ *                  level - Number of levels currently in use.
+ *                  listSize - Stores the current size of the list.
+ *                  modCount - Stores the number of structural changes made to the list.
+ *
+ * Public methods:
+ *    insertSorted(Object object) : Insert an element at its sorted position.
+ *    remove(Object object) : Remove the first element equal to the object.
+ *    get(int idx) : Retrieves the element at the specified index.
+ *    pollFirst() : Retrieves and removes the first (lowest) element of this list.
+ *    pollLast() : Retrieves and removes the last (highest) element of this list.
+ *    ceiling(Object object) : Retrieves the lowest element greater than or equal to the object.
+ *    floor(Object object) : Retrieves the highest element less than or equal to the object.
+ *    iterator() : Return a ListIterator object to alow us to iterate through a list and
+ *                 remove the nodes it contains.
+ *    range(Object from, Object to) : Return a ListIterator over the elements from 'from'
+ *                                    (inclusive) to 'to' (exclusive).
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public class SortedDLinkedList<T> implements ILinkedList<T> {
+
+  /*
+   * Each level is reached with a probability of 1/4, so 16 levels comfortably cover any list
+   * that can be indexed with an int.
+   */
+  private static final int MAX_LEVEL = 16;
+
+  private final Comparator<? super T> comparator;
+  private final SkipNode<T> header;
+  private final SkipNode<T>[] last;
+  private SkipNode<T> head;
+  private SkipNode<T> tail;
+  private int level;
+  private int listSize;
+  private int modCount;
+
+  // Scratch arrays reused by every search to record the node preceding the target position at
+  // each level and the rank (1 based index) of that node.
+  private final SkipNode<T>[] update;
+  private final int[] rank;
+
+  /*
+   * @param   comparator : defines the order of the elements in the list.
+   */
+  @SuppressWarnings("unchecked")
+  public SortedDLinkedList(Comparator<? super T> comparator) {
+    if (comparator == null) {
+      throw new NullPointerException();
+    }
+    this.comparator = comparator;
+    this.header = new SkipNode<>(null, MAX_LEVEL);
+    this.last = (SkipNode<T>[]) new SkipNode<?>[MAX_LEVEL];
+    this.update = (SkipNode<T>[]) new SkipNode<?>[MAX_LEVEL];
+    this.rank = new int[MAX_LEVEL];
+    this.head = null;
+    this.tail = null;
+    this.level = 1;
+    this.listSize = 0;
+    this.modCount = 0;
+  }
+
+  public DNode<T> getHead() {
+    return head;
+  }
+
+  public DNode<T> getTail() {
+    return tail;
+  }
+
+  public int getSize() {
+    return listSize;
+  }
+
+  public Comparator<? super T> getComparator() {
+    return comparator;
+  }
+
+  /*
+   * Insert an element at its sorted position, after any elements that compare equal to it.
+   *
+   * @param object : Parameter of type 'object' which will be stored in the new node
+   * instance.
+   *
+   */
+  public void insertSorted(T object) {
+    if (object == null) {
+      throw new NullPointerException();
+    }
+    if (tail == null || comparator.compare(object, tail.getObject()) >= 0) {
+      findPredecessors(listSize);
+    } else {
+      findPredecessors(object, true);
+    }
+    insert(object);
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element to the list. The element is inserted at its sorted position, in the same way
+   * as insertSorted().
+   *
+   * @param object : Parameter of type 'object' which will be stored in the new node
+   * instance.
+   *
+   */
+  public void add(T object) {
+    insertSorted(object);
+  }
+
+  /*
+   * @Overloaded method
+   * Positional insertion is not supported, the position of an element is set by the
+   * comparator.
+   */
+  public void add(T object, int idx) {
+    throw new UnsupportedOperationException("Positional insertion is not supported by "
+        + "SortedDLinkedList");
+  }
+
+  /*
+   * Remove the first element equal to the specified object. Returns true if an element was
+   * removed.
+   *
+   * @param object : Parameter of type 'object', the element to be removed.
+   *
+   */
+  public boolean remove(T object) {
+    int idx = indexOf(object);
+    if (idx < 0) {
+      return false;
+    }
+    delete(idx);
+    return true;
+  }
+
+  /*
+   * Retrieves, but does not remove, the element at the specified index.
+   *
+   * @param idx : Parameter of type 'int', position of the element to be retrieved.
+   *
+   */
+  public T get(int idx) {
+    checkNodeIndexValid(idx);
+    return node(idx).getObject();
+  }
+
+  /*
+   * Retrieves and removes the first (lowest) element of this list. Returns null if list is
+   * empty.
+   */
+  public T pollFirst() {
+    return head == null ? null : delete(0).getObject();
+  }
+
+  /*
+   * Retrieves and removes the last (highest) element of this list. Returns null if list is
+   * empty.
+   */
+  public T pollLast() {
+    return tail == null ? null : delete(listSize - 1).getObject();
+  }
+
+  /*
+   * Retrieves and removes the head (first element) of this list. Returns null if list
+   * is empty
+   */
+  public T poll() {
+    return pollFirst();
+  }
+
+  /*
+   * Retrieves and removes the tail (last element) of this list. Returns
+   * null if list is empty.
+   */
+  public T pollTail() {
+    return pollLast();
+  }
+
+  /*
+   * Retrieves, but does not remove, the lowest element greater than or equal to the specified
+   * object. Returns null if there is no such element.
+   *
+   * @param   object : the element to compare against.
+   */
+  public T ceiling(T object) {
+    SkipNode<T> node = forward(findPredecessors(object, false), 0);
+    return node == null ? null : node.getObject();
+  }
+
+  /*
+   * Retrieves, but does not remove, the highest element less than or equal to the specified
+   * object. Returns null if there is no such element.
+   *
+   * @param   object : the element to compare against.
+   */
+  public T floor(T object) {
+    SkipNode<T> node = findPredecessors(object, true);
+    return node == header ? null : node.getObject();
+  }
+
+  /*
+   * Return the index of the first element equal to the specified object, or -1 if it is not
+   * found. The lanes are descended to the first element that compares equal, then the run of
+   * elements that compare equal is searched for one that is equal.
+   *
+   * @param   object : item that is being searched for.
+   */
+  public int indexOf(T object) {
+    if (object == null || head == null) {
+      return -1;
+    }
+    SkipNode<T> node = findPredecessors(object, false);
+    int idx = rank[0];
+    for (node = forward(node, 0); node != null; node = (SkipNode<T>) node.getNext()) {
+      if (comparator.compare(node.getObject(), object) != 0) {
+        break;
+      }
+      if (object.equals(node.getObject())) {
+        return idx;
+      }
+      idx++;
+    }
+    return -1;
+  }
+
+  /*
+   * Returns an object of interface Iterator, used to iterate through the whole list in the
+   * specified direction.
+   */
+  public IIterator<T> iterator(IIterator.IteratorDirection direction) {
+    return new ListIterator(direction, null, null);
+  }
+
+  /*
+   * Returns an object of interface Iterator, used to iterate in the specified direction through
+   * the elements greater than or equal to 'fromObject' and less than 'toObject'. Either bound
+   * may be null, in which case the range is open at that end. The iterator is positioned at the
+   * start of the range in O(log n).
+   *
+   * @param   fromObject : low end of the range, inclusive.
+   * @param   toObject : high end of the range, exclusive.
+   * @param   direction : FORWARD to start at the low end, BACKWARD to start at the high end.
+   */
+  public IIterator<T> range(T fromObject, T toObject, IIterator.IteratorDirection direction) {
+    if (fromObject != null && toObject != null && comparator.compare(fromObject, toObject) > 0) {
+      throw new IllegalArgumentException("fromObject > toObject");
+    }
+    return new ListIterator(direction, fromObject, toObject);
+  }
+
+  /*
+   * Return the node following the specified node at the specified level. The header acts as
+   * the node preceding the head at level 0.
+   */
+  private SkipNode<T> forward(SkipNode<T> node, int lvl) {
+    if (lvl == 0) {
+      return node == header ? head : (SkipNode<T>) node.getNext();
+    }
+    return node.getForward(lvl);
+  }
+
+  /*
+   * Return the number of level 0 nodes passed over by a node's reference at the specified
+   * level. At level 0 every reference passes over exactly one node.
+   */
+  private int span(SkipNode<T> node, int lvl) {
+    return lvl == 0 ? 1 : node.getSpan(lvl);
+  }
+
+  /*
+   * Return a random height for a new node. Every extra level is reached with a probability
+   * of 1/4.
+   */
+  private static int randomLevel() {
+    int bits = ThreadLocalRandom.current().nextInt() | (1 << 30);
+    return 1 + Integer.numberOfTrailingZeros(bits) / 2;
+  }
+
+  /*
+   * Locate the node at the specified index by descending the express lanes.
+   *
+   * @param   idx : position of an existing node.
+   */
+  private SkipNode<T> node(int idx) {
+    if (idx == 0) {
+      return head;
+    } else if (idx == listSize - 1) {
+      return tail;
+    }
+    SkipNode<T> x = header;
+    int r = 0;
+    int target = idx + 1;
+    for (int lvl = level - 1; lvl >= 0; lvl--) {
+      SkipNode<T> f;
+      while ((f = forward(x, lvl)) != null && r + span(x, lvl) <= target) {
+        r += span(x, lvl);
+        x = f;
+      }
+      if (r == target) {
+        return x;
+      }
+    }
+    return x;
+  }
+
+  /*
+   * Fill the 'update' and 'rank' scratch arrays with the last node preceding the specified
+   * position at every level in use, along with the rank of each of those nodes.
+   *
+   * @param   idx : position, the nodes recorded are those with an index lower than idx.
+   */
+  private void findPredecessors(int idx) {
+    if (idx == listSize) {
+      // Appending, the rightmost node at each level already precedes the position so there
+      // is no need to descend. A node's span at the end of its level is the number of nodes
+      // that follow it, which gives its rank.
+      for (int lvl = level - 1; lvl >= 1; lvl--) {
+        update[lvl] = last[lvl];
+        rank[lvl] = listSize - last[lvl].getSpan(lvl);
+      }
+      update[0] = tail == null ? header : tail;
+      rank[0] = listSize;
+      return;
+    }
+    SkipNode<T> x = header;
+    int r = 0;
+    for (int lvl = level - 1; lvl >= 0; lvl--) {
+      SkipNode<T> f;
+      while ((f = forward(x, lvl)) != null && r + span(x, lvl) <= idx) {
+        r += span(x, lvl);
+        x = f;
+      }
+      update[lvl] = x;
+      rank[lvl] = r;
+    }
+  }
+
+  /*
+   * @Overloaded method
+   * Fill the 'update' and 'rank' scratch arrays with the last node at every level in use that
+   * sorts before the specified object, along with the rank of each of those nodes. Returns the
+   * node recorded at level 0, which is the header if there is none.
+   *
+   * @param   object : the element to compare against.
+   * @param   inclusive : true to also pass over nodes that compare equal to the object.
+   */
+  private SkipNode<T> findPredecessors(T object, boolean inclusive) {
+    if (object == null) {
+      throw new NullPointerException();
+    }
+    int limit = inclusive ? 0 : -1;
+    SkipNode<T> x = header;
+    int r = 0;
+    for (int lvl = level - 1; lvl >= 0; lvl--) {
+      SkipNode<T> f;
+      while ((f = forward(x, lvl)) != null && comparator.compare(f.getObject(), object) <= limit) {
+        r += span(x, lvl);
+        x = f;
+      }
+      update[lvl] = x;
+      rank[lvl] = r;
+    }
+    return x;
+  }
+
+  /*
+   * Create a new node for the specified object and link it into the list after the nodes held
+   * in the 'update' array, which must already have been filled by findPredecessors().
+   *
+   * @param   object : item to be stored in the new node.
+   */
+  private SkipNode<T> insert(T object) {
+    int height = randomLevel();
+    if (height > level) {
+      // The new node is taller than any other node, the extra levels start at the header
+      // and (until now) span the whole list.
+      for (int lvl = level; lvl < height; lvl++) {
+        header.setForward(lvl, null);
+        header.setSpan(lvl, listSize);
+        last[lvl] = header;
+        update[lvl] = header;
+        rank[lvl] = 0;
+      }
+      level = height;
+    }
+
+    SkipNode<T> newNode = new SkipNode<>(object, height);
+
+    // Splice the new node into each express lane it is tall enough to reach, splitting the
+    // span of the preceding node between the two.
+    for (int lvl = 1; lvl < height; lvl++) {
+      SkipNode<T> pred = update[lvl];
+      newNode.setForward(lvl, pred.getForward(lvl));
+      newNode.setSpan(lvl, pred.getSpan(lvl) - (rank[0] - rank[lvl]));
+      pred.setForward(lvl, newNode);
+      pred.setSpan(lvl, rank[0] - rank[lvl] + 1);
+      if (newNode.getForward(lvl) == null) {
+        last[lvl] = newNode;
+      }
+    }
+    // Lanes above the new node now pass over one more node.
+    for (int lvl = height; lvl < level; lvl++) {
+      update[lvl].setSpan(lvl, update[lvl].getSpan(lvl) + 1);
+    }
+
+    // Link the new node into the level 0 chain.
+    SkipNode<T> pred = update[0];
+    if (pred == header) {
+      newNode.setNext(head);
+      if (head == null) {
+        tail = newNode;
+      } else {
+        head.setPrev(newNode);
+      }
+      head = newNode;
+    } else {
+      SkipNode<T> succ = (SkipNode<T>) pred.getNext();
+      pred.setNext(newNode);
+      newNode.setPrev(pred);
+      newNode.setNext(succ);
+      if (succ == null) {
+        tail = newNode;
+      } else {
+        succ.setPrev(newNode);
+      }
+    }
+
+    listSize++;
+    modCount++;
+    return newNode;
+  }
+
+  /*
+   * Unlink the node at the specified position from every level of the list and return it.
+   * Position must already have been validated.
+   *
+   * @param   idx : position of the node to be removed.
+   */
+  private SkipNode<T> delete(int idx) {
+    SkipNode<T> target;
+    if (idx == listSize - 1 && tail.getHeight() == 1) {
+      // Removing a tail that has no tower, none of the express lanes reference it so the
+      // rightmost node at each level precedes it.
+      for (int lvl = level - 1; lvl >= 1; lvl--) {
+        update[lvl] = last[lvl];
+      }
+      target = tail;
+    } else {
+      // At index 0 the descent never leaves the header.
+      findPredecessors(idx);
+      target = forward(update[0], 0);
+    }
+
+    for (int lvl = 1; lvl < level; lvl++) {
+      SkipNode<T> pred = update[lvl];
+      if (pred.getForward(lvl) == target) {
+        // The preceding node inherits the target's reference and span at this level.
+        pred.setSpan(lvl, pred.getSpan(lvl) + target.getSpan(lvl) - 1);
+        pred.setForward(lvl, target.getForward(lvl));
+        if (last[lvl] == target) {
+          last[lvl] = pred;
+        }
+      } else {
+        pred.setSpan(lvl, pred.getSpan(lvl) - 1);
+      }
+    }
+    while (level > 1 && header.getForward(level - 1) == null) {
+      level--;
+    }
+
+    // Unlink the target from the level 0 chain.
+    DNode<T> prevNode = target.getPrev();
+    SkipNode<T> nextNode = (SkipNode<T>) target.getNext();
+    if (prevNode == null) {
+      head = nextNode;
+    } else {
+      prevNode.setNext(nextNode);
+    }
+    if (nextNode == null) {
+      tail = (SkipNode<T>) prevNode;
+    } else {
+      nextNode.setPrev(prevNode);
+    }
+    target.setNext(null);
+    target.setPrev(null);
+
+    listSize--;
+    modCount++;
+    return target;
+  }
+
+  /*
+   * Iterator class to allow list to be travesersed bidirectionally, optionally limited to a
+   * range of elements. Removing the current node is routed through the list's positional
+   * delete so that the express lanes stay in step with the level 0 chain, the iterator keeps
+   * track of the index of the current node to make this possible. Elements cannot be added or
+   * replaced through the iterator as that could break the order of the list.
+   *
+   *    Note: the iterator throws a ConcurrentModificationException if the list has been
+   *          structurally changed other than through this iterator, as the index it holds would
+   *          then no longer locate its current node.
+   *
+   * @param next : holds the reference/pointer to the next node to be processed.
+   *
+   * @param idx : index of the current node in the list.
+   *
+   * @param low : lowest element in the range (inclusive), null if the range has no low end.
+   *
+   * @param high : highest element in the range (exclusive), null if the range has no high end.
+   */
+  private class ListIterator implements IIterator<T> {
+
+    private SkipNode<T> prev;
+    private SkipNode<T> curr;
+    private SkipNode<T> next;
+    private int idx;
+    private final T low;
+    private final T high;
+    // Set when the current node was removed, the next node then occupies its index.
+    private boolean removed;
+    private int expectedModCount;
+
+    private ListIterator(IteratorDirection direction, T low, T high) {
+      this.low = low;
+      this.high = high;
+      if (direction == IteratorDirection.FORWARD) {
+        if (low == null) {
+          this.prev = null;
+          this.next = head;
+          this.idx = -1;
+        } else {
+          SkipNode<T> pred = findPredecessors(low, false);
+          this.prev = pred == header ? null : pred;
+          this.next = forward(pred, 0);
+          this.idx = rank[0] - 1;
+        }
+      } else {
+        if (high == null) {
+          this.prev = tail;
+          this.next = null;
+          this.idx = listSize;
+        } else {
+          SkipNode<T> pred = findPredecessors(high, false);
+          this.prev = pred == header ? null : pred;
+          this.next = forward(pred, 0);
+          this.idx = rank[0];
+        }
+      }
+      this.curr = null;
+      this.expectedModCount = modCount;
+    }
+
+    /*
+     * Throw a ConcurrentModificationException if the list has been structurally changed other
+     * than through this iterator since it was created.
+     */
+    private void checkForComodification() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    public SkipNode<T> getPrev() {
+      return prev;
+    }
+
+    public SkipNode<T> getCurr() {
+      return curr;
+    }
+
+    public SkipNode<T> getNext() {
+      return next;
+    }
+
+    public void setPrev(SNode<T> node) {
+      prev = (SkipNode<T>) node;
+    }
+
+    public void setCurr(SNode<T> node) {
+      curr = (SkipNode<T>) node;
+    }
+
+    public void setNext(SNode<T> node) {
+      next = (SkipNode<T>) node;
+    }
+
+    /*
+     * Returns true when there is another node within the range after the current node.
+     */
+    public boolean hasNext() {
+      return next != null && (high == null || comparator.compare(next.getObject(), high) < 0);
+    }
+
+    /*
+     * Target the next node in the list, keeping track of its index.
+     */
+    public void next() {
+      checkForComodification();
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      IIterator.super.next();
+      idx += removed ? 0 : 1;
+      removed = false;
+    }
+
+    /*
+     * Returns true when there is another node within the range before the current node.
+     */
+    public boolean hasPrev() {
+      return prev != null && (low == null || comparator.compare(prev.getObject(), low) >= 0);
+    }
+
+    /*
+     * Target the previous node in the list. The previous node then becomes the current node and is ready
+     * to be processed.
+     */
+    public void prev() {
+      checkForComodification();
+      if (prev == null) {
+        throw new NoSuchElementException();
+      }
+      if (curr != null) {
+        next = curr;
+      }
+      curr = prev;
+      prev = (SkipNode<T>) curr.getPrev();
+      idx--;
+      removed = false;
+    }
+
+    /*
+     * Replacing an element is not supported, it could break the order of the list.
+     */
+    public void set(T data) {
+      throw new UnsupportedOperationException("Elements of a SortedDLinkedList cannot be "
+          + "replaced");
+    }
+
+    /*
+     * Removes the current node from the list. This method should not be called unless next() has been
+     * called prior in the same iteration.
+     */
+    public void remove() {
+      checkForComodification();
+      if (curr == null) {
+        throw new IllegalStateException("Iterator has no current node");
+      }
+      delete(idx);
+      curr = null;
+      removed = true;
+      expectedModCount = modCount;
+    }
+
+    /*
+     * Adding an element at a position is not supported, use insertSorted().
+     */
+    public void addBefore(T data) {
+      throw new UnsupportedOperationException("Positional insertion is not supported by "
+          + "SortedDLinkedList");
+    }
+
+    /*
+     * Adding an element at a position is not supported, use insertSorted().
+     */
+    public void addAfter(T data) {
+      throw new UnsupportedOperationException("Positional insertion is not supported by "
+          + "SortedDLinkedList");
+    }
+  }
+}
@@ -0,0 +1,314 @@
+package com.cqueltech.linkedlist;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * A custom linked list class. This class denotes a list striped across a number of SLinkedList
+ * shards, for workloads where many threads add elements at the same time. In the same way as
+ * java.util.concurrent.atomic.LongAdder, each thread is routed to a shard by a per-thread probe
+ * value. A thread that finds its shard busy moves its probe on to another shard, so threads soon
+ * spread out and add to shards of their own, and appends scale with the number of threads rather
+ * than all contending on a single tail.
+ *
+ * The list has no single order. Each shard keeps the order in which its elements were added, and
+ * the merged view used by poll(), peek(), indexOf(), getSize(), drain() and streams visits the
+ * shards one after another. Elements added by one thread stay in order as long as the thread
+ * stays on one shard. A global order would need a counter shared by every add(), which is the
+ * contention this class exists to avoid.
+ *
+ * Every shard is guarded by its own lock. Operations over the whole list take the shard locks one
+ * at a time, so they see every element added before they started but are not atomic snapshots.
+ * Positional insertion is not supported.
+ *
+ * Class variables: shards - Stores the shards, the number of shards is a power of 2.
+ *
+ * Public methods:
+ *    add(Object object) : Add an element to the end of the calling thread's shard.
+ *    poll() : Retrieves and removes the first element of the first non-empty shard.
+ *    drain() : Remove every element, returned as a single SLinkedList.
+ *    drainTo(Collection c) : Remove every element and add them to the collection.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public class StripedSLinkedList<T> implements IList<T> {
+
+  /*
+   * A shard of the list. The size is also held in a volatile field so that it can be read
+   * without taking the lock.
+   *
+   * Every add() writes to its shard, so shards must not share a cache line or appends to
+   * different shards would contend again. As LongAdder's cells are padded with @Contended
+   * (which is not available to classes outside the JDK by default), the fields of a shard sit
+   * between 128 bytes of unused fields on either side, enough to cover a pair of cache lines
+   * fetched together. The JVM may reorder the fields of a class but always lays out a
+   * superclass's fields first, so the padding is split across the classes ShardPadBefore,
+   * ShardFields and Shard. A shard's lock and list are allocated straight after the shard, so
+   * they also start out separated from the next shard by its padding.
+   */
+  private static class ShardPadBefore {
+    // Fills the gap after the object header, which a later int field could otherwise take.
+    int p;
+    long p00, p01, p02, p03, p04, p05, p06, p07, p08, p09, p10, p11, p12, p13, p14, p15;
+  }
+
+  private static class ShardFields<T> extends ShardPadBefore {
+    final ReentrantLock lock = new ReentrantLock();
+    SLinkedList<T> list = new SLinkedList<>();
+    volatile int size;
+  }
+
+  private static final class Shard<T> extends ShardFields<T> {
+    long q00, q01, q02, q03, q04, q05, q06, q07, q08, q09, q10, q11, q12, q13, q14, q15;
+  }
+
+  // Number of times add() moves on to another shard before waiting for a busy one.
+  private static final int MAX_PROBES = 4;
+
+  // Per-thread probe used to pick a shard, as LongAdder uses the thread's hash probe.
+  private static final ThreadLocal<int[]> PROBE =
+      ThreadLocal.withInitial(() -> new int[] {ThreadLocalRandom.current().nextInt() | 1});
+
+  private final Shard<T>[] shards;
+
+  public StripedSLinkedList() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /*
+   * @param   stripes : number of shards, rounded up to a power of 2.
+   */
+  @SuppressWarnings("unchecked")
+  public StripedSLinkedList(int stripes) {
+    if (stripes <= 0 || stripes > 1 << 16) {
+      throw new IllegalArgumentException("Illegal number of stripes: " + stripes);
+    }
+    int n = Integer.highestOneBit(stripes);
+    if (n < stripes) {
+      n <<= 1;
+    }
+    shards = (Shard<T>[]) new Shard<?>[n];
+    for (int i = 0; i < n; i++) {
+      shards[i] = new Shard<>();
+    }
+  }
+
+  /*
+   * Returns the number of elements in the list, summed over the shards. The value is exact when
+   * no other thread is modifying the list, otherwise it is an estimate.
+   */
+  public int getSize() {
+    long size = 0;
+    for (Shard<T> shard : shards) {
+      size += shard.size;
+    }
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  public boolean isEmpty() {
+    for (Shard<T> shard : shards) {
+      if (shard.size > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int size() {
+    return getSize();
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element to the end of the calling thread's shard. If the shard is locked by another
+   * thread the probe is moved on and another shard is tried, after a few attempts the thread
+   * waits for the shard it has reached.
+   *
+   * @param object : Parameter of type 'object' which will be stored in the new node
+   * instance.
+   *
+   */
+  public void add(T object) {
+    int[] probe = PROBE.get();
+    int h = probe[0];
+    Shard<T> shard = shards[h & (shards.length - 1)];
+    for (int attempt = 0; !shard.lock.tryLock(); attempt++) {
+      // Contended, rehash the probe (xorshift, as LongAdder does) and try another shard.
+      h ^= h << 13;
+      h ^= h >>> 17;
+      h ^= h << 5;
+      probe[0] = h;
+      shard = shards[h & (shards.length - 1)];
+      if (attempt == MAX_PROBES) {
+        shard.lock.lock();
+        break;
+      }
+    }
+    try {
+      shard.list.add(object);
+      shard.size++;
+    } finally {
+      shard.lock.unlock();
+    }
+  }
+
+  /*
+   * @Overloaded method
+   * Positional insertion is not supported, the list has no single order.
+   */
+  public void add(T object, int idx) {
+    throw new UnsupportedOperationException("Positional insertion is not supported by "
+        + "StripedSLinkedList");
+  }
+
+  /*
+   * Retrieves and removes the first element of the first non-empty shard. Returns null if the
+   * list is empty.
+   */
+  public T poll() {
+    for (Shard<T> shard : shards) {
+      if (shard.size > 0) {
+        shard.lock.lock();
+        try {
+          if (shard.size > 0) {
+            shard.size--;
+            return shard.list.poll();
+          }
+        } finally {
+          shard.lock.unlock();
+        }
+      }
+    }
+    return null;
+  }
+
+  /*
+   * Retrieves, but does not remove, the first element of the first non-empty shard. Returns
+   * null if the list is empty.
+   */
+  public T peek() {
+    for (Shard<T> shard : shards) {
+      if (shard.size > 0) {
+        shard.lock.lock();
+        try {
+          if (shard.size > 0) {
+            return shard.list.peek();
+          }
+        } finally {
+          shard.lock.unlock();
+        }
+      }
+    }
+    return null;
+  }
+
+  /*
+   * Retrieves, but does not remove, the last element of the last non-empty shard. Returns null
+   * if the list is empty.
+   */
+  public T peekTail() {
+    for (int i = shards.length - 1; i >= 0; i--) {
+      Shard<T> shard = shards[i];
+      if (shard.size > 0) {
+        shard.lock.lock();
+        try {
+          if (shard.size > 0) {
+            return shard.list.peekTail();
+          }
+        } finally {
+          shard.lock.unlock();
+        }
+      }
+    }
+    return null;
+  }
+
+  /*
+   * Return the index of the first element equal to the specified object in the merged view,
+   * or -1 if it is not found.
+   *
+   * @param   object : item that is being searched for.
+   */
+  public int indexOf(T object) {
+    int base = 0;
+    for (Shard<T> shard : shards) {
+      shard.lock.lock();
+      try {
+        int idx = shard.list.indexOf(object);
+        if (idx >= 0) {
+          return base + idx;
+        }
+        base += shard.size;
+      } finally {
+        shard.lock.unlock();
+      }
+    }
+    return -1;
+  }
+
+  /*
+   * Remove every element from the list and return them as a single SLinkedList, in the order
+   * of the merged view. Each shard's nodes are detached under its lock in constant time and
+   * then spliced together, so no element is copied.
+   */
+  public SLinkedList<T> drain() {
+    SLinkedList<T> drained = new SLinkedList<>();
+    for (Shard<T> shard : shards) {
+      SLinkedList<T> list;
+      shard.lock.lock();
+      try {
+        if (shard.size == 0) {
+          continue;
+        }
+        list = shard.list;
+        shard.list = new SLinkedList<>();
+        shard.size = 0;
+      } finally {
+        shard.lock.unlock();
+      }
+      drained.addAll(list);
+    }
+    return drained;
+  }
+
+  /*
+   * Remove every element from the list and add them, in the order of the merged view, to the
+   * collection. Returns the number of elements moved.
+   *
+   * @param   c : collection the elements are added to.
+   */
+  public int drainTo(Collection<? super T> c) {
+    if (c == null) {
+      throw new NullPointerException();
+    }
+    return drain().drainTo(c);
+  }
+
+  /*
+   * Returns a Spliterator over a copy of the elements in the merged view. Each shard is copied
+   * under its lock, so the Spliterator is not affected by later changes to the list.
+   */
+  public Spliterator<T> spliterator() {
+    Object[] objects = new Object[0];
+    int n = 0;
+    for (Shard<T> shard : shards) {
+      shard.lock.lock();
+      try {
+        if (n + shard.size > objects.length) {
+          objects = Arrays.copyOf(objects, Math.max(n + shard.size, objects.length * 2));
+        }
+        for (SNode<T> node = shard.list.getHead(); node != null; node = node.getNext()) {
+          objects[n++] = node.getObject();
+        }
+      } finally {
+        shard.lock.unlock();
+      }
+    }
+    return Spliterators.spliterator(objects, 0, n, Spliterator.ORDERED);
+  }
+}
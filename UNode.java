@@ -0,0 +1,67 @@
+package com.cqueltech.linkedlist;
+
+/*
+ * Class definition to define each element for an unrolled linked list. Rather than storing a
+ * single object, each node stores a small array of objects so that the per-element cost of the
+ * node header and its references is shared between many elements, and neighbouring elements sit
+ * next to one another in memory.
+ * 
+ * @param   items : of type 'Object[]', the objects stored within the node. Only the first
+ *                  'count' slots are in use.
+ * @param   count : of type 'int', number of objects stored within the node.
+ * @param   prev : of type 'UNode', a reference/pointer to the previous node in the list.
+ * @param   next : of type 'UNode', a reference/pointer to the next node in the list.
+ * 
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+class UNode<T> {
+  private final Object[] items;
+  private int count;
+  private UNode<T> prev;
+  private UNode<T> next;
+
+  UNode(int capacity) {
+    this.items = new Object[capacity];
+    this.count = 0;
+    this.prev = null;
+    this.next = null;
+  }
+
+  Object[] getItems() {
+    return items;
+  }
+
+  @SuppressWarnings("unchecked")
+  T getItem(int idx) {
+    return (T) items[idx];
+  }
+
+  void setItem(int idx, T object) {
+    items[idx] = object;
+  }
+
+  int getCount() {
+    return count;
+  }
+
+  void setCount(int count) {
+    this.count = count;
+  }
+
+  UNode<T> getPrev() {
+    return prev;
+  }
+
+  void setPrev(UNode<T> prev) {
+    this.prev = prev;
+  }
+
+  UNode<T> getNext() {
+    return next;
+  }
+
+  void setNext(UNode<T> next) {
+    this.next = next;
+  }
+}
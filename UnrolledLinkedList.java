@@ -0,0 +1,549 @@
+package com.cqueltech.linkedlist;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+
+/*
+ * A custom linked list class. This class denotes an unrolled doubly linked list. Uses the UNode
+ * class to generate elements for the list, where each node stores a small array of objects
+ * rather than a single object. This greatly reduces the memory used per element and lets scans
+ * through the list (indexOf(), iteration) run over contiguous arrays instead of following a
+ * reference for every element.
+ *
+ * A node that becomes full is split in two when an element is inserted into it, and a node that
+ * falls below half full is merged with the node that follows it when they fit in one node.
+ *
+ * The list has no SNode chain, so it implements IList rather than ILinkedList and its
+ * iterator is an ICursor.
+ *
+ * Class variables: head - Stores the first node in the list.
+ *                  tail - Stores the last node in the list.
+ *                  listSize - Stores the current size of the list.
+ *                  nodeCapacity - Maximum number of elements stored in each node.
+ *
+ * Public methods:
+ *    add(Object object) : Add an element to the end of the list.
+ *    add(Object object, int index) : Insert element into list at specified index.
+ *    remove(int idx) : Remove an element from the list at the specified index.
+ *    get(int idx) : Retrieves the element at the specified index.
+ *    set(int idx, Object object) : Replaces the element at the specified index.
+ *    poll() : Retrieves and removes the head (first element) of this list.
+ *    pollTail() : Retrieves and removes the tail (last element) of this list.
+ *    iterator() : Return a ListIterator object to alow us to iterate through a list and
+ *                 manipulate the elements it contains.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public class UnrolledLinkedList<T> implements IList<T> {
+
+  private static final int DEFAULT_NODE_CAPACITY = 32;
+
+  private final int nodeCapacity;
+  private UNode<T> head;
+  private UNode<T> tail;
+  private int listSize;
+
+  // Location (node and offset within that node) set by locate(), insertAt() and removeAt().
+  private UNode<T> locNode;
+  private int locOffset;
+
+  public UnrolledLinkedList() {
+    this(DEFAULT_NODE_CAPACITY);
+  }
+
+  /*
+   * @param   nodeCapacity : maximum number of elements stored in each node, at least 2.
+   */
+  public UnrolledLinkedList(int nodeCapacity) {
+    if (nodeCapacity < 2) {
+      throw new IllegalArgumentException("Node capacity must be at least 2: " + nodeCapacity);
+    }
+    this.nodeCapacity = nodeCapacity;
+    this.head = null;
+    this.tail = null;
+    this.listSize = 0;
+  }
+
+  public int getSize() {
+    return listSize;
+  }
+
+  /*
+   * Return boolean, true if list is empty, false if not.
+   */
+  public boolean isEmpty() {
+    return listSize == 0;
+  }
+
+  /*
+   * Retrieves, but does not remove, the head (first element) of this list.
+   * Returns null if list is empty
+   */
+  public T peek() {
+    return head == null ? null : head.getItem(0);
+  }
+
+  /*
+   * Retrieves, but does not remove, the tail (last element) of this list.
+   * Returns null if list is empty
+   */
+  public T peekTail() {
+    return tail == null ? null : tail.getItem(tail.getCount() - 1);
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element to the end of the list.
+   *
+   * @param object : Parameter of type 'object' which will be stored in the list.
+   *
+   */
+  public void add(T object) {
+    if (tail == null || tail.getCount() == nodeCapacity) {
+      // The last node is full (or there isn't one), start a new node rather than splitting
+      // so that nodes filled by appending stay full.
+      linkAfter(tail, new UNode<>(nodeCapacity));
+    }
+    tail.setItem(tail.getCount(), object);
+    tail.setCount(tail.getCount() + 1);
+    listSize++;
+  }
+
+  /*
+   * @Overloaded method
+   * Add an element at a specific location within the list.
+   * Set index to 0 to add at beginning of list.
+   * Set index equal to list size to add to end of list.
+   *
+   * @param object : Parameter of type 'object' which will be stored in the list.
+   *
+   * @param idx : Parameter of type 'int'. Position within the list that the new
+   * element is to be added.
+   *
+   */
+  public void add(T object, int idx) {
+    if (idx == listSize) {
+      add(object);
+    } else {
+      checkPositionIndexValid(idx);
+      locate(idx);
+      insertAt(locNode, locOffset, object);
+    }
+  }
+
+  /*
+   * Remove an element from the list at the specified index.
+   *
+   * @param idx : Parameter of type 'int', acts as indentifier for element to be
+   * removed from list
+   *
+   */
+  public void remove(int idx) {
+    checkNodeIndexValid(idx);
+    locate(idx);
+    removeAt(locNode, locOffset);
+  }
+
+  /*
+   * Retrieves, but does not remove, the element at the specified index.
+   *
+   * @param idx : Parameter of type 'int', position of the element to be retrieved.
+   *
+   */
+  public T get(int idx) {
+    checkNodeIndexValid(idx);
+    locate(idx);
+    return locNode.getItem(locOffset);
+  }
+
+  /*
+   * Replaces the element stored at the specified index. Returns the element previously
+   * stored at that position.
+   *
+   * @param idx : Parameter of type 'int', position of the element to be replaced.
+   *
+   * @param object : Parameter of type 'object' to be stored at the specified position.
+   *
+   */
+  public T set(int idx, T object) {
+    checkNodeIndexValid(idx);
+    locate(idx);
+    T oldObject = locNode.getItem(locOffset);
+    locNode.setItem(locOffset, object);
+    return oldObject;
+  }
+
+  /*
+   * Retrieves and removes the head (first element) of this list. Returns null if list
+   * is empty
+   */
+  public T poll() {
+    return head == null ? null : removeAt(head, 0);
+  }
+
+  /*
+   * Retrieves and removes the tail (last element) of this list. Returns
+   * null if list is empty.
+   */
+  public T pollTail() {
+    return tail == null ? null : removeAt(tail, tail.getCount() - 1);
+  }
+
+  /*
+   * Return the index of the element equal to the specified data item. Scans the arrays held
+   * by each node in turn.
+   *
+   * @param   object : item that is being searched for.
+   */
+  public int indexOf(T object) {
+    int base = 0;
+    for (UNode<T> n = head; n != null; n = n.getNext()) {
+      Object[] items = n.getItems();
+      int count = n.getCount();
+      if (object == null) {
+        for (int i = 0; i < count; i++) {
+          if (items[i] == null) {
+            return base + i;
+          }
+        }
+      } else {
+        for (int i = 0; i < count; i++) {
+          if (object.equals(items[i])) {
+            return base + i;
+          }
+        }
+      }
+      base += count;
+    }
+    return -1;
+  }
+
+  /*
+   * Returns an object of ListIterator, used to iterate forwards through the list.
+   */
+  public ICursor<T> iterator() {
+    return new ListIterator(IIterator.IteratorDirection.FORWARD);
+  }
+
+  /*
+   * Returns an object of ListIterator, used to iterate through the list in the specified
+   * direction.
+   */
+  public ICursor<T> iterator(IIterator.IteratorDirection direction) {
+    return new ListIterator(direction);
+  }
+
+  /*
+   * Returns a Spliterator over the elements in the list, from head to tail. The elements are
+   * not held in a chain of SNodes, so they are read through a forward iterator.
+   */
+  public Spliterator<T> spliterator() {
+    return NodeSpliterator.of(new ListIterator(IIterator.IteratorDirection.FORWARD), listSize);
+  }
+
+  /*
+   * Link a new node into the list after the specified node. If the specified node is null
+   * the new node becomes the head of the list.
+   */
+  private void linkAfter(UNode<T> node, UNode<T> newNode) {
+    UNode<T> nextNode = node == null ? head : node.getNext();
+    newNode.setPrev(node);
+    newNode.setNext(nextNode);
+    if (node == null) {
+      head = newNode;
+    } else {
+      node.setNext(newNode);
+    }
+    if (nextNode == null) {
+      tail = newNode;
+    } else {
+      nextNode.setPrev(newNode);
+    }
+  }
+
+  /*
+   * Unlink the specified node from the list.
+   */
+  private void unlink(UNode<T> node) {
+    UNode<T> prevNode = node.getPrev();
+    UNode<T> nextNode = node.getNext();
+    if (prevNode == null) {
+      head = nextNode;
+    } else {
+      prevNode.setNext(nextNode);
+    }
+    if (nextNode == null) {
+      tail = prevNode;
+    } else {
+      nextNode.setPrev(prevNode);
+    }
+    node.setPrev(null);
+    node.setNext(null);
+  }
+
+  /*
+   * Set locNode/locOffset to the location of the element at the specified index, walking
+   * from whichever end of the list is closer. Index must already have been validated.
+   */
+  private void locate(int idx) {
+    UNode<T> n;
+    if (idx < (listSize >>> 1)) {
+      n = head;
+      while (idx >= n.getCount()) {
+        idx -= n.getCount();
+        n = n.getNext();
+      }
+    } else {
+      int fromEnd = listSize - 1 - idx;
+      n = tail;
+      while (fromEnd >= n.getCount()) {
+        fromEnd -= n.getCount();
+        n = n.getPrev();
+      }
+      idx = n.getCount() - 1 - fromEnd;
+    }
+    locNode = n;
+    locOffset = idx;
+  }
+
+  /*
+   * Insert an object at the specified offset within a node, splitting the node first if it is
+   * full. Sets locNode/locOffset to the location of the inserted object.
+   *
+   * @param   node : node the object is inserted into.
+   * @param   offset : position within the node, from 0 up to and including its count.
+   * @param   object : item to be inserted.
+   */
+  private void insertAt(UNode<T> node, int offset, T object) {
+    if (node.getCount() == nodeCapacity) {
+      UNode<T> newNode = new UNode<>(nodeCapacity);
+      linkAfter(node, newNode);
+      if (offset == nodeCapacity) {
+        // Inserting after the last element of a full node, the new node only needs to
+        // hold the inserted object.
+        node = newNode;
+        offset = 0;
+      } else {
+        // Move the upper half of the full node into the new node.
+        int keep = nodeCapacity >>> 1;
+        int moved = nodeCapacity - keep;
+        System.arraycopy(node.getItems(), keep, newNode.getItems(), 0, moved);
+        Arrays.fill(node.getItems(), keep, nodeCapacity, null);
+        node.setCount(keep);
+        newNode.setCount(moved);
+        if (offset > keep) {
+          node = newNode;
+          offset -= keep;
+        }
+      }
+    }
+    Object[] items = node.getItems();
+    System.arraycopy(items, offset, items, offset + 1, node.getCount() - offset);
+    items[offset] = object;
+    node.setCount(node.getCount() + 1);
+    listSize++;
+    locNode = node;
+    locOffset = offset;
+  }
+
+  /*
+   * Remove the object at the specified offset within a node. Empty nodes are unlinked, and a
+   * node that falls below half full absorbs the following node when both fit in one node.
+   * Sets locNode/locOffset to the location of the object that followed the removed object,
+   * locNode is null if the removed object was the last in the list.
+   *
+   * @param   node : node the object is removed from.
+   * @param   offset : position of the object within the node.
+   */
+  private T removeAt(UNode<T> node, int offset) {
+    Object[] items = node.getItems();
+    T object = node.getItem(offset);
+    int count = node.getCount() - 1;
+    System.arraycopy(items, offset + 1, items, offset, count - offset);
+    items[count] = null;
+    node.setCount(count);
+    listSize--;
+
+    UNode<T> nextNode = node.getNext();
+    if (count == 0) {
+      unlink(node);
+      locNode = nextNode;
+      locOffset = 0;
+      return object;
+    }
+    if (nextNode != null && count < (nodeCapacity >>> 1)
+        && count + nextNode.getCount() <= nodeCapacity) {
+      // Merge the following node into this one. Offsets within this node are unchanged.
+      System.arraycopy(nextNode.getItems(), 0, items, count, nextNode.getCount());
+      node.setCount(count + nextNode.getCount());
+      unlink(nextNode);
+    }
+    if (offset < node.getCount()) {
+      locNode = node;
+      locOffset = offset;
+    } else {
+      locNode = node.getNext();
+      locOffset = 0;
+    }
+    return object;
+  }
+
+  /*
+   * Iterator class to allow list to be travesersed bidirectionally. The iterator keeps the
+   * indexes of its previous, current and next elements, adjusted by every insertion and removal
+   * it makes, along with the location (node and offset) of the current element. It follows the
+   * same rules as the DLinkedList iterator: elements added through addBefore() or addAfter()
+   * are not visited by the iteration.
+   *
+   *    Note: remove(), addBefore() and addAfter() throw an IllegalStateException when there
+   *          is no current element.
+   */
+  private class ListIterator implements ICursor<T> {
+
+    private UNode<T> node;
+    private int offset;
+    private int prevIdx;
+    private int currIdx;
+    private int nextIdx;
+    // Set when the current element was removed, the location then refers to the element
+    // that followed it which now occupies its index.
+    private boolean removed;
+
+    private ListIterator(IIterator.IteratorDirection direction) {
+      this.node = null;
+      this.offset = 0;
+      if (direction == IIterator.IteratorDirection.FORWARD) {
+        this.prevIdx = -1;
+        this.nextIdx = 0;
+      } else {
+        this.prevIdx = listSize - 1;
+        this.nextIdx = listSize;
+      }
+      this.currIdx = -1;
+    }
+
+    public boolean hasNext() {
+      return nextIdx < listSize;
+    }
+
+    public boolean hasPrev() {
+      return prevIdx >= 0;
+    }
+
+    /*
+     * Target the next element in the list. The next element then becomes the current element
+     * and is ready to be processed.
+     */
+    public void next() {
+      moveTo(nextIdx);
+      prevIdx = nextIdx - 1;
+      currIdx = nextIdx++;
+      removed = false;
+    }
+
+    /*
+     * Target the previous element in the list. The previous element then becomes the current
+     * element and is ready to be processed.
+     */
+    public void prev() {
+      moveTo(prevIdx);
+      nextIdx = prevIdx + 1;
+      currIdx = prevIdx--;
+      removed = false;
+    }
+
+    /*
+     * Move the location from the element at the current index to the element at the specified
+     * index. The location is found from the start of the list if there is none yet.
+     *
+     * @param   target : index of the element to move to.
+     */
+    private void moveTo(int target) {
+      if (node == null) {
+        locate(target);
+        node = locNode;
+        offset = locOffset;
+        return;
+      }
+      offset += target - currIdx;
+      while (offset >= node.getCount()) {
+        offset -= node.getCount();
+        node = node.getNext();
+      }
+      while (offset < 0) {
+        node = node.getPrev();
+        offset += node.getCount();
+      }
+    }
+
+    public T get() {
+      return removed || node == null ? null : node.getItem(offset);
+    }
+
+    public void set(T data) {
+      if (!removed && node != null) {
+        node.setItem(offset, data);
+      }
+    }
+
+    /*
+     * Removes the current element from the list. The element that followed it takes its
+     * index.
+     */
+    public void remove() {
+      checkCurrent();
+      removeAt(node, offset);
+      node = locNode;
+      offset = locOffset;
+      removed = true;
+      nextIdx--;
+    }
+
+    /*
+     * Add a new element before the current element. The current element moves up one
+     * position.
+     *
+     * @param   data : the object to be added to the list.
+     */
+    public void addBefore(T data) {
+      checkCurrent();
+      insertAt(node, offset, data);
+      node = locNode;
+      offset = locOffset + 1;
+      while (offset >= node.getCount()) {
+        offset -= node.getCount();
+        node = node.getNext();
+      }
+      currIdx++;
+      nextIdx++;
+    }
+
+    /*
+     * Add a new element after the current element.
+     *
+     * @param   data : the object to be added to the list.
+     */
+    public void addAfter(T data) {
+      checkCurrent();
+      insertAt(node, offset + 1, data);
+      node = locNode;
+      offset = locOffset - 1;
+      while (offset < 0) {
+        node = node.getPrev();
+        offset += node.getCount();
+      }
+      nextIdx++;
+    }
+
+    /*
+     * Throw an IllegalStateException if there is no current element, because neither next()
+     * nor prev() has been called or the current element has been removed.
+     */
+    private void checkCurrent() {
+      if (removed || node == null) {
+        throw new IllegalStateException("Iterator has no current element");
+      }
+    }
+  }
+}
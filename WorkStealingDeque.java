@@ -0,0 +1,292 @@
+package com.cqueltech.linkedlist;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/*
+ * A custom list class. This class denotes a lock-free work-stealing deque, as used by fork/join
+ * style task schedulers. Each deque has a single owner thread which pushes and pops elements at
+ * the tail (LIFO), while any number of other threads (thieves) steal elements from the head
+ * (FIFO). The owner works on the most recently added, cache-hot elements and thieves take the
+ * oldest, so the two ends rarely meet and there is no lock at all.
+ *
+ * It is a Chase-Lev deque. Elements are held in a circular array between the indexes 'top'
+ * (the head, advanced by thieves with compare-and-set) and 'bottom' (the tail, written only by
+ * the owner). The owner only has to compete with thieves, using compare-and-set, when it pops
+ * the last remaining element. When the array is full the owner copies it to one twice the size,
+ * thieves still reading the old array see the same elements there. An array is used rather than
+ * a chain of nodes so that pushing does not allocate and the elements are contiguous in memory.
+ * A thief does not clear the slot of an element it steals, the owner overwrites it when it next
+ * pushes into that slot. Until then the array may keep stolen elements reachable, up to its
+ * capacity.
+ *
+ *    Note: add() and pollTail() must only be called by the owner thread. poll() may be called by
+ *          any thread. Null elements are not permitted.
+ *
+ * Operations that look at the whole deque (indexOf(), contains(), peek(), peekTail() and
+ * spliterator()) are weakly consistent.
+ *
+ * Class variables: array - Circular array holding the elements.
+ *                  top - Index of the element at the head of the deque.
+ *                  bottom - Index one past the element at the tail of the deque.
+ *
+ * Public methods:
+ *    add(Object object) : Owner only. Push an element onto the tail of the deque.
+ *    pollTail() : Owner only. Pop the element at the tail of the deque.
+ *    poll() : Steal the element at the head of the deque.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+public class WorkStealingDeque<T> implements IList<T> {
+
+  private static final int INITIAL_CAPACITY = 1 << 6;
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  private static final VarHandle TOP;
+  private static final VarHandle BOTTOM;
+  private static final VarHandle ARRAY;
+  private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      TOP = lookup.findVarHandle(WorkStealingDeque.class, "top", long.class);
+      BOTTOM = lookup.findVarHandle(WorkStealingDeque.class, "bottom", long.class);
+      ARRAY = lookup.findVarHandle(WorkStealingDeque.class, "array", Object[].class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private volatile long top;
+  private long bottom;
+  private Object[] array;
+
+  public WorkStealingDeque() {
+    this(INITIAL_CAPACITY);
+  }
+
+  /*
+   * @param   initialCapacity : number of elements the deque can hold before it has to grow,
+   *                            rounded up to a power of 2.
+   */
+  public WorkStealingDeque(int initialCapacity) {
+    if (initialCapacity <= 0 || initialCapacity > MAXIMUM_CAPACITY) {
+      throw new IllegalArgumentException("Illegal initial capacity: " + initialCapacity);
+    }
+    int capacity = Integer.highestOneBit(initialCapacity);
+    if (capacity < initialCapacity) {
+      capacity <<= 1;
+    }
+    this.array = new Object[capacity];
+    this.top = 0;
+    this.bottom = 0;
+  }
+
+  /*
+   * Returns the number of elements in the deque. The value is exact when no other thread is
+   * modifying the deque, otherwise it is an estimate.
+   */
+  public int getSize() {
+    long n = (long) BOTTOM.getAcquire(this) - top;
+    return n < 0 ? 0 : (int) n;
+  }
+
+  public boolean isEmpty() {
+    return getSize() == 0;
+  }
+
+  public int size() {
+    return getSize();
+  }
+
+  /*
+   * @Overloaded method
+   * Owner only. Push an element onto the tail of the deque, growing the array if it is full.
+   *
+   * @param object : Parameter of type 'object' to be added to the deque.
+   *
+   */
+  public void add(T object) {
+    if (object == null) {
+      throw new NullPointerException();
+    }
+    long b = bottom;
+    long t = (long) TOP.getAcquire(this);
+    Object[] a = array;
+    if (b - t > a.length - 1) {
+      a = grow(a, t, b);
+    }
+    SLOT.setRelease(a, (int) b & (a.length - 1), object);
+    // Publish the element to thieves.
+    BOTTOM.setRelease(this, b + 1);
+  }
+
+  /*
+   * @Overloaded method
+   * Positional insertion is not supported, elements can only be pushed onto the tail.
+   */
+  public void add(T object, int idx) {
+    throw new UnsupportedOperationException("Positional insertion is not supported by "
+        + "WorkStealingDeque");
+  }
+
+  /*
+   * Owner only. Retrieves and removes the tail (last element) of the deque. Returns null if the
+   * deque is empty.
+   */
+  @SuppressWarnings("unchecked")
+  public T pollTail() {
+    long b = bottom - 1;
+    Object[] a = array;
+    // Claim the tail before reading top. This store must be ordered before the load of top,
+    // so that a thief and the owner cannot both take the last element.
+    BOTTOM.setVolatile(this, b);
+    long t = top;
+    if (t > b) {
+      // The deque was empty, restore bottom.
+      BOTTOM.setRelease(this, b + 1);
+      return null;
+    }
+    int i = (int) b & (a.length - 1);
+    T object = (T) SLOT.getAcquire(a, i);
+    if (t == b) {
+      // Last element, race any thieves for it by advancing top.
+      if (!TOP.compareAndSet(this, t, t + 1)) {
+        object = null;
+      }
+      BOTTOM.setRelease(this, b + 1);
+    }
+    if (object != null) {
+      SLOT.setRelease(a, i, null);
+    }
+    return object;
+  }
+
+  /*
+   * Steal the head (first element) of the deque. May be called by any thread. Returns null if
+   * the deque is empty.
+   */
+  @SuppressWarnings("unchecked")
+  public T poll() {
+    for (;;) {
+      long t = (long) TOP.getAcquire(this);
+      VarHandle.fullFence();
+      long b = (long) BOTTOM.getAcquire(this);
+      if (t >= b) {
+        return null;
+      }
+      Object[] a = (Object[]) ARRAY.getAcquire(this);
+      int i = (int) t & (a.length - 1);
+      T object = (T) SLOT.getAcquire(a, i);
+      if (TOP.compareAndSet(this, t, t + 1)) {
+        // The slot is left for the owner to overwrite. Once top has moved on the owner may
+        // already have wrapped around and pushed into it, possibly the same reference again,
+        // so clearing it here could lose that element.
+        return object;
+      }
+      // Lost the race to another thief or to the owner, try again.
+    }
+  }
+
+  /*
+   * Retrieves, but does not remove, the head (first element) of the deque. Returns null if
+   * the deque is empty.
+   */
+  @SuppressWarnings("unchecked")
+  public T peek() {
+    for (;;) {
+      long t = (long) TOP.getAcquire(this);
+      long b = (long) BOTTOM.getAcquire(this);
+      if (t >= b) {
+        return null;
+      }
+      Object[] a = (Object[]) ARRAY.getAcquire(this);
+      T object = (T) SLOT.getAcquire(a, (int) t & (a.length - 1));
+      if (object != null && t == top) {
+        return object;
+      }
+    }
+  }
+
+  /*
+   * Retrieves, but does not remove, the tail (last element) of the deque. Returns null if the
+   * deque is empty. Exact only when called by the owner.
+   */
+  @SuppressWarnings("unchecked")
+  public T peekTail() {
+    long b = (long) BOTTOM.getAcquire(this);
+    if (b <= top) {
+      return null;
+    }
+    Object[] a = (Object[]) ARRAY.getAcquire(this);
+    return (T) SLOT.getAcquire(a, (int) (b - 1) & (a.length - 1));
+  }
+
+  /*
+   * Return the index, counting from the head, of the first element equal to the specified
+   * object, or -1 if it is not found.
+   *
+   * @param   object : item that is being searched for.
+   */
+  public int indexOf(T object) {
+    if (object == null) {
+      return -1;
+    }
+    Object[] a = snapshot();
+    for (int i = 0; i < a.length; i++) {
+      if (object.equals(a[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /*
+   * Returns a Spliterator over a copy of the elements in the deque, from head to tail.
+   */
+  public Spliterator<T> spliterator() {
+    return Spliterators.spliterator(snapshot(), Spliterator.ORDERED | Spliterator.NONNULL);
+  }
+
+  /*
+   * Copy the elements currently in the deque, from head to tail, into a new array. Elements
+   * taken while the copy is made are left out.
+   */
+  private Object[] snapshot() {
+    long t = (long) TOP.getAcquire(this);
+    long b = (long) BOTTOM.getAcquire(this);
+    Object[] a = (Object[]) ARRAY.getAcquire(this);
+    int n = (int) Math.max(0, Math.min(b - t, a.length));
+    Object[] objects = new Object[n];
+    int j = 0;
+    for (long i = t; i < t + n; i++) {
+      Object object = SLOT.getAcquire(a, (int) i & (a.length - 1));
+      if (object != null) {
+        objects[j++] = object;
+      }
+    }
+    return j == n ? objects : Arrays.copyOf(objects, j);
+  }
+
+  /*
+   * Owner only. Copy the elements from top to bottom into an array of twice the size and
+   * publish it. Thieves may still be reading the old array, which is left unchanged.
+   */
+  private Object[] grow(Object[] a, long t, long b) {
+    int capacity = a.length << 1;
+    if (capacity > MAXIMUM_CAPACITY || capacity < 0) {
+      throw new IllegalStateException("Deque capacity exceeded");
+    }
+    Object[] grown = new Object[capacity];
+    for (long i = t; i < b; i++) {
+      grown[(int) i & (capacity - 1)] = SLOT.getAcquire(a, (int) i & (a.length - 1));
+    }
+    ARRAY.setRelease(this, grown);
+    return grown;
+  }
+}
@@ -0,0 +1,313 @@
+package com.cqueltech.linkedlist.benchmarks;
+
+import com.cqueltech.linkedlist.DLinkedList;
+import com.cqueltech.linkedlist.IIterator;
+import com.cqueltech.linkedlist.SLinkedList;
+import java.util.ArrayDeque;
+import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.Objects;
+
+/*
+ * Gives the lists compared by the benchmarks a common set of operations, so each benchmark
+ * method is written once and run against every implementation. JMH runs each combination of
+ * parameters in its own JVM, so only one subclass is loaded at a time and the calls are
+ * inlined as if the list were used directly. The loops over the elements (traverse() and
+ * replaceEvery()) are implemented by each subclass so that they run on the list's own
+ * iterator.
+ *
+ * Public methods:
+ *    create(String impl, int poolCapacity) : Returns an empty list of the named implementation.
+ *    elements(String type, int n) : Returns n distinct elements of the named type.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+abstract class BenchmarkList {
+
+  abstract void add(Object object);
+
+  abstract void add(Object object, int idx);
+
+  abstract void remove(int idx);
+
+  abstract Object poll();
+
+  abstract int indexOf(Object object);
+
+  abstract int size();
+
+  /*
+   * Visit every element from head to tail, returning a value computed from all of them.
+   */
+  abstract int traverse();
+
+  /*
+   * Visit every element from head to tail, replacing every stride'th element with the object
+   * by adding it before the element and then removing the element.
+   */
+  abstract void replaceEvery(int stride, Object object);
+
+  /*
+   * Return an empty list of the named implementation: SLinkedList, DLinkedList, LinkedList or
+   * ArrayDeque. ArrayDeque has no positional operations or iterator insertion, and throws an
+   * UnsupportedOperationException for them.
+   *
+   * @param   impl : name of the list implementation.
+   * @param   poolCapacity : node pool capacity for SLinkedList and DLinkedList, ignored by the
+   *                         others.
+   */
+  static BenchmarkList create(String impl, int poolCapacity) {
+    switch (impl) {
+      case "SLinkedList":
+        return new SList(new SLinkedList<>(poolCapacity));
+      case "DLinkedList":
+        return new DList(new DLinkedList<>(poolCapacity));
+      case "LinkedList":
+        return new JdkLinkedList(new LinkedList<>());
+      case "ArrayDeque":
+        return new JdkArrayDeque(new ArrayDeque<>());
+      default:
+        throw new IllegalArgumentException("Unknown list implementation: " + impl);
+    }
+  }
+
+  /*
+   * Return n distinct elements of the named type: Integer (boxed beyond the Integer cache) or
+   * String (of about a dozen characters). The benchmarks take their elements from this array,
+   * so any allocation they report is made by the list itself.
+   *
+   * @param   type : name of the element type.
+   * @param   n : number of elements.
+   */
+  static Object[] elements(String type, int n) {
+    Object[] elements = new Object[n];
+    for (int i = 0; i < n; i++) {
+      switch (type) {
+        case "Integer":
+          elements[i] = Integer.valueOf(1_000_000 + i);
+          break;
+        case "String":
+          elements[i] = "element-" + i;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown element type: " + type);
+      }
+    }
+    return elements;
+  }
+
+  private static final class SList extends BenchmarkList {
+    private final SLinkedList<Object> list;
+
+    private SList(SLinkedList<Object> list) {
+      this.list = list;
+    }
+
+    void add(Object object) {
+      list.add(object);
+    }
+
+    void add(Object object, int idx) {
+      list.add(object, idx);
+    }
+
+    void remove(int idx) {
+      list.remove(idx);
+    }
+
+    Object poll() {
+      return list.poll();
+    }
+
+    int indexOf(Object object) {
+      return list.indexOf(object);
+    }
+
+    int size() {
+      return list.getSize();
+    }
+
+    int traverse() {
+      int h = 0;
+      IIterator<Object> it = list.iterator();
+      while (it.hasNext()) {
+        it.next();
+        h += it.get().hashCode();
+      }
+      return h;
+    }
+
+    void replaceEvery(int stride, Object object) {
+      IIterator<Object> it = list.iterator();
+      for (int i = 0; it.hasNext(); i++) {
+        it.next();
+        if (i % stride == 0) {
+          it.addBefore(object);
+          it.remove();
+        }
+      }
+    }
+  }
+
+  private static final class DList extends BenchmarkList {
+    private final DLinkedList<Object> list;
+
+    private DList(DLinkedList<Object> list) {
+      this.list = list;
+    }
+
+    void add(Object object) {
+      list.add(object);
+    }
+
+    void add(Object object, int idx) {
+      list.add(object, idx);
+    }
+
+    void remove(int idx) {
+      list.remove(idx);
+    }
+
+    Object poll() {
+      return list.poll();
+    }
+
+    int indexOf(Object object) {
+      return list.indexOf(object);
+    }
+
+    int size() {
+      return list.getSize();
+    }
+
+    int traverse() {
+      int h = 0;
+      IIterator<Object> it = list.iterator(IIterator.IteratorDirection.FORWARD);
+      while (it.hasNext()) {
+        it.next();
+        h += it.get().hashCode();
+      }
+      return h;
+    }
+
+    void replaceEvery(int stride, Object object) {
+      IIterator<Object> it = list.iterator(IIterator.IteratorDirection.FORWARD);
+      for (int i = 0; it.hasNext(); i++) {
+        it.next();
+        if (i % stride == 0) {
+          it.addBefore(object);
+          it.remove();
+        }
+      }
+    }
+  }
+
+  private static final class JdkLinkedList extends BenchmarkList {
+    private final LinkedList<Object> list;
+
+    private JdkLinkedList(LinkedList<Object> list) {
+      this.list = list;
+    }
+
+    void add(Object object) {
+      list.add(object);
+    }
+
+    void add(Object object, int idx) {
+      list.add(idx, object);
+    }
+
+    void remove(int idx) {
+      list.remove(idx);
+    }
+
+    Object poll() {
+      return list.poll();
+    }
+
+    int indexOf(Object object) {
+      return list.indexOf(object);
+    }
+
+    int size() {
+      return list.size();
+    }
+
+    int traverse() {
+      int h = 0;
+      for (Object object : list) {
+        h += object.hashCode();
+      }
+      return h;
+    }
+
+    void replaceEvery(int stride, Object object) {
+      ListIterator<Object> it = list.listIterator();
+      for (int i = 0; it.hasNext(); i++) {
+        it.next();
+        if (i % stride == 0) {
+          // Removing the element and then adding leaves the new element in its place.
+          it.remove();
+          it.add(object);
+        }
+      }
+    }
+  }
+
+  private static final class JdkArrayDeque extends BenchmarkList {
+    private final ArrayDeque<Object> deque;
+
+    private JdkArrayDeque(ArrayDeque<Object> deque) {
+      this.deque = deque;
+    }
+
+    void add(Object object) {
+      deque.add(object);
+    }
+
+    void add(Object object, int idx) {
+      throw unsupported();
+    }
+
+    void remove(int idx) {
+      throw unsupported();
+    }
+
+    Object poll() {
+      return deque.poll();
+    }
+
+    int indexOf(Object object) {
+      // ArrayDeque has no indexOf(), search it the way a caller would.
+      int idx = 0;
+      for (Object element : deque) {
+        if (Objects.equals(object, element)) {
+          return idx;
+        }
+        idx++;
+      }
+      return -1;
+    }
+
+    int size() {
+      return deque.size();
+    }
+
+    int traverse() {
+      int h = 0;
+      for (Object object : deque) {
+        h += object.hashCode();
+      }
+      return h;
+    }
+
+    void replaceEvery(int stride, Object object) {
+      throw unsupported();
+    }
+
+    private static UnsupportedOperationException unsupported() {
+      return new UnsupportedOperationException("ArrayDeque has no positional operations");
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package com.cqueltech.linkedlist.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Benchmarks the positional operations add(Object, int) and remove(int), and indexOf(), on
+ * SLinkedList and DLinkedList against java.util.LinkedList. ArrayDeque has no positional
+ * operations, so it is only compared by QueueBenchmark.
+ *
+ * The index worked on follows the access pattern: the head, the middle or the tail of the list,
+ * or a random index taken from a fixed sequence. addAt() inserts at the index and then polls
+ * the head, and removeAt() removes at the index and then adds to the tail, so the list stays
+ * the same size and each measures the positional operation plus a constant time one. indexOf()
+ * searches for the element at the index of an unchanged list.
+ *
+ * Class variables: impl - Name of the list implementation.
+ *                  size - Number of elements in the list.
+ *                  elementType - Type of the elements held in the list.
+ *                  pattern - Which index each operation works on.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class IndexBenchmark {
+
+  private static final int RANDOM_INDEXES = 4096;
+
+  @Param({"SLinkedList", "DLinkedList", "LinkedList"})
+  public String impl;
+
+  @Param({"1000", "100000", "1000000", "10000000"})
+  public int size;
+
+  @Param({"Integer", "String"})
+  public String elementType;
+
+  @Param({"HEAD", "MIDDLE", "TAIL", "RANDOM"})
+  public String pattern;
+
+  private BenchmarkList list;
+  private Object[] elements;
+  private int[] indexes;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    elements = BenchmarkList.elements(elementType, size);
+    list = BenchmarkList.create(impl, 0);
+    for (Object element : elements) {
+      list.add(element);
+    }
+    indexes = new int[RANDOM_INDEXES];
+    SplittableRandom random = new SplittableRandom(42);
+    for (int i = 0; i < RANDOM_INDEXES; i++) {
+      switch (pattern) {
+        case "HEAD":
+          indexes[i] = 0;
+          break;
+        case "MIDDLE":
+          indexes[i] = size / 2;
+          break;
+        case "TAIL":
+          indexes[i] = size - 1;
+          break;
+        case "RANDOM":
+          indexes[i] = random.nextInt(size);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown access pattern: " + pattern);
+      }
+    }
+    next = 0;
+  }
+
+  /*
+   * Return the index for the next operation.
+   */
+  private int index() {
+    int idx = indexes[next];
+    next = (next + 1) & (RANDOM_INDEXES - 1);
+    return idx;
+  }
+
+  @Benchmark
+  public Object addAt() {
+    int idx = index();
+    list.add(elements[idx], idx);
+    return list.poll();
+  }
+
+  @Benchmark
+  public void removeAt() {
+    int idx = index();
+    list.remove(idx);
+    list.add(elements[idx]);
+  }
+
+  @Benchmark
+  public int indexOf() {
+    return list.indexOf(elements[index()]);
+  }
+}
@@ -0,0 +1,74 @@
+package com.cqueltech.linkedlist.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Benchmarks the iterator loop of a queue worker on SLinkedList and DLinkedList, through
+ * IIterator, against java.util.LinkedList through its ListIterator.
+ *
+ * traverse() visits every element with next(). replaceEvery() also replaces every stride'th
+ * element as it goes, with addBefore() and remove() (or remove() and add() on a LinkedList), so
+ * the list stays the same size.
+ *
+ * Class variables: impl - Name of the list implementation.
+ *                  size - Number of elements in the list.
+ *                  elementType - Type of the elements held in the list.
+ *                  stride - Number of elements visited for each one replaced.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class IteratorBenchmark {
+
+  @Param({"SLinkedList", "DLinkedList", "LinkedList"})
+  public String impl;
+
+  @Param({"1000", "100000", "1000000", "10000000"})
+  public int size;
+
+  @Param({"Integer", "String"})
+  public String elementType;
+
+  @Param({"1", "16"})
+  public int stride;
+
+  private BenchmarkList list;
+  private Object[] elements;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    elements = BenchmarkList.elements(elementType, size);
+    list = BenchmarkList.create(impl, 0);
+    for (Object element : elements) {
+      list.add(element);
+    }
+  }
+
+  @Benchmark
+  public int traverse() {
+    return list.traverse();
+  }
+
+  @Benchmark
+  public void replaceEvery() {
+    list.replaceEvery(stride, elements[0]);
+  }
+}
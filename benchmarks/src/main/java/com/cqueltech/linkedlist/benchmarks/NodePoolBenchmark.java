@@ -0,0 +1,69 @@
+package com.cqueltech.linkedlist.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Benchmarks the steady-state add() and poll() cycle of SLinkedList and DLinkedList with and
+ * without the node pool. Run with -prof gc: with a pool capacity above 0 each poll() keeps its
+ * node for the next add(), so gc.alloc.rate.norm should be (close to) 0 bytes per operation,
+ * against one node per operation without the pool.
+ *
+ * Class variables: impl - Name of the list implementation.
+ *                  poolCapacity - Node pool capacity of the list, 0 for no pool.
+ *                  size - Number of elements in the list.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class NodePoolBenchmark {
+
+  @Param({"SLinkedList", "DLinkedList"})
+  public String impl;
+
+  @Param({"0", "1024"})
+  public int poolCapacity;
+
+  @Param({"1000", "1000000"})
+  public int size;
+
+  private BenchmarkList list;
+  private Object[] elements;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    elements = BenchmarkList.elements("Integer", size);
+    list = BenchmarkList.create(impl, poolCapacity);
+    for (Object element : elements) {
+      list.add(element);
+    }
+    next = 0;
+  }
+
+  @Benchmark
+  public Object addPoll() {
+    list.add(elements[next]);
+    if (++next == size) {
+      next = 0;
+    }
+    return list.poll();
+  }
+}
@@ -0,0 +1,83 @@
+package com.cqueltech.linkedlist.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Benchmarks add() and poll(), the operations of a list used as a FIFO queue, on SLinkedList
+ * and DLinkedList against java.util.LinkedList and ArrayDeque.
+ *
+ * addPoll() adds an element to the tail of a list of the given size and polls one from the
+ * head, so the list stays the same size as it would on a busy queue. fill() builds a list of
+ * the given size from empty with add(). Run with -prof gc to see the allocation made per
+ * operation (gc.alloc.rate.norm), which for addPoll() is one node per add() unless the list
+ * reuses its nodes.
+ *
+ * Class variables: impl - Name of the list implementation.
+ *                  size - Number of elements in the list.
+ *                  elementType - Type of the elements held in the list.
+ *
+ * @author  Jonathan Bateman
+ * @version 1.0.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class QueueBenchmark {
+
+  @Param({"SLinkedList", "DLinkedList", "LinkedList", "ArrayDeque"})
+  public String impl;
+
+  @Param({"1000", "100000", "1000000", "10000000"})
+  public int size;
+
+  @Param({"Integer", "String"})
+  public String elementType;
+
+  private BenchmarkList list;
+  private Object[] elements;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    elements = BenchmarkList.elements(elementType, size);
+    list = BenchmarkList.create(impl, 0);
+    for (Object element : elements) {
+      list.add(element);
+    }
+    next = 0;
+  }
+
+  @Benchmark
+  public Object addPoll() {
+    list.add(elements[next]);
+    if (++next == size) {
+      next = 0;
+    }
+    return list.poll();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public BenchmarkList fill() {
+    BenchmarkList filled = BenchmarkList.create(impl, 0);
+    for (Object element : elements) {
+      filled.add(element);
+    }
+    return filled;
+  }
+}